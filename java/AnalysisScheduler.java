@@ -0,0 +1,166 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Classe AnalysisScheduler : analyse en masse des vidéos du registre sur un pool borné.
+// Les vidéos dont le nombre de commentaires a le plus changé depuis leur dernier
+// résultat passent en premier ; une vidéo déjà en attente n'est pas mise en file une
+// seconde fois (les demandes sont regroupées) ; le nombre de threads est plafonné pour
+// laisser du CPU à l'ingestion.
+class AnalysisScheduler {
+    private static final AtomicInteger schedulerCount = new AtomicInteger();
+    
+    // Demande en file : plus grand écart de commentaires d'abord, puis ordre d'arrivée
+    private class Request implements Runnable, Comparable<Request> {
+        final Video video;
+        final long priority;
+        final long sequence;
+        final long submittedAt;
+        final CompletableFuture<AnalysisResult> future = new CompletableFuture<>();
+        
+        Request(Video video, long priority) {
+            this.video = video;
+            this.priority = priority;
+            this.sequence = sequenceGenerator.getAndIncrement();
+            this.submittedAt = System.nanoTime();
+        }
+        
+        @Override
+        public int compareTo(Request other) {
+            int byPriority = Long.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+        
+        @Override
+        public void run() {
+            // Retirée avant l'analyse : une demande arrivée pendant le calcul en relance un nouveau
+            pending.remove(video.getVideoId(), this);
+            try {
+                AnalysisResult result = YouTubeAnalyzerSystem.analyze(video);
+                long latency = System.nanoTime() - submittedAt;
+                latencies.put(video.getVideoId(), latency);
+                totalLatency.add(latency);
+                completed.increment();
+                maxLatency.accumulateAndGet(latency, Math::max);
+                future.complete(result);
+            } catch (RuntimeException e) {
+                failed.increment();
+                future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Request> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong sequenceGenerator = new AtomicLong();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+    
+    public AnalysisScheduler(int maxConcurrent) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("Concurrency must be positive");
+        int id = schedulerCount.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = task -> {
+            Thread thread = new Thread(task, "analysis-" + id + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // File non bornée : le plafond porte sur les threads, pas sur les demandes
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 30, TimeUnit.SECONDS,
+                                               new PriorityBlockingQueue<>(), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    // La moitié des coeurs : l'autre moitié reste disponible pour l'ingestion
+    public static int defaultConcurrency() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+    
+    public CompletableFuture<AnalysisResult> submit(Video video) {
+        submitted.increment();
+        Request request = new Request(video, changeSinceLastResult(video));
+        Request existing = pending.putIfAbsent(video.getVideoId(), request);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.future;
+        }
+        executor.execute(request);
+        return request.future;
+    }
+    
+    // Toutes les vidéos ayant des commentaires ; retourne le nombre de vidéos analysées
+    public int analyzeAll(Collection<Video> videos) {
+        List<CompletableFuture<AnalysisResult>> futures = new ArrayList<>();
+        for (Video video : videos) {
+            if (video.getCommentCount() == 0) continue;
+            futures.add(submit(video));
+        }
+        
+        int analyzed = 0;
+        for (CompletableFuture<AnalysisResult> future : futures) {
+            try {
+                future.join();
+                analyzed++;
+            } catch (RuntimeException e) {
+                System.out.println("Analysis failed: " + e.getMessage());
+            }
+        }
+        return analyzed;
+    }
+    
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Écart entre le nombre de commentaires actuel et celui du dernier résultat connu
+    private static long changeSinceLastResult(Video video) {
+        AnalysisResult last = YouTubeAnalyzerSystem.getResultCache().peek(video.getVideoId(), YouTubeAnalyzerSystem.isEngagementWeighted());
+        long analyzedCount = last == null ? 0 : last.getTotalCommentsAnalyzed();
+        return Math.abs(video.getCommentCount() - analyzedCount);
+    }
+    
+    public int getQueueDepth() { return executor.getQueue().size(); }
+    public int getActiveCount() { return executor.getActiveCount(); }
+    public int getMaxConcurrent() { return executor.getMaximumPoolSize(); }
+    public long getSubmitted() { return submitted.sum(); }
+    public long getCoalesced() { return coalesced.sum(); }
+    public long getCompleted() { return completed.sum(); }
+    public long getFailed() { return failed.sum(); }
+    
+    // Latence de la dernière analyse de la vidéo (attente en file comprise), -1 si jamais analysée
+    public double getLatencyMillis(String videoId) {
+        Long latency = latencies.get(videoId);
+        return latency == null ? -1 : latency / 1e6;
+    }
+    
+    public double getAverageLatencyMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0.0 : totalLatency.sum() / 1e6 / count;
+    }
+    
+    public double getMaxLatencyMillis() { return maxLatency.get() / 1e6; }
+    
+    public String getStats() {
+        return String.format("threads=%d queue=%d active=%d submitted=%d coalesced=%d completed=%d failed=%d " +
+                             "latency avg=%.2fms max=%.2fms", getMaxConcurrent(), getQueueDepth(), getActiveCount(),
+                             getSubmitted(), getCoalesced(), getCompleted(), getFailed(),
+                             getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+}
\ No newline at end of file
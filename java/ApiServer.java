@@ -0,0 +1,411 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+// Classe ApiServer : service HTTP/JSON embarqué (com.sun.net.httpserver) sur les mêmes
+// registres que le menu. Les lectures passent par les structures sans verrou (IntRegistry,
+// CommentLog, colonnes) et n'attendent pas les écritures d'ingestion ; les listes sont
+// paginées. Les requêtes sont traitées par un pool de threads borné.
+//
+//   GET  /health
+//   GET  /users?offset=&limit=               GET /users/{id}
+//   GET  /videos?offset=&limit=&category=    GET /videos/{id}
+//   GET  /videos/{id}/comments?offset=&limit=
+//   GET  /videos/{id}/analysis?weighting=     (engagement ou none, mode du système par défaut)
+//   POST /videos/{id}/live?window=&slide=     suivi en direct, fenêtres en minutes (60, pas = fenêtre)
+//   GET  /videos/{id}/live                    dernières fenêtres terminées du suivi en direct
+//   GET  /search?q=&offset=&limit=           (titres de vidéos, sans casse)
+//   GET  /categories                          (avec auteurs distincts et quantiles approximatifs)
+//   GET  /trending?limit=                    (vidéos en vogue, au plus TrendingIndex.DEFAULT_CAPACITY)
+//   POST /users | /videos | /comments        un objet JSON, champs de BatchIngestor
+//   POST /ingest                             JSON lines, ou CSV avec Content-Type text/csv
+class ApiServer {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    // Corps des requêtes de création ; /ingest est lu en flux, sans limite
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    
+    public ApiServer(int port, int threads) throws IOException {
+        // En-têtes et corps partent en deux écritures : sans TCP_NODELAY, Nagle et l'ACK
+        // retardé du client ajoutent environ 40 ms à chaque réponse
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "api-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+    
+    public static int defaultThreads() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    public int getPort() { return server.getAddress().getPort(); }
+    
+    public String getStats() {
+        return String.format("requests=%d errors=%d p50=%.3fms p99=%.3fms max=%.3fms",
+                             requests.sum(), failures.sum(), latency.getPercentile(50) / 1e6,
+                             latency.getPercentile(99) / 1e6, latency.getMax() / 1e6);
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        StringBuilder body = new StringBuilder(512);
+        int status;
+        try {
+            status = route(exchange, body);
+        } catch (BadRequest e) {
+            body.setLength(0);
+            status = error(body, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            body.setLength(0);
+            status = error(body, 500, "Internal error: " + e);
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        requests.increment();
+        if (status >= 400) failures.increment();
+        latency.record(System.nanoTime() - start);
+    }
+    
+    private int route(HttpExchange exchange, StringBuilder body) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String resource = path.length > 1 ? path[1] : "";
+        
+        if (method.equals("POST")) {
+            if (resource.equals("videos") && path.length == 4 && path[3].equals("live")) return startLive(path[2], query, body);
+            switch (resource) {
+                case "users": return create(exchange, "user", body);
+                case "videos": return create(exchange, "video", body);
+                case "comments": return create(exchange, "comment", body);
+                case "ingest": return ingest(exchange, body);
+                default: return error(body, 404, "No such resource: " + exchange.getRequestURI().getPath());
+            }
+        }
+        if (!method.equals("GET")) return error(body, 405, "Method not allowed: " + method);
+        
+        switch (resource) {
+            case "health":
+                body.append("{\"status\":\"ok\",\"users\":").append(YouTubeAnalyzerSystem.getUsers().size());
+                body.append(",\"videos\":").append(YouTubeAnalyzerSystem.getVideos().size()).append('}');
+                return 200;
+            case "users":
+                if (path.length == 2) {
+                    Collection<User> users = YouTubeAnalyzerSystem.getUsers().values();
+                    return page(users, users.size(), query, body, ReportEngine::appendUserJson);
+                }
+                User user = YouTubeAnalyzerSystem.getUsers().get(path[2]);
+                if (user == null) return error(body, 404, "User not found: " + path[2]);
+                ReportEngine.appendUserJson(user, body);
+                return 200;
+            case "videos":
+                if (path.length == 2) return listVideos(query, body);
+                Video video = YouTubeAnalyzerSystem.getVideos().get(path[2]);
+                if (video == null) return error(body, 404, "Video not found: " + path[2]);
+                if (path.length == 3) {
+                    ReportEngine.appendVideoJson(video, body);
+                    return 200;
+                }
+                if (path[3].equals("comments")) {
+                    // Seule la page demandée est lue, pas la liste complète des commentaires
+                    int offset = intParameter(query, "offset", 0);
+                    int limit = pageLimit(query);
+                    return page(video.getComments(offset, limit), 0, offset, limit, video.getCommentCount(), body,
+                                (comment, text) -> ReportEngine.appendCommentJson(video, comment, text));
+                }
+                if (path[3].equals("analysis")) return analysis(video, query, body);
+                if (path[3].equals("live")) return live(video, body);
+                return error(body, 404, "No such resource: " + exchange.getRequestURI().getPath());
+            case "search":
+                return search(query, body);
+            case "categories":
+                VideoIndex index = YouTubeAnalyzerSystem.getVideoIndex();
+                body.append("{\"items\":[");
+                boolean first = true;
+                for (String category : index.getCategories()) {
+                    if (!first) body.append(',');
+                    first = false;
+                    body.append("{\"category\":");
+                    ReportEngine.json(body, category).append(",\"videos\":").append(index.countInCategory(category));
+                    appendSketches(YouTubeAnalyzerSystem.getSketches().getCategory(category), body);
+                    body.append('}');
+                }
+                body.append("]}");
+                return 200;
+            case "trending":
+                return trending(query, body);
+            default:
+                return error(body, 404, "No such resource: " + exchange.getRequestURI().getPath());
+        }
+    }
+    
+    private int listVideos(Map<String, String> query, StringBuilder body) {
+        String category = query.get("category");
+        if (category == null) {
+            Collection<Video> videos = YouTubeAnalyzerSystem.getVideos().values();
+            return page(videos, videos.size(), query, body, ReportEngine::appendVideoJson);
+        }
+        Collection<Video> matching = YouTubeAnalyzerSystem.getVideoIndex().findByCategory(category, null, null);
+        return page(matching, matching.size(), query, body, ReportEngine::appendVideoJson);
+    }
+    
+    private int search(Map<String, String> query, StringBuilder body) {
+        String text = query.get("q");
+        if (text == null || text.isEmpty()) throw new BadRequest("Missing query parameter q");
+        String needle = text.toLowerCase(Locale.ROOT);
+        List<Video> matching = new ArrayList<>();
+        for (Video video : YouTubeAnalyzerSystem.getVideos().values()) {
+            if (video.getTitle().toLowerCase(Locale.ROOT).contains(needle)) matching.add(video);
+        }
+        return page(matching, matching.size(), query, body, ReportEngine::appendVideoJson);
+    }
+    
+    // Résultat en cache s'il est à jour, sinon nouvelle analyse
+    private int analysis(Video video, Map<String, String> query, StringBuilder body) {
+        String weighting = query.get("weighting");
+        boolean weighted;
+        if (weighting == null) {
+            weighted = YouTubeAnalyzerSystem.isEngagementWeighted();
+        } else if (weighting.equals("engagement") || weighting.equals("none")) {
+            weighted = weighting.equals("engagement");
+        } else {
+            return error(body, 400, "Invalid weighting: " + weighting + " (expected engagement or none)");
+        }
+        AnalysisResult result = YouTubeAnalyzerSystem.analyze(video, weighted);
+        body.append("{\"video_id\":");
+        ReportEngine.json(body, video.getVideoId()).append(",\"quality_score\":").append(result.getQualityScore());
+        body.append(",\"weighting\":\"").append(weighted ? "engagement" : "none").append('"');
+        body.append(",\"comments_analyzed\":").append(result.getTotalCommentsAnalyzed()).append(",\"recommendation\":");
+        ReportEngine.json(body, result.getRecommendation()).append(",\"analysis_date\":\"");
+        body.append(result.getAnalysisDate().format(DateTimeFormatter.ISO_DATE_TIME)).append('"');
+        appendTrend(video, YouTubeAnalyzerSystem.getTrendingIndex().getClock(), body);
+        body.append(",\"distinct_authors\":").append(video.getDistinctAuthors());
+        body.append('}');
+        return 200;
+    }
+    
+    private int startLive(String videoId, Map<String, String> query, StringBuilder body) {
+        int window = intParameter(query, "window", 60);
+        int slide = intParameter(query, "slide", window);
+        // intParameter refuse déjà les négatifs ; window = 0 serait un multiple de tout pas
+        if (window == 0 || slide == 0 || window < slide || window % slide != 0) {
+            throw new BadRequest("window must be a positive multiple of slide");
+        }
+        if (YouTubeAnalyzerSystem.startLiveAnalysis(videoId, Duration.ofMinutes(window), Duration.ofMinutes(slide)) == null) {
+            return error(body, 404, "Video not found: " + videoId);
+        }
+        body.append("{\"video_id\":");
+        ReportEngine.json(body, videoId).append(",\"window_minutes\":").append(window);
+        body.append(",\"slide_minutes\":").append(slide).append('}');
+        return 201;
+    }
+    
+    // Une fenêtre n'est émise qu'une fois terminée, au premier commentaire postérieur
+    private int live(Video video, StringBuilder body) {
+        StreamingAnalyzer.RecentWindows windows = video.getLiveWindows();
+        if (windows == null) return error(body, 404, "Video is not tracked live: " + video.getVideoId());
+        StreamingAnalyzer analyzer = windows.getAnalyzer();
+        body.append("{\"video_id\":");
+        ReportEngine.json(body, video.getVideoId()).append(",\"comments_processed\":").append(analyzer.getCommentsProcessed());
+        body.append(",\"late_comments\":").append(analyzer.getLateComments()).append(",\"windows\":[");
+        boolean first = true;
+        for (StreamingAnalyzer.WindowResult window : windows.getWindows()) {
+            if (!first) body.append(',');
+            first = false;
+            body.append("{\"start\":\"").append(window.getStart().format(DateTimeFormatter.ISO_DATE_TIME));
+            body.append("\",\"end\":\"").append(window.getEnd().format(DateTimeFormatter.ISO_DATE_TIME));
+            body.append("\",\"quality_score\":").append(window.getResult().getQualityScore());
+            body.append(",\"comments\":").append(window.getResult().getTotalCommentsAnalyzed());
+            body.append(",\"positive\":").append(window.getPositiveCount());
+            body.append(",\"negative\":").append(window.getNegativeCount()).append('}');
+        }
+        body.append("]}");
+        return 200;
+    }
+    
+    private int trending(Map<String, String> query, StringBuilder body) {
+        TrendingIndex index = YouTubeAnalyzerSystem.getTrendingIndex();
+        int limit = Math.min(intParameter(query, "limit", 10), index.getCapacity());
+        long now = index.getClock();
+        body.append("{\"items\":[");
+        boolean first = true;
+        for (Video video : index.top(limit)) {
+            if (!first) body.append(',');
+            first = false;
+            body.append("{\"video_id\":");
+            ReportEngine.json(body, video.getVideoId()).append(",\"title\":");
+            ReportEngine.json(body, video.getTitle());
+            appendTrend(video, now, body);
+            body.append('}');
+        }
+        body.append("]}");
+        return 200;
+    }
+    
+    private static void appendTrend(Video video, long now, StringBuilder body) {
+        TrendTracker trend = video.getTrend();
+        body.append(",\"decayed_score\":").append(trend.getDecayedScore());
+        body.append(",\"momentum\":").append(trend.getMomentum());
+        body.append(",\"comments_per_hour\":").append(trend.getVelocity(now));
+    }
+    
+    // Valeurs approximatives des sketches ; rien tant que la catégorie n'a pas de commentaire
+    private static void appendSketches(SketchRegistry.CategorySketches sketches, StringBuilder body) {
+        if (sketches == null || sketches.lengths.getCount() == 0) return;
+        body.append(",\"distinct_authors\":").append(sketches.authors.estimate());
+        body.append(",\"comment_length_median\":").append(sketches.lengths.quantile(0.5));
+        body.append(",\"comment_length_p90\":").append(sketches.lengths.quantile(0.9));
+        body.append(",\"sentiment_median\":").append(sketches.sentiments.quantile(0.5));
+    }
+    
+    private int create(HttpExchange exchange, String type, StringBuilder body) throws IOException {
+        BatchIngestor ingestor = new BatchIngestor(false);
+        String error = ingestor.ingestJsonRecord(readBody(exchange), type);
+        if (error != null) return error(body, 400, error);
+        body.append("{\"created\":\"").append(type).append("\"}");
+        return 201;
+    }
+    
+    private int ingest(HttpExchange exchange, StringBuilder body) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        boolean jsonLines = contentType == null || !contentType.startsWith("text/csv");
+        BatchIngestor ingestor = new BatchIngestor(false);
+        ingestor.ingest(new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)),
+                        "request", jsonLines);
+        body.append("{\"ingested\":").append(ingestor.getRowsIngested());
+        body.append(",\"rejected\":").append(ingestor.getRowsRejected()).append(",\"errors\":[");
+        List<String> errors = ingestor.getErrors();
+        for (int i = 0; i < errors.size(); i++) {
+            if (i > 0) body.append(',');
+            ReportEngine.json(body, errors.get(i));
+        }
+        body.append("]}");
+        return 200;
+    }
+    
+    // Page offset/limit d'une collection parcourue sans copie ; next_offset absent en fin de liste
+    private static <T> int page(Iterable<T> items, int total, Map<String, String> query, StringBuilder body,
+                                BiConsumer<T, StringBuilder> writer) {
+        int offset = intParameter(query, "offset", 0);
+        return page(items, offset, offset, pageLimit(query), total, body, writer);
+    }
+    
+    // skip : éléments de items qui précèdent la page (0 si items commence déjà à offset)
+    private static <T> int page(Iterable<T> items, int skip, int offset, int limit, int total, StringBuilder body,
+                                BiConsumer<T, StringBuilder> writer) {
+        body.append("{\"offset\":").append(offset).append(",\"limit\":").append(limit);
+        body.append(",\"total\":").append(total).append(",\"items\":[");
+        int index = 0;
+        int written = 0;
+        for (T item : items) {
+            if (written == limit) break;
+            if (index++ < skip) continue;
+            if (written++ > 0) body.append(',');
+            writer.accept(item, body);
+        }
+        body.append(']');
+        if (offset + written < total) body.append(",\"next_offset\":").append(offset + written);
+        body.append('}');
+        return 200;
+    }
+    
+    private static int pageLimit(Map<String, String> query) {
+        return Math.min(intParameter(query, "limit", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+    }
+    
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) throw new BadRequest("Parameter " + name + " must not be negative");
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new BadRequest("Invalid " + name + ": " + value);
+        }
+    }
+    
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+    
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (bytes.size() + read > MAX_BODY_BYTES) throw new BadRequest("Request body is too large");
+                bytes.write(buffer, 0, read);
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+    
+    private static int error(StringBuilder body, int status, String message) {
+        body.append("{\"error\":");
+        ReportEngine.json(body, message).append('}');
+        return status;
+    }
+    
+    // Paramètre ou corps de requête invalide : réponse 400
+    private static final class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        BadRequest(String message) {
+            super(message);
+        }
+    }
+}
\ No newline at end of file
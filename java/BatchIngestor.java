@@ -0,0 +1,318 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Classe BatchIngestor : ingestion non interactive de fichiers CSV ou JSON lines.
+// Les fichiers sont lus ligne par ligne (jamais chargés en entier), sans affichage
+// par ligne, puis toutes les vidéos sont analysées à la fin.
+//
+// CSV (une entité par ligne, le premier champ donne le type) :
+//   user,<user|creator|viewer>,<userId>,<username>,<email>
+//   video,<creatorId>,<videoId>,<title>,<url>,<duration>,<category>
+//   comment,<videoId>,<authorId>,<commentId>,<content>
+// JSON lines : {"type":"comment","videoId":"...","authorId":"...","commentId":"...","content":"..."}
+// avec les mêmes noms de champs ("kind" pour le type d'utilisateur).
+class BatchIngestor {
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_REPORTED_ERRORS = 10;
+    
+    // Destination des enregistrements validés : null si accepté, sinon le motif du rejet
+    interface Sink {
+        String user(String kind, String userId, String username, String email);
+        String video(String creatorId, String videoId, String title, String url, int duration, String category);
+        String comment(String videoId, String authorId, String commentId, String content);
+    }
+    
+    // Registres locaux de YouTubeAnalyzerSystem
+    static final Sink LOCAL = new Sink() {
+        @Override
+        public String user(String kind, String userId, String username, String email) {
+            return YouTubeAnalyzerSystem.registerUser(kind, userId, username, email) == null
+                    ? "unknown user kind '" + kind + "'" : null;
+        }
+        
+        @Override
+        public String video(String creatorId, String videoId, String title, String url, int duration, String category) {
+            if (YouTubeAnalyzerSystem.registerVideo(creatorId, videoId, title, url, duration, category) != null) return null;
+            return YouTubeAnalyzerSystem.getVideos().containsKey(videoId)
+                    ? "video " + videoId + " already exists" : "creator " + creatorId + " not found";
+        }
+        
+        @Override
+        public String comment(String videoId, String authorId, String commentId, String content) {
+            return YouTubeAnalyzerSystem.appendComment(videoId, authorId, commentId, content)
+                    ? null : "video " + videoId + " or author " + authorId + " not found";
+        }
+    };
+    
+    private long rowsIngested;
+    private long rowsRejected;
+    // Les premiers motifs de rejet ; affichés au fil de l'eau sauf pour l'API HTTP
+    private final List<String> errors = new ArrayList<>();
+    private final boolean printErrors;
+    private final Sink sink;
+    private final List<String> fields = new ArrayList<>();
+    private final Map<String, String> record = new HashMap<>();
+    private final StringBuilder token = new StringBuilder();
+    
+    public BatchIngestor() {
+        this(true);
+    }
+    
+    BatchIngestor(boolean printErrors) {
+        this(printErrors, LOCAL);
+    }
+    
+    BatchIngestor(boolean printErrors, Sink sink) {
+        this.printErrors = printErrors;
+        this.sink = sink;
+    }
+    
+    public static void run(String[] paths) {
+        if (paths.length == 0) {
+            System.out.println("Usage: java YouTubeAnalyzerSystem --batch <file.csv|file.jsonl>...");
+            return;
+        }
+        
+        BatchIngestor ingestor = new BatchIngestor();
+        long start = System.nanoTime();
+        for (String path : paths) {
+            try {
+                ingestor.ingest(Paths.get(path));
+            } catch (IOException e) {
+                System.out.println("Cannot read " + path + ": " + e.getMessage());
+            }
+        }
+        long ingested = System.nanoTime();
+        int analyzed = YouTubeAnalyzerSystem.analyzeAllVideos();
+        long end = System.nanoTime();
+        
+        double ingestSeconds = Math.max(ingested - start, 1) / 1e9;
+        System.out.println("Rows ingested: " + ingestor.rowsIngested + ", rejected: " + ingestor.rowsRejected);
+        System.out.printf("Ingestion: %.2f s, %.0f rows/sec%n", ingestSeconds, ingestor.rowsIngested / ingestSeconds);
+        System.out.printf("Analyzed %d videos in %.2f s%n", analyzed, (end - ingested) / 1e9);
+    }
+    
+    public long getRowsIngested() { return rowsIngested; }
+    public long getRowsRejected() { return rowsRejected; }
+    public List<String> getErrors() { return Collections.unmodifiableList(errors); }
+    
+    public void ingest(Path path) throws IOException {
+        boolean jsonLines = path.toString().endsWith(".jsonl") || path.toString().endsWith(".json");
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            ingest(reader, path.getFileName().toString(), jsonLines);
+        }
+    }
+    
+    // Flux déjà ouvert (fichier, corps de requête HTTP) ; source ne sert qu'aux messages
+    public void ingest(BufferedReader reader, String source, boolean jsonLines) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+            String error = jsonLines ? ingestJsonLine(line) : ingestCsvLine(line);
+            if (error == null) {
+                rowsIngested++;
+            } else if (!error.isEmpty()) {
+                reject(source + ":" + lineNumber + ": " + error);
+            }
+        }
+    }
+    
+    // Un seul objet JSON dont le type d'enregistrement est imposé (API HTTP)
+    String ingestJsonRecord(String json, String type) {
+        if (!parseJsonObject(json)) return reject("malformed JSON object");
+        record.put("type", type);
+        String error = ingestRecord();
+        if (error == null) {
+            rowsIngested++;
+            return null;
+        }
+        return reject(error);
+    }
+    
+    private String reject(String error) {
+        rowsRejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+            if (printErrors) System.out.println("Skipping " + error);
+        }
+        return error;
+    }
+    
+    // Retourne null si la ligne a été ingérée, "" pour une ligne d'en-tête, sinon le motif du rejet
+    String ingestCsvLine(String line) {
+        splitCsv(line);
+        String type = fields.get(0);
+        switch (type) {
+            case "type":
+                return "";
+            case "user":
+                if (fields.size() < 5) return "user row needs 5 fields";
+                return ingestUser(fields.get(1), fields.get(2), fields.get(3), fields.get(4));
+            case "video":
+                if (fields.size() < 7) return "video row needs 7 fields";
+                return ingestVideo(fields.get(1), fields.get(2), fields.get(3), fields.get(4), fields.get(5), fields.get(6));
+            case "comment":
+                if (fields.size() < 5) return "comment row needs 5 fields";
+                return ingestComment(fields.get(1), fields.get(2), fields.get(3), fields.get(4));
+            default:
+                return "unknown record type '" + type + "'";
+        }
+    }
+    
+    String ingestJsonLine(String line) {
+        if (!parseJsonObject(line)) return "malformed JSON object";
+        return ingestRecord();
+    }
+    
+    // Objet JSON plat décodé en champs texte, null s'il est mal formé
+    Map<String, String> parseJson(String line) {
+        return parseJsonObject(line) ? new HashMap<>(record) : null;
+    }
+    
+    private String ingestRecord() {
+        String type = record.getOrDefault("type", "");
+        switch (type) {
+            case "user":
+                return ingestUser(record.get("kind"), record.get("userId"), record.get("username"), record.get("email"));
+            case "video":
+                return ingestVideo(record.get("creatorId"), record.get("videoId"), record.get("title"),
+                                   record.get("url"), record.get("duration"), record.get("category"));
+            case "comment":
+                return ingestComment(record.get("videoId"), record.get("authorId"), record.get("commentId"), record.get("content"));
+            default:
+                return "unknown record type '" + type + "'";
+        }
+    }
+    
+    private String ingestUser(String kind, String userId, String username, String email) {
+        if (kind == null || userId == null || username == null) return "user record is incomplete";
+        return sink.user(kind, userId, username, email == null ? "" : email);
+    }
+    
+    private String ingestVideo(String creatorId, String videoId, String title, String url, String duration, String category) {
+        if (creatorId == null || videoId == null || title == null || duration == null) return "video record is incomplete";
+        int seconds;
+        try {
+            seconds = Integer.parseInt(duration.trim());
+        } catch (NumberFormatException e) {
+            return "invalid duration '" + duration + "'";
+        }
+        return sink.video(creatorId, videoId, title, url == null ? "" : url, seconds, category == null ? "" : category);
+    }
+    
+    private String ingestComment(String videoId, String authorId, String commentId, String content) {
+        if (videoId == null || authorId == null || commentId == null || content == null) return "comment record is incomplete";
+        return sink.comment(videoId, authorId, commentId, content);
+    }
+    
+    // Découpage CSV : champs entre guillemets, "" pour un guillemet littéral
+    private void splitCsv(String line) {
+        fields.clear();
+        token.setLength(0);
+        boolean quoted = false;
+        for (int i = 0, n = line.length(); i < n; i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < n && line.charAt(i + 1) == '"') {
+                    token.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(token.toString());
+                token.setLength(0);
+            } else {
+                token.append(c);
+            }
+        }
+        fields.add(token.toString());
+    }
+    
+    // Objet JSON plat : clés et valeurs chaînes ou nombres, pas d'imbrication
+    private boolean parseJsonObject(String line) {
+        record.clear();
+        int i = skipSpaces(line, 0);
+        if (i >= line.length() || line.charAt(i) != '{') return false;
+        i = skipSpaces(line, i + 1);
+        if (i < line.length() && line.charAt(i) == '}') return true;
+        while (i < line.length()) {
+            i = readJsonString(line, i);
+            if (i < 0) return false;
+            String key = token.toString();
+            i = skipSpaces(line, i);
+            if (i >= line.length() || line.charAt(i) != ':') return false;
+            i = skipSpaces(line, i + 1);
+            if (i >= line.length()) return false;
+            if (line.charAt(i) == '"') {
+                i = readJsonString(line, i);
+                if (i < 0) return false;
+            } else {
+                int end = i;
+                while (end < line.length() && ",} \t".indexOf(line.charAt(end)) < 0) end++;
+                token.setLength(0);
+                token.append(line, i, end);
+                i = end;
+            }
+            record.put(key, token.toString());
+            i = skipSpaces(line, i);
+            if (i >= line.length()) return false;
+            if (line.charAt(i) == '}') return true;
+            if (line.charAt(i) != ',') return false;
+            i = skipSpaces(line, i + 1);
+        }
+        return false;
+    }
+    
+    // Lit une chaîne JSON dans token et retourne l'indice qui suit le guillemet fermant, -1 si invalide
+    private int readJsonString(String line, int i) {
+        if (i >= line.length() || line.charAt(i) != '"') return -1;
+        token.setLength(0);
+        for (i++; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') return i + 1;
+            if (c != '\\') {
+                token.append(c);
+                continue;
+            }
+            if (++i >= line.length()) return -1;
+            char escaped = line.charAt(i);
+            switch (escaped) {
+                case 'n': token.append('\n'); break;
+                case 't': token.append('\t'); break;
+                case 'r': token.append('\r'); break;
+                case 'b': token.append('\b'); break;
+                case 'f': token.append('\f'); break;
+                case 'u':
+                    if (i + 4 >= line.length()) return -1;
+                    try {
+                        token.append((char) Integer.parseInt(line.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                    i += 4;
+                    break;
+                default: token.append(escaped);
+            }
+        }
+        return -1;
+    }
+    
+    private static int skipSpaces(String line, int i) {
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) i++;
+        return i;
+    }
+}
\ No newline at end of file
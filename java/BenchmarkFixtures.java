@@ -0,0 +1,108 @@
+import java.util.*;
+import java.util.function.DoubleSupplier;
+
+// Classe BenchmarkFixtures : données et opérations mesurées par les benchmarks JMH de
+// benchmarks/. JMH refuse les classes de benchmark du paquetage par défaut, et un paquetage
+// nommé ne peut pas importer les classes d'ici : chaque opération est donc rendue sous forme
+// de DoubleSupplier, obtenu une fois par réflexion puis appelé directement dans la mesure.
+// La valeur retournée ne doit pas être éliminée (JMH la consomme).
+public class BenchmarkFixtures {
+    private static final String[] WORDS = {"this", "video", "is", "good", "great", "bad", "really", "the", "best",
+                                           "worst", "tutorial", "I", "love", "hate", "it", "poor", "sound", "awesome"};
+    private static final User AUTHOR = new User("bench_user", "bench", "bench@example.com");
+    private static final int REGISTRY_VIDEOS = 100_000;
+    private static boolean registryFilled;
+    
+    // Score d'un commentaire de la longueur donnée avec la méthode d'analyse donnée
+    public static DoubleSupplier sentimentScore(String method, int length) {
+        Comment comment = new Comment("c", randomText(new Random(42), length), AUTHOR);
+        Analyzer analyzer = new Analyzer("bench", method);
+        return () -> analyzer.getSentimentScore(comment);
+    }
+    
+    public static DoubleSupplier analyzeComments(int size, boolean parallel) {
+        List<Comment> comments = randomComments(size);
+        Analyzer analyzer = new Analyzer("bench", "sentiment_analysis");
+        if (parallel) analyzer.setParallelism(0);
+        return () -> analyzer.analyzeComments(comments).getQualityScore();
+    }
+    
+    public static DoubleSupplier calculateScore(int size) {
+        List<Comment> comments = randomComments(size);
+        Analyzer analyzer = new Analyzer("bench", "sentiment_analysis");
+        return () -> analyzer.calculateScore(comments);
+    }
+    
+    public static DoubleSupplier calculateScoreColumnar(int size) {
+        ColumnarCommentStore columns = new ColumnarCommentStore();
+        for (Comment comment : randomComments(size)) {
+            columns.append(comment.getCommentId(), comment.getAuthor().getId(), comment.getContent(), 0, 0, 0, 0.0);
+        }
+        Analyzer analyzer = new Analyzer("bench", "sentiment_analysis");
+        return () -> analyzer.calculateScore(columns, size, 0);
+    }
+    
+    // Un commentaire par appel, sur une vidéo neuve à chaque création de l'opération
+    public static DoubleSupplier addComment() {
+        List<Comment> pool = randomComments(10_000);
+        Video video = new Video("bench_video", "Bench", "http://bench", 60, "bench");
+        int[] next = {0};
+        return () -> {
+            video.addComment(pool.get(next[0]++ % pool.size()));
+            return video.getCommentCount();
+        };
+    }
+    
+    // Recherche d'une vidéo par id texte dans un registre de 100 000 vidéos
+    public static DoubleSupplier videoLookup() {
+        String[] videoIds = randomVideoIds();
+        Map<String, Video> videos = YouTubeAnalyzerSystem.getVideos();
+        int[] next = {0};
+        return () -> videos.get(videoIds[next[0]++ % videoIds.length]) != null ? 1 : 0;
+    }
+    
+    // Même recherche par symbole déjà interné
+    public static DoubleSupplier videoLookupById() {
+        String[] videoIds = randomVideoIds();
+        int[] videoSymbols = new int[videoIds.length];
+        for (int i = 0; i < videoIds.length; i++) videoSymbols[i] = YouTubeAnalyzerSystem.getVideoSymbols().lookup(videoIds[i]);
+        IntRegistry<Video> videos = YouTubeAnalyzerSystem.getVideoRegistry();
+        int[] next = {0};
+        return () -> videos.get(videoSymbols[next[0]++ % videoSymbols.length]) != null ? 1 : 0;
+    }
+    
+    private static synchronized String[] randomVideoIds() {
+        if (!registryFilled) {
+            for (int i = 0; i < 1_000; i++) {
+                YouTubeAnalyzerSystem.registerUser("creator", "bench_creator_" + i, "creator " + i, "");
+            }
+            for (int i = 0; i < REGISTRY_VIDEOS; i++) {
+                YouTubeAnalyzerSystem.registerVideo("bench_creator_" + (i % 1_000), "bench_video_" + i, "Video " + i,
+                                                    "http://bench/" + i, 60, "bench");
+            }
+            registryFilled = true;
+        }
+        Random random = new Random(42);
+        String[] videoIds = new String[REGISTRY_VIDEOS];
+        for (int i = 0; i < videoIds.length; i++) videoIds[i] = "bench_video_" + random.nextInt(REGISTRY_VIDEOS);
+        return videoIds;
+    }
+    
+    private static List<Comment> randomComments(int size) {
+        Random random = new Random(42);
+        List<Comment> comments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            comments.add(new Comment("bench_" + i, randomText(random, 64), AUTHOR));
+        }
+        return comments;
+    }
+    
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+}
\ No newline at end of file
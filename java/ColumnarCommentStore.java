@@ -0,0 +1,319 @@
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// Classe ColumnarCommentStore : commentaires d'une vidéo rangés en colonnes plutôt
+// qu'en objets Comment. Auteur = id interné de l'utilisateur (SymbolTable commune),
+// date = secondes epoch UTC, compteurs dans des int[], identifiant et texte à la suite
+// dans une seule zone d'octets UTF-8. Analyzer parcourt les colonnes directement : le
+// texte est décodé dans un tampon de caractères propre au thread, sans créer de String.
+// Un index à adressage ouvert sur les octets de l'identifiant retrouve la ligne d'un
+// commentaire (like, modification, suppression) sans parcourir la vidéo.
+class ColumnarCommentStore {
+    private static final int INITIAL_ROWS = 16;
+    private static final int INITIAL_ARENA = 1024;
+    // authors, postedAt, likes, dislikes, sentiments, signatures, rowStarts, contentStarts
+    private static final int BYTES_PER_ROW = 4 + 8 + 4 + 4 + 8 + 8 + 4 + 4;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    
+    private static final ThreadLocal<DecodeBuffer> decodeBuffer = ThreadLocal.withInitial(DecodeBuffer::new);
+    
+    // Une ligne est entièrement écrite avant la publication de size : qui lit size voit ses colonnes
+    private volatile int size;
+    private int[] authors = new int[INITIAL_ROWS];
+    private long[] postedAt = new long[INITIAL_ROWS];
+    private int[] likes = new int[INITIAL_ROWS];
+    private int[] dislikes = new int[INITIAL_ROWS];
+    private double[] sentiments = new double[INITIAL_ROWS];
+    // SimHash du texte (DuplicateDetector) : calculé à l'ajout avec --dedup, sinon à la première lecture
+    private long[] signatures = new long[INITIAL_ROWS];
+    // Lignes dont la signature est calculée, un bit par ligne, publié après la signature
+    private volatile long[] signedRows = new long[1];
+    // Ligne i : identifiant dans [rowStarts[i], contentStarts[i]), texte dans [contentStarts[i], rowStarts[i + 1])
+    private int[] rowStarts = new int[INITIAL_ROWS + 1];
+    private int[] contentStarts = new int[INITIAL_ROWS];
+    private byte[] arena = new byte[INITIAL_ARENA];
+    // Lignes supprimées, un bit par ligne ; la place n'est rendue que par compacted()
+    private volatile long[] deletedRows = new long[1];
+    private volatile int deletedCount;
+    // Index identifiant -> ligne : case = ligne + 1, 0 si vide ; au plus à moitié plein.
+    // Les lignes supprimées y restent jusqu'à compacted() et sont sautées par find()
+    private volatile int[] rowIndex = new int[INITIAL_ROWS * 2];
+    
+    public synchronized int append(String commentId, String authorId, String content, long postedAtEpochSecond,
+                                   long likeCount, long dislikeCount, double sentiment) {
+        int row = size;
+        if (row == authors.length) grow();
+        byte[] id = commentId.getBytes(StandardCharsets.UTF_8);
+        byte[] text = content.getBytes(StandardCharsets.UTF_8);
+        int start = rowStarts[row];
+        ensureArena(start + id.length + text.length);
+        System.arraycopy(id, 0, arena, start, id.length);
+        System.arraycopy(text, 0, arena, start + id.length, text.length);
+        
+        authors[row] = YouTubeAnalyzerSystem.getUserSymbols().intern(authorId);
+        postedAt[row] = postedAtEpochSecond;
+        likes[row] = (int) Math.min(likeCount, Integer.MAX_VALUE);
+        dislikes[row] = (int) Math.min(dislikeCount, Integer.MAX_VALUE);
+        sentiments[row] = sentiment;
+        if (YouTubeAnalyzerSystem.isDeduplicating()) sign(row, DuplicateDetector.signature(content));
+        contentStarts[row] = start + id.length;
+        rowStarts[row + 1] = start + id.length + text.length;
+        index(row);
+        size = row + 1;
+        return row;
+    }
+    
+    // Nombre de lignes, supprimées comprises : les indices de ligne restent stables
+    public int size() { return size; }
+    public int liveCount() { return size - deletedCount; }
+    public int getDeletedCount() { return deletedCount; }
+    
+    public boolean isDeleted(int row) {
+        long[] bits = deletedRows;
+        return (row >>> 6) < bits.length && (bits[row >>> 6] & (1L << row)) != 0;
+    }
+    
+    // Marque la ligne supprimée ; false si elle l'était déjà
+    public synchronized boolean delete(int row) {
+        checkRow(row);
+        if (isDeleted(row)) return false;
+        long[] bits = deletedRows;
+        bits[row >>> 6] |= 1L << row;
+        deletedRows = bits;
+        deletedCount++;
+        return true;
+    }
+    
+    public String getCommentId(int row) {
+        checkRow(row);
+        return new String(arena, rowStarts[row], contentStarts[row] - rowStarts[row], StandardCharsets.UTF_8);
+    }
+    
+    public String getContent(int row) {
+        checkRow(row);
+        return new String(arena, contentStarts[row], rowStarts[row + 1] - contentStarts[row], StandardCharsets.UTF_8);
+    }
+    
+    public String getAuthorId(int row) {
+        checkRow(row);
+        return YouTubeAnalyzerSystem.getUserSymbols().nameOf(authors[row]);
+    }
+    
+    // Id interné de l'auteur, utilisable directement dans le registre des utilisateurs
+    public int getAuthorSymbol(int row) { checkRow(row); return authors[row]; }
+    public long getPostedAt(int row) { checkRow(row); return postedAt[row]; }
+    public int getLikes(int row) { checkRow(row); return likes[row]; }
+    public int getDislikes(int row) { checkRow(row); return dislikes[row]; }
+    public double getSentiment(int row) { checkRow(row); return sentiments[row]; }
+    
+    public long getSignature(int row) {
+        checkRow(row);
+        long[] bits = signedRows;
+        if ((row >>> 6) < bits.length && (bits[row >>> 6] & (1L << row)) != 0) return signatures[row];
+        return computeSignature(row);
+    }
+    
+    // Texte décodé dans le tampon du thread ; sous le verrou pour ne pas croiser grow()
+    private synchronized long computeSignature(int row) {
+        DecodeBuffer buffer = decodeBuffer.get();
+        buffer.decode(arena, contentStarts[row], rowStarts[row + 1]);
+        long signature = DuplicateDetector.signature(CharBuffer.wrap(buffer.chars, 0, buffer.length));
+        sign(row, signature);
+        return signature;
+    }
+    
+    // Sous le verrou
+    private void sign(int row, long signature) {
+        signatures[row] = signature;
+        long[] bits = signedRows;
+        bits[row >>> 6] |= 1L << row;
+        signedRows = bits;
+    }
+    
+    // Nouveau score de la ligne (changement de stratégie d'analyse)
+    public synchronized void setSentiment(int row, double sentiment) {
+        checkRow(row);
+        sentiments[row] = sentiment;
+    }
+    
+    public synchronized void addLike(int row) {
+        checkRow(row);
+        if (likes[row] < Integer.MAX_VALUE) likes[row]++;
+    }
+    
+    public synchronized void addDislike(int row) {
+        checkRow(row);
+        if (dislikes[row] < Integer.MAX_VALUE) dislikes[row]++;
+    }
+    
+    // Ligne du commentaire, -1 si absent ; comparaison sur les octets, sans décoder.
+    // Sans verrou : size est lu en premier, les lignes de l'index au-delà ne sont pas encore publiées
+    public int find(String commentId) {
+        byte[] id = commentId.getBytes(StandardCharsets.UTF_8);
+        int rows = size;
+        int[] index = rowIndex;
+        int mask = index.length - 1;
+        for (int slot = hash(id, 0, id.length) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int row = index[slot] - 1;
+            if (row >= rows || isDeleted(row)) continue;
+            int start = rowStarts[row];
+            if (contentStarts[row] - start == id.length
+                    && Arrays.equals(arena, start, start + id.length, id, 0, id.length)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+    
+    // Score du texte de la ligne, décodé dans le tampon du thread
+    public double score(int row, SentimentStrategy strategy) {
+        checkRow(row);
+        DecodeBuffer buffer = decodeBuffer.get();
+        buffer.decode(arena, contentStarts[row], rowStarts[row + 1]);
+        return strategy.score(buffer.chars, buffer.length);
+    }
+    
+    public int getContentLength(int row) {
+        checkRow(row);
+        return rowStarts[row + 1] - contentStarts[row];
+    }
+    
+    // Objet Comment détaché (affichage, persistance) : les likes restent dans les colonnes
+    public Comment toComment(int row, User author) {
+        LocalDateTime postDate = LocalDateTime.ofEpochSecond(getPostedAt(row), 0, ZoneOffset.UTC);
+        Comment comment = new Comment(getCommentId(row), getContent(row), author, postDate);
+        comment.restoreState(postDate, getLikes(row), getDislikes(row));
+        comment.setSentimentScore(getSentiment(row));
+        return comment;
+    }
+    
+    // Copie des seules lignes vivantes, octets recopiés tels quels (ni décodage ni réinternement)
+    public synchronized ColumnarCommentStore compacted() {
+        ColumnarCommentStore copy = new ColumnarCommentStore();
+        int rows = size;
+        int live = rows - deletedCount;
+        copy.ensureRows(Math.max(INITIAL_ROWS, live));
+        int used = 0;
+        for (int row = 0; row < rows; row++) {
+            if (!isDeleted(row)) used += rowStarts[row + 1] - rowStarts[row];
+        }
+        copy.ensureArena(used);
+        int target = 0;
+        for (int row = 0; row < rows; row++) {
+            if (isDeleted(row)) continue;
+            int start = rowStarts[row];
+            int length = rowStarts[row + 1] - start;
+            int destination = copy.rowStarts[target];
+            System.arraycopy(arena, start, copy.arena, destination, length);
+            copy.authors[target] = authors[row];
+            copy.postedAt[target] = postedAt[row];
+            copy.likes[target] = likes[row];
+            copy.dislikes[target] = dislikes[row];
+            copy.sentiments[target] = sentiments[row];
+            if ((signedRows[row >>> 6] & (1L << row)) != 0) copy.sign(target, signatures[row]);
+            copy.contentStarts[target] = destination + contentStarts[row] - start;
+            copy.rowStarts[target + 1] = destination + length;
+            copy.index(target);
+            target++;
+        }
+        copy.size = target;
+        return copy;
+    }
+    
+    // Octets occupés par les colonnes et la zone de texte (hors table des symboles)
+    public synchronized long getHeapBytes() {
+        return (long) authors.length * BYTES_PER_ROW + 4 + arena.length + 8L * deletedRows.length
+                + 8L * signedRows.length + 4L * rowIndex.length + 12 * ARRAY_HEADER_BYTES;
+    }
+    
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("No comment at row " + row);
+    }
+    
+    // Sous le verrou, colonnes de la ligne déjà écrites ; l'index est doublé avant d'être à moitié plein
+    private void index(int row) {
+        int[] index = rowIndex;
+        if ((row + 1) * 2 > index.length) {
+            index = new int[index.length * 2];
+            for (int existing = 0; existing < row; existing++) insert(index, existing);
+            insert(index, row);
+            rowIndex = index;
+            return;
+        }
+        insert(index, row);
+    }
+    
+    private void insert(int[] index, int row) {
+        int mask = index.length - 1;
+        int slot = hash(arena, rowStarts[row], contentStarts[row]) & mask;
+        while (index[slot] != 0) slot = (slot + 1) & mask;
+        index[slot] = row + 1;
+    }
+    
+    // FNV-1a sur les octets UTF-8 de l'identifiant, bits hauts repliés pour le masque
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 0x811c9dc5;
+        for (int i = from; i < to; i++) hash = (hash ^ bytes[i]) * 0x01000193;
+        return hash ^ (hash >>> 16);
+    }
+    
+    private void grow() {
+        ensureRows(authors.length * 2);
+    }
+    
+    private void ensureRows(int capacity) {
+        if (capacity <= authors.length) return;
+        authors = Arrays.copyOf(authors, capacity);
+        postedAt = Arrays.copyOf(postedAt, capacity);
+        likes = Arrays.copyOf(likes, capacity);
+        dislikes = Arrays.copyOf(dislikes, capacity);
+        sentiments = Arrays.copyOf(sentiments, capacity);
+        signatures = Arrays.copyOf(signatures, capacity);
+        signedRows = Arrays.copyOf(signedRows, (capacity + 63) >>> 6);
+        rowStarts = Arrays.copyOf(rowStarts, capacity + 1);
+        contentStarts = Arrays.copyOf(contentStarts, capacity);
+        deletedRows = Arrays.copyOf(deletedRows, (capacity + 63) >>> 6);
+    }
+    
+    private void ensureArena(int required) {
+        if (required < 0) throw new IllegalStateException("Comment arena is full");
+        if (required > arena.length) {
+            arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, (long) arena.length * 2)));
+        }
+    }
+    
+    // Tampon de caractères réutilisable, rempli depuis l'UTF-8 de la zone de texte
+    private static final class DecodeBuffer {
+        private char[] chars = new char[256];
+        private int length;
+        
+        void decode(byte[] bytes, int from, int to) {
+            if (chars.length < to - from) chars = new char[Math.max(to - from, chars.length * 2)];
+            int n = 0;
+            int i = from;
+            while (i < to) {
+                int b = bytes[i];
+                if (b >= 0) {
+                    chars[n++] = (char) b;
+                    i++;
+                } else if ((b & 0xE0) == 0xC0) {
+                    chars[n++] = (char) (((b & 0x1F) << 6) | (bytes[i + 1] & 0x3F));
+                    i += 2;
+                } else if ((b & 0xF0) == 0xE0) {
+                    chars[n++] = (char) (((b & 0x0F) << 12) | ((bytes[i + 1] & 0x3F) << 6) | (bytes[i + 2] & 0x3F));
+                    i += 3;
+                } else {
+                    int codePoint = ((b & 0x07) << 18) | ((bytes[i + 1] & 0x3F) << 12)
+                            | ((bytes[i + 2] & 0x3F) << 6) | (bytes[i + 3] & 0x3F);
+                    chars[n++] = Character.highSurrogate(codePoint);
+                    chars[n++] = Character.lowSurrogate(codePoint);
+                    i += 4;
+                }
+            }
+            length = n;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+// Classe CommentLog : liste de commentaires en ajout seul, sans verrou.
+// Les cases sont rangées dans des blocs de taille doublée (16, 32, 64...) :
+// un ajout réserve un indice puis publie le commentaire, les lecteurs ignorent
+// les cases encore vides ou supprimées.
+class CommentLog {
+    private static final int FIRST_BLOCK_BITS = 4;
+    private static final int MAX_BLOCKS = 32 - FIRST_BLOCK_BITS;
+    
+    private final AtomicReferenceArray<AtomicReferenceArray<Comment>> blocks;
+    private final AtomicInteger reserved;
+    private final AtomicInteger live;
+    
+    public CommentLog() {
+        this.blocks = new AtomicReferenceArray<>(MAX_BLOCKS);
+        this.reserved = new AtomicInteger();
+        this.live = new AtomicInteger();
+    }
+    
+    public void append(Comment comment) {
+        int index = reserved.getAndIncrement();
+        if (index < 0) throw new IllegalStateException("Comment log is full");
+        int position = index + (1 << FIRST_BLOCK_BITS);
+        int highBit = 31 - Integer.numberOfLeadingZeros(position);
+        int block = highBit - FIRST_BLOCK_BITS;
+        AtomicReferenceArray<Comment> slots = blocks.get(block);
+        if (slots == null) {
+            blocks.compareAndSet(block, null, new AtomicReferenceArray<>(1 << highBit));
+            slots = blocks.get(block);
+        }
+        slots.set(position ^ (1 << highBit), comment);
+        live.incrementAndGet();
+    }
+    
+    // Retire le commentaire s'il est encore présent (la case devient vide)
+    public boolean remove(Comment comment) {
+        for (int index = 0, end = reserved.get(); index < end; index++) {
+            AtomicReferenceArray<Comment> slots = slotsFor(index);
+            if (slots == null) continue;
+            int offset = offsetOf(index);
+            if (slots.get(offset) == comment && slots.compareAndSet(offset, comment, null)) {
+                live.decrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Retire en un seul passage les commentaires acceptés par le filtre, et les retourne
+    public List<Comment> removeIf(Predicate<Comment> filter) {
+        List<Comment> removed = new ArrayList<>();
+        for (int index = 0, end = reserved.get(); index < end; index++) {
+            AtomicReferenceArray<Comment> slots = slotsFor(index);
+            if (slots == null) continue;
+            int offset = offsetOf(index);
+            Comment comment = slots.get(offset);
+            if (comment != null && filter.test(comment) && slots.compareAndSet(offset, comment, null)) {
+                live.decrementAndGet();
+                removed.add(comment);
+            }
+        }
+        return removed;
+    }
+    
+    public Comment find(String commentId) {
+        for (int index = 0, end = reserved.get(); index < end; index++) {
+            AtomicReferenceArray<Comment> slots = slotsFor(index);
+            if (slots == null) continue;
+            Comment comment = slots.get(offsetOf(index));
+            if (comment != null && comment.getCommentId().equals(commentId)) return comment;
+        }
+        return null;
+    }
+    
+    // Copie des commentaires publiés au moment de l'appel, les ajouts continuent pendant la lecture
+    public List<Comment> snapshot() {
+        int end = reserved.get();
+        List<Comment> copy = new ArrayList<>(Math.min(end, live.get() + 16));
+        for (int index = 0; index < end; index++) {
+            AtomicReferenceArray<Comment> slots = slotsFor(index);
+            if (slots == null) continue;
+            Comment comment = slots.get(offsetOf(index));
+            if (comment != null) copy.add(comment);
+        }
+        return copy;
+    }
+    
+    // Commentaires publiés de rang offset à offset + limit - 1, sans copier les autres ;
+    // sans trou dans le journal, la lecture commence directement à la case offset
+    public List<Comment> page(int offset, int limit) {
+        List<Comment> page = new ArrayList<>(Math.min(limit, 64));
+        int end = reserved.get();
+        int index = getHoles() == 0 ? offset : 0;
+        int skipped = index;
+        for (; index < end && page.size() < limit; index++) {
+            AtomicReferenceArray<Comment> slots = slotsFor(index);
+            if (slots == null) continue;
+            Comment comment = slots.get(offsetOf(index));
+            if (comment == null) continue;
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            page.add(comment);
+        }
+        return page;
+    }
+    
+    public int size() { return live.get(); }
+    public boolean isEmpty() { return live.get() == 0; }
+    
+    // Cases vidées par les suppressions, que seule une compaction récupère
+    public int getHoles() { return reserved.get() - live.get(); }
+    
+    // Nouveau journal sans trou, dans le même ordre ; l'appelant bloque les ajouts pendant la copie
+    public CommentLog compacted() {
+        CommentLog copy = new CommentLog();
+        for (Comment comment : snapshot()) copy.append(comment);
+        return copy;
+    }
+    
+    private AtomicReferenceArray<Comment> slotsFor(int index) {
+        int position = index + (1 << FIRST_BLOCK_BITS);
+        return blocks.get(31 - Integer.numberOfLeadingZeros(position) - FIRST_BLOCK_BITS);
+    }
+    
+    private static int offsetOf(int index) {
+        int position = index + (1 << FIRST_BLOCK_BITS);
+        return position ^ Integer.highestOneBit(position);
+    }
+}
\ No newline at end of file
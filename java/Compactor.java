@@ -0,0 +1,68 @@
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Classe Compactor : récupération en arrière-plan de la place laissée par les suppressions.
+// Une suppression est logique et immédiate (case vidée, ligne marquée) ; ce thread démon
+// recopie ensuite les stockages trop troués, vidéo par vidéo, et retire du registre global
+// et du cache de résultats les entrées devenues orphelines. Les lecteurs ne sont jamais
+// bloqués : ils finissent leur parcours sur l'ancien stockage, qui reste valide.
+class Compactor {
+    // Une vidéo est recopiée quand ses cases libres dépassent ce nombre et cette part du total
+    static final int MIN_RECLAIMABLE = 64;
+    static final double MIN_RECLAIMABLE_RATIO = 0.25;
+    // Les suppressions rapprochées (menu, rejeu du journal) sont regroupées en un seul passage
+    private static final long DELAY_MILLIS = 500;
+    
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicBoolean scheduled = new AtomicBoolean();
+    
+    private static final LongAdder runs = new LongAdder();
+    private static final LongAdder videosCompacted = new LongAdder();
+    private static final LongAdder slotsReclaimed = new LongAdder();
+    private static final LongAdder orphanComments = new LongAdder();
+    private static final LongAdder orphanResults = new LongAdder();
+    
+    // Demande un passage ; sans effet si un passage est déjà prévu
+    public static void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                scheduled.set(false);
+                runOnce();
+            }, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    // Passage complet ; synchronisé pour qu'un appel direct ne croise pas le thread de fond
+    public static synchronized int runOnce() {
+        int reclaimed = 0;
+        for (Video video : YouTubeAnalyzerSystem.getVideos().values()) {
+            if (!needsCompaction(video)) continue;
+            reclaimed += video.compact();
+            videosCompacted.increment();
+        }
+        slotsReclaimed.add(reclaimed);
+        orphanComments.add(YouTubeAnalyzerSystem.sweepOrphanComments());
+        orphanResults.add(YouTubeAnalyzerSystem.sweepOrphanResults());
+        runs.increment();
+        return reclaimed;
+    }
+    
+    static boolean needsCompaction(Video video) {
+        int reclaimable = video.getReclaimableSlots();
+        return reclaimable >= MIN_RECLAIMABLE
+                && reclaimable >= MIN_RECLAIMABLE_RATIO * (reclaimable + video.getCommentCount());
+    }
+    
+    public static String getStats() {
+        return String.format("runs=%d videos=%d slots reclaimed=%d orphan comments=%d orphan results=%d",
+                             runs.sum(), videosCompacted.sum(), slotsReclaimed.sum(),
+                             orphanComments.sum(), orphanResults.sum());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Classe DuplicateDetector : repérage des commentaires quasi identiques (inondations de
+// robots, « great video!!! » en mille exemplaires) avant le calcul du score.
+// Chaque texte reçoit une signature SimHash de 64 bits sur ses trigrammes de caractères
+// normalisés ; deux textes voisins ont des signatures à faible distance de Hamming.
+// La signature est découpée en maxDistance + 1 bandes : deux signatures à distance
+// <= maxDistance ont au moins une bande identique, qui sert de clé de seau (LSH). Seuls
+// les représentants de groupe sont rangés dans les seaux : le coût reste quasi linéaire.
+class DuplicateDetector {
+    public static final int DEFAULT_MAX_DISTANCE = 3;
+    // Au-delà, un seau saturé (inondation) n'est plus comparé qu'à ses premiers représentants
+    private static final int MAX_CANDIDATES_PER_BUCKET = 32;
+    
+    private final int maxDistance;
+    private final int bands;
+    private final int bandBits;
+    private final LongAdder commentsSeen = new LongAdder();
+    private final LongAdder duplicatesFound = new LongAdder();
+    
+    public DuplicateDetector() {
+        this(DEFAULT_MAX_DISTANCE);
+    }
+    
+    public DuplicateDetector(int maxDistance) {
+        if (maxDistance < 0 || maxDistance > 15) throw new IllegalArgumentException("Max distance must be in 0..15");
+        this.maxDistance = maxDistance;
+        this.bands = maxDistance + 1;
+        this.bandBits = 64 / bands;
+    }
+    
+    public int getMaxDistance() { return maxDistance; }
+    
+    // Groupe de chaque élément : indice de son représentant (le premier vu), ou lui-même
+    public int[] cluster(long[] signatures, int count) {
+        int[] representatives = new int[count];
+        // Une table par bande ; seau = {taille, représentants...}
+        List<Map<Long, int[]>> buckets = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) buckets.add(new HashMap<>());
+        int duplicates = 0;
+        for (int i = 0; i < count; i++) {
+            long signature = signatures[i];
+            int match = -1;
+            for (int band = 0; band < bands && match < 0; band++) {
+                int[] bucket = buckets.get(band).get(bandValue(signature, band));
+                if (bucket == null) continue;
+                for (int j = 1; j <= bucket[0]; j++) {
+                    if (distance(signature, signatures[bucket[j]]) <= maxDistance) {
+                        match = bucket[j];
+                        break;
+                    }
+                }
+            }
+            if (match >= 0) {
+                representatives[i] = match;
+                duplicates++;
+                continue;
+            }
+            representatives[i] = i;
+            for (int band = 0; band < bands; band++) {
+                Map<Long, int[]> table = buckets.get(band);
+                Long key = bandValue(signature, band);
+                int[] bucket = table.get(key);
+                if (bucket == null) {
+                    table.put(key, new int[] {1, i, 0, 0});
+                } else if (bucket[0] < MAX_CANDIDATES_PER_BUCKET) {
+                    if (bucket[0] + 1 == bucket.length) {
+                        bucket = Arrays.copyOf(bucket, bucket.length * 2);
+                        table.put(key, bucket);
+                    }
+                    bucket[++bucket[0]] = i;
+                }
+            }
+        }
+        commentsSeen.add(count);
+        duplicatesFound.add(duplicates);
+        return representatives;
+    }
+    
+    public String getStats() {
+        long seen = commentsSeen.sum();
+        long duplicates = duplicatesFound.sum();
+        return String.format("comments=%d near-duplicates=%d (%.1f%%)", seen, duplicates,
+                             seen == 0 ? 0.0 : 100.0 * duplicates / seen);
+    }
+    
+    // SimHash : chaque trigramme vote +1/-1 sur les 64 bits selon son hash
+    public static long signature(CharSequence text) {
+        Trigrams trigrams = new Trigrams();
+        boolean pendingSpace = false;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = normalize(text.charAt(i));
+            if (c == 0) continue;
+            // Blancs réduits à une espace, et seulement entre deux caractères gardés
+            if (c == ' ') {
+                pendingSpace = trigrams.length > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                trigrams.add(' ');
+                pendingSpace = false;
+            }
+            trigrams.add(c);
+        }
+        return trigrams.signature();
+    }
+    
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+    
+    // Minuscules, ponctuation ASCII ignorée, tout blanc ramené à une espace ; 0 = ignoré
+    private static char normalize(char c) {
+        if (c < 128) {
+            if (c >= 'A' && c <= 'Z') return (char) (c + 32);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) return c;
+            return Character.isWhitespace(c) ? ' ' : 0;
+        }
+        return Character.isWhitespace(c) ? ' ' : Character.toLowerCase(c);
+    }
+    
+    // FNV-1a 64 bits puis mélange final de MurmurHash3, pour des bits indépendants
+    private static long trigramHash(char a, char b, char c) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ a) * 0x100000001b3L;
+        hash = (hash ^ b) * 0x100000001b3L;
+        hash = (hash ^ c) * 0x100000001b3L;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+    
+    private long bandValue(long signature, int band) {
+        return bandBits == 64 ? signature : (signature >>> (band * bandBits)) & ((1L << bandBits) - 1);
+    }
+    
+    // Votes des trigrammes d'un texte normalisé
+    private static final class Trigrams {
+        final int[] votes = new int[64];
+        char first;
+        char second;
+        char previous;
+        int repeats;
+        int length;
+        
+        // Au plus deux fois le même caractère de suite (« sooooo » comme « soo »)
+        void add(char c) {
+            if (c == previous && ++repeats >= 2) return;
+            if (c != previous) repeats = 0;
+            previous = c;
+            if (length >= 2) vote(trigramHash(first, second, c));
+            first = second;
+            second = c;
+            length++;
+        }
+        
+        long signature() {
+            // Texte de moins de trois caractères : un seul trigramme complété par des zéros
+            if (length > 0 && length < 3) vote(trigramHash((char) 0, first, second));
+            long signature = 0;
+            for (int bit = 0; bit < 64; bit++) {
+                if (votes[bit] > 0) signature |= 1L << bit;
+            }
+            return signature;
+        }
+        
+        private void vote(long hash) {
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+    }
+}
\ No newline at end of file
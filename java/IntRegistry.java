@@ -0,0 +1,170 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Classe IntRegistry : registre indexé par les ids denses d'une SymbolTable. Les
+// valeurs sont rangées dans un tableau à la position de leur id : pas de noeud ni
+// d'Integer par entrée, et la recherche par id est un simple accès indexé. Les
+// méthodes de Map (clé texte) restent disponibles pour le menu et l'affichage.
+// Lecture sans verrou, écritures synchronisées.
+class IntRegistry<V> extends AbstractMap<String, V> {
+    private final SymbolTable symbols;
+    private volatile AtomicReferenceArray<V> values = new AtomicReferenceArray<>(64);
+    private volatile int size;
+    
+    public IntRegistry(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+    
+    public SymbolTable getSymbols() { return symbols; }
+    
+    public V get(int id) {
+        AtomicReferenceArray<V> current = values;
+        return id >= 0 && id < current.length() ? current.get(id) : null;
+    }
+    
+    public synchronized V put(int id, V value) {
+        if (value == null) throw new NullPointerException("Registry values must not be null");
+        if (id >= values.length()) grow(id + 1);
+        V previous = values.getAndSet(id, value);
+        if (previous == null) size++;
+        return previous;
+    }
+    
+    // Retourne la valeur déjà présente sans la remplacer, null si value a été ajoutée
+    public synchronized V putIfAbsent(int id, V value) {
+        V previous = get(id);
+        return previous != null ? previous : put(id, value);
+    }
+    
+    public synchronized V remove(int id) {
+        if (id < 0 || id >= values.length()) return null;
+        V previous = values.getAndSet(id, null);
+        if (previous != null) size--;
+        return previous;
+    }
+    
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof String)) return null;
+        int id = symbols.lookup((String) key);
+        return id < 0 ? null : get(id);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+    
+    @Override
+    public V put(String key, V value) {
+        return put(symbols.intern(key), value);
+    }
+    
+    @Override
+    public V putIfAbsent(String key, V value) {
+        return putIfAbsent(symbols.intern(key), value);
+    }
+    
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof String)) return null;
+        int id = symbols.lookup((String) key);
+        return id < 0 ? null : remove(id);
+    }
+    
+    @Override
+    public int size() { return size; }
+    
+    @Override
+    public boolean isEmpty() { return size == 0; }
+    
+    @Override
+    public synchronized void clear() {
+        values = new AtomicReferenceArray<>(64);
+        size = 0;
+    }
+    
+    // Vue sans allocation par élément, dans l'ordre des ids (ordre d'enregistrement)
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Cursor<V>() {
+                    @Override V current(int id, V value) { return value; }
+                };
+            }
+            
+            @Override
+            public int size() { return size; }
+        };
+    }
+    
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new Cursor<Map.Entry<String, V>>() {
+                    @Override
+                    Map.Entry<String, V> current(int id, V value) {
+                        return new AbstractMap.SimpleImmutableEntry<>(symbols.nameOf(id), value);
+                    }
+                };
+            }
+            
+            @Override
+            public int size() { return size; }
+        };
+    }
+    
+    private void grow(int required) {
+        AtomicReferenceArray<V> current = values;
+        int capacity = Math.max(required, current.length() * 2);
+        AtomicReferenceArray<V> larger = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < current.length(); i++) larger.set(i, current.get(i));
+        values = larger;
+    }
+    
+    // Parcours faiblement cohérent, comme celui d'une ConcurrentHashMap
+    private abstract class Cursor<T> implements Iterator<T> {
+        private final AtomicReferenceArray<V> snapshot = values;
+        private int next = -1;
+        private V nextValue;
+        private int last = -1;
+        
+        Cursor() {
+            advance();
+        }
+        
+        abstract T current(int id, V value);
+        
+        // La valeur est lue une seule fois : une suppression concurrente ne produit pas de null
+        private void advance() {
+            nextValue = null;
+            while (++next < snapshot.length()) {
+                nextValue = snapshot.get(next);
+                if (nextValue != null) return;
+            }
+        }
+        
+        @Override
+        public boolean hasNext() { return nextValue != null; }
+        
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            last = next;
+            V value = nextValue;
+            advance();
+            return current(last, value);
+        }
+        
+        @Override
+        public void remove() {
+            if (last < 0) throw new IllegalStateException();
+            IntRegistry.this.remove(last);
+            last = -1;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Classe KllSketch : quantiles approximatifs d'un flux de valeurs (longueur des commentaires,
+// scores des vidéos) en mémoire bornée, d'après Karnin, Lang et Liberty. Les valeurs sont
+// rangées par niveaux ; un élément du niveau h représente 2^h valeurs. Quand un niveau
+// déborde, il est trié et un élément sur deux (pair ou impair au hasard) monte d'un niveau.
+// Les capacités décroissent de 2/3 en descendant : au plus 3k valeurs gardées (quelques Ko
+// pour k = 200), erreur de rang d'environ 1,3 % quel que soit le volume. Comme dans la
+// version paresseuse de l'article, on ne compacte qu'une fois la capacité totale atteinte.
+// Deux sketches se fusionnent niveau par niveau, puis compactés comme après des ajouts.
+class KllSketch {
+    public static final int DEFAULT_K = 200;
+    private static final int MIN_CAPACITY = 8;
+    private static final double DECAY = 2.0 / 3.0;
+    
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int retained;
+    private int totalCapacity;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    // Vue triée et pondérée, reconstruite à la première requête après un changement
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+    
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+    
+    public KllSketch(int k) {
+        if (k < MIN_CAPACITY) throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+        this.k = k;
+        levels[0] = new double[k];
+        totalCapacity = k;
+    }
+    
+    public synchronized void update(double value) {
+        if (Double.isNaN(value)) return;
+        if (count == 0 || value < min) min = value;
+        if (count == 0 || value > max) max = value;
+        count++;
+        append(0, value);
+        compress();
+        sortedValues = null;
+    }
+    
+    public synchronized void merge(KllSketch other) {
+        if (other == this) return;
+        double[][] otherLevels;
+        int[] otherSizes;
+        long otherCount;
+        double otherMin;
+        double otherMax;
+        synchronized (other) {
+            if (other.count == 0) return;
+            otherLevels = new double[other.levels.length][];
+            for (int h = 0; h < otherLevels.length; h++) {
+                otherLevels[h] = Arrays.copyOf(other.levels[h], other.sizes[h]);
+            }
+            otherSizes = other.sizes.clone();
+            otherCount = other.count;
+            otherMin = other.min;
+            otherMax = other.max;
+        }
+        if (count == 0 || otherMin < min) min = otherMin;
+        if (count == 0 || otherMax > max) max = otherMax;
+        count += otherCount;
+        for (int h = 0; h < otherLevels.length; h++) {
+            for (int i = 0; i < otherSizes[h]; i++) append(h, otherLevels[h][i]);
+        }
+        compress();
+        sortedValues = null;
+    }
+    
+    // Valeur sous laquelle tombe la fraction q des valeurs vues (0 = min, 1 = max)
+    public synchronized double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+        ensureSorted();
+        long total = cumulativeWeights[cumulativeWeights.length - 1];
+        long target = (long) Math.ceil(q * total);
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        if (index < 0) index = -index - 1;
+        return sortedValues[Math.min(index, sortedValues.length - 1)];
+    }
+    
+    // Fraction approximative des valeurs inférieures ou égales à x
+    public synchronized double rank(double x) {
+        if (count == 0) return Double.NaN;
+        ensureSorted();
+        int index = upperBound(sortedValues, x);
+        long total = cumulativeWeights[cumulativeWeights.length - 1];
+        return index == 0 ? 0.0 : (double) cumulativeWeights[index - 1] / total;
+    }
+    
+    public synchronized long getCount() { return count; }
+    public synchronized double getMin() { return min; }
+    public synchronized double getMax() { return max; }
+    
+    // Valeurs effectivement gardées, tous niveaux confondus
+    public synchronized int getRetained() {
+        return retained;
+    }
+    
+    private void append(int level, double value) {
+        if (level >= levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            totalCapacity = 0;
+            for (int h = 0; h <= level; h++) totalCapacity += capacity(h);
+        }
+        double[] items = levels[level];
+        if (items == null) {
+            items = levels[level] = new double[capacity(level)];
+        } else if (sizes[level] == items.length) {
+            items = levels[level] = Arrays.copyOf(items, items.length * 2);
+        }
+        items[sizes[level]++] = value;
+        retained++;
+    }
+    
+    // Capacité du niveau h : k au sommet, 2/3 de moins à chaque niveau en dessous
+    private int capacity(int level) {
+        int depth = levels.length - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+    
+    // Tant que la capacité totale est atteinte, compacte le plus bas niveau plein (il en
+    // existe toujours un) : les niveaux bas gardent ainsi plus de valeurs que leur capacité
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int h = 0;
+            while (sizes[h] < capacity(h)) h++;
+            compact(h);
+        }
+    }
+    
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // Un nombre impair laisse son plus grand élément sur place
+        int pairs = size / 2;
+        int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        double leftover = size % 2 == 1 ? items[size - 1] : Double.NaN;
+        sizes[level] = 0;
+        retained -= size;
+        for (int i = 0; i < pairs; i++) append(level + 1, items[2 * i + offset]);
+        items = levels[level];
+        if (!Double.isNaN(leftover)) {
+            items[sizes[level]++] = leftover;
+            retained++;
+        }
+    }
+    
+    private void ensureSorted() {
+        if (sortedValues != null) return;
+        int retained = getRetained();
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n++] = 1L << h;
+            }
+        }
+        // Tri des indices par valeur, puis poids cumulés dans cet ordre
+        Integer[] order = new Integer[retained];
+        for (int i = 0; i < retained; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        sortedValues = new double[retained];
+        cumulativeWeights = new long[retained];
+        long cumulative = 0;
+        for (int i = 0; i < retained; i++) {
+            sortedValues[i] = values[order[i]];
+            cumulative += weights[order[i]];
+            cumulativeWeights[i] = cumulative;
+        }
+    }
+    
+    private static int upperBound(double[] sorted, double x) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= x) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Classe LoadTestClient : charge HTTP locale contre ApiServer, en boucle fermée (chaque
+// thread attend sa réponse avant la requête suivante). Mélange : fiche vidéo, analyse,
+// page de liste, et une part réglable d'écritures (commentaires) pour vérifier que
+// les lectures ne ralentissent pas pendant l'ingestion.
+//
+//   java LoadTestClient [http://localhost:8080] [--threads 16] [--seconds 10] [--writes 10]
+class LoadTestClient {
+    private static final Pattern VIDEO_ID = Pattern.compile("\"video_id\":\"([^\"]*)\"");
+    private static final Pattern USER_ID = Pattern.compile("\"user_id\":\"([^\"]*)\"");
+    
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong commentSequence = new AtomicLong();
+    private List<String> videoIds;
+    private List<String> userIds;
+    
+    public LoadTestClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        String baseUrl = "http://localhost:8080";
+        int threads = 16;
+        int seconds = 10;
+        int writePercent = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                case "--writes": writePercent = Integer.parseInt(args[++i]); break;
+                default: baseUrl = args[i];
+            }
+        }
+        LoadTestClient loadTest = new LoadTestClient(baseUrl);
+        if (!loadTest.discover()) return;
+        loadTest.run(threads, Duration.ofSeconds(seconds), writePercent);
+    }
+    
+    // Ids de vidéos et d'utilisateurs lus sur la première page des listes
+    boolean discover() throws IOException, InterruptedException {
+        videoIds = extract(get("/videos?limit=" + ApiServer.MAX_PAGE_SIZE), VIDEO_ID);
+        userIds = extract(get("/users?limit=" + ApiServer.MAX_PAGE_SIZE), USER_ID);
+        if (videoIds.isEmpty()) {
+            System.out.println("No videos on " + baseUrl + ": load some data first (--batch or POST /ingest)");
+            return false;
+        }
+        return true;
+    }
+    
+    void run(int threads, Duration duration, int writePercent) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) request(writePercent);
+            }, "load-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) worker.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        
+        long reads = readLatency.getCount();
+        long writes = writeLatency.getCount();
+        System.out.printf("%d threads, %.1f s: %d requests (%.0f req/s), %d errors%n",
+                          threads, elapsed, reads + writes, (reads + writes) / elapsed, failures.sum());
+        print("reads", readLatency);
+        if (writes > 0) print("writes", writeLatency);
+    }
+    
+    private void request(int writePercent) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String videoId = videoIds.get(random.nextInt(videoIds.size()));
+        boolean write = !userIds.isEmpty() && random.nextInt(100) < writePercent;
+        long start = System.nanoTime();
+        try {
+            int status;
+            if (write) {
+                String json = "{\"videoId\":\"" + videoId + "\",\"authorId\":\"" + userIds.get(random.nextInt(userIds.size()))
+                        + "\",\"commentId\":\"load_" + commentSequence.incrementAndGet()
+                        + "\",\"content\":\"great video, really helpful\"}";
+                status = send(HttpRequest.newBuilder(URI.create(baseUrl + "/comments"))
+                        .POST(HttpRequest.BodyPublishers.ofString(json)).build()).statusCode();
+            } else {
+                int kind = random.nextInt(10);
+                String path = kind < 7 ? "/videos/" + videoId
+                            : kind < 9 ? "/videos/" + videoId + "/analysis"
+                            : "/videos?offset=" + random.nextInt(videoIds.size()) + "&limit=20";
+                status = send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build()).statusCode();
+            }
+            if (status >= 400) failures.increment();
+        } catch (IOException e) {
+            failures.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        (write ? writeLatency : readLatency).record(System.nanoTime() - start);
+    }
+    
+    private String get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build()).body();
+    }
+    
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static List<String> extract(String json, Pattern pattern) {
+        List<String> ids = new ArrayList<>();
+        Matcher matcher = pattern.matcher(json);
+        while (matcher.find()) ids.add(matcher.group(1));
+        return ids;
+    }
+    
+    private static void print(String label, LatencyHistogram histogram) {
+        System.out.printf("  %-6s n=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms%n", label, histogram.getCount(),
+                          histogram.getMean() / 1e6, histogram.getPercentile(50) / 1e6,
+                          histogram.getPercentile(99) / 1e6, histogram.getMax() / 1e6);
+    }
+}
\ No newline at end of file
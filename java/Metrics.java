@@ -0,0 +1,167 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Classe Metrics : compteurs des chemins chauds (ajout de commentaires, analyses,
+// mutations des registres). Désactivées par défaut : chaque point de mesure se réduit
+// alors à la lecture d'un booléen volatile. Activation par -Dmetrics=true ou --metrics.
+class Metrics {
+    public static final String OBJECT_NAME = "youtube.analyzer:type=Metrics";
+    
+    private static volatile boolean enabled = Boolean.getBoolean("metrics");
+    
+    private static final LongAdder commentsAdded = new LongAdder();
+    private static final LongAdder commentsScored = new LongAdder();
+    private static final LongAdder scoringNanos = new LongAdder();
+    private static final LongAdder allocatedBytes = new LongAdder();
+    private static final LongAdder registryMutations = new LongAdder();
+    private static final LatencyHistogram analysisLatency = new LatencyHistogram();
+    
+    // null si la JVM ne mesure pas l'allocation par thread
+    private static final com.sun.management.ThreadMXBean allocationCounter = createAllocationCounter();
+    private static ScheduledExecutorService dumper;
+    
+    private Metrics() {}
+    
+    private static com.sun.management.ThreadMXBean createAllocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        return counter.isThreadAllocatedMemorySupported() ? counter : null;
+    }
+    
+    public static boolean isEnabled() { return enabled; }
+    
+    public static void setEnabled(boolean value) {
+        if (value && allocationCounter != null) allocationCounter.setThreadAllocatedMemoryEnabled(true);
+        enabled = value;
+    }
+    
+    // Octets alloués jusqu'ici par le thread courant, 0 si désactivé ou non supporté
+    static long threadAllocatedBytes() {
+        if (!enabled || allocationCounter == null) return 0;
+        return allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    
+    // Une analyse de vidéo (cache compris), telle que la voit l'appelant.
+    // En parallèle, seules les allocations du thread appelant sont comptées
+    static void recordAnalysis(long startNanos, long startAllocatedBytes) {
+        if (!enabled) return;
+        analysisLatency.record(System.nanoTime() - startNanos);
+        if (allocationCounter != null && startAllocatedBytes != 0) {
+            allocatedBytes.add(threadAllocatedBytes() - startAllocatedBytes);
+        }
+    }
+    
+    // Commentaires évalués par la stratégie : à l'ajout, à la modification, à la réévaluation ou en analyse
+    static void recordScoring(long comments, long nanos) {
+        if (!enabled) return;
+        commentsScored.add(comments);
+        scoringNanos.add(nanos);
+    }
+    
+    static void commentAdded() {
+        if (enabled) commentsAdded.increment();
+    }
+    
+    static void registryMutation() {
+        if (enabled) registryMutations.increment();
+    }
+    
+    public static long getCommentsAdded() { return commentsAdded.sum(); }
+    public static long getCommentsScored() { return commentsScored.sum(); }
+    public static long getRegistryMutations() { return registryMutations.sum(); }
+    public static LatencyHistogram getAnalysisLatency() { return analysisLatency; }
+    
+    public static double getCommentsScoredPerSecond() {
+        long nanos = scoringNanos.sum();
+        return nanos == 0 ? 0.0 : commentsScored.sum() * 1e9 / nanos;
+    }
+    
+    public static double getAllocatedBytesPerAnalysis() {
+        long analyses = analysisLatency.getCount();
+        return analyses == 0 ? 0.0 : (double) allocatedBytes.sum() / analyses;
+    }
+    
+    public static void reset() {
+        commentsAdded.reset();
+        commentsScored.reset();
+        scoringNanos.reset();
+        allocatedBytes.reset();
+        registryMutations.reset();
+        analysisLatency.reset();
+    }
+    
+    public static String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Registries: users=%d videos=%d comments=%d mutations=%d%n",
+                                    YouTubeAnalyzerSystem.getUsers().size(), YouTubeAnalyzerSystem.getVideos().size(),
+                                    YouTubeAnalyzerSystem.getCommentTotal(), getRegistryMutations()));
+        report.append(String.format("Comments: added=%d scored=%d (%.0f/sec)%n",
+                                    getCommentsAdded(), getCommentsScored(), getCommentsScoredPerSecond()));
+        report.append(String.format("Analyses: count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms alloc=%.0f bytes/analysis%n",
+                                    analysisLatency.getCount(), analysisLatency.getMean() / 1e6,
+                                    analysisLatency.getPercentile(50) / 1e6, analysisLatency.getPercentile(99) / 1e6,
+                                    analysisLatency.getMax() / 1e6, getAllocatedBytesPerAnalysis()));
+        report.append("Result cache: ").append(YouTubeAnalyzerSystem.getResultCache().getStats()).append('\n');
+        report.append("Compaction: ").append(Compactor.getStats());
+        return report.toString();
+    }
+    
+    // Affiche le rapport à intervalle régulier sur un thread démon
+    public static synchronized void startPeriodicDump(Duration interval) {
+        stopPeriodicDump();
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        dumper.scheduleAtFixedRate(() -> System.out.println("\n[metrics]\n" + getReport()), millis, millis, TimeUnit.MILLISECONDS);
+    }
+    
+    public static synchronized void stopPeriodicDump() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+    
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(new View(), name);
+        } catch (JMException e) {
+            System.out.println("Cannot register metrics MBean: " + e.getMessage());
+        }
+    }
+    
+    private static class View implements MetricsMXBean {
+        @Override public boolean isEnabled() { return Metrics.isEnabled(); }
+        @Override public void setEnabled(boolean enabled) { Metrics.setEnabled(enabled); }
+        @Override public long getCommentsAdded() { return Metrics.getCommentsAdded(); }
+        @Override public long getCommentsScored() { return Metrics.getCommentsScored(); }
+        @Override public double getCommentsScoredPerSecond() { return Metrics.getCommentsScoredPerSecond(); }
+        @Override public long getAnalyses() { return analysisLatency.getCount(); }
+        @Override public double getAnalysisLatencyMeanMillis() { return analysisLatency.getMean() / 1e6; }
+        @Override public double getAnalysisLatencyP50Millis() { return analysisLatency.getPercentile(50) / 1e6; }
+        @Override public double getAnalysisLatencyP99Millis() { return analysisLatency.getPercentile(99) / 1e6; }
+        @Override public double getAnalysisLatencyMaxMillis() { return analysisLatency.getMax() / 1e6; }
+        @Override public double getAllocatedBytesPerAnalysis() { return Metrics.getAllocatedBytesPerAnalysis(); }
+        @Override public long getRegistryMutations() { return Metrics.getRegistryMutations(); }
+        @Override public int getUserCount() { return YouTubeAnalyzerSystem.getUsers().size(); }
+        @Override public int getVideoCount() { return YouTubeAnalyzerSystem.getVideos().size(); }
+        @Override public long getCommentCount() { return YouTubeAnalyzerSystem.getCommentTotal(); }
+        @Override public double getResultCacheHitRate() { return YouTubeAnalyzerSystem.getResultCache().getHitRate(); }
+        @Override public String getReport() { return Metrics.getReport(); }
+        @Override public void reset() { Metrics.reset(); }
+    }
+}
\ No newline at end of file
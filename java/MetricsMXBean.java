@@ -0,0 +1,25 @@
+// Interface MetricsMXBean : vue JMX des métriques (jconsole, VisualVM...),
+// enregistrée sous youtube.analyzer:type=Metrics par Metrics.registerMBean()
+public interface MetricsMXBean {
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+    
+    long getCommentsAdded();
+    long getCommentsScored();
+    double getCommentsScoredPerSecond();
+    long getAnalyses();
+    double getAnalysisLatencyMeanMillis();
+    double getAnalysisLatencyP50Millis();
+    double getAnalysisLatencyP99Millis();
+    double getAnalysisLatencyMaxMillis();
+    double getAllocatedBytesPerAnalysis();
+    
+    long getRegistryMutations();
+    int getUserCount();
+    int getVideoCount();
+    long getCommentCount();
+    double getResultCacheHitRate();
+    
+    String getReport();
+    void reset();
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Classe NgramLexiconStrategy : découpe le texte en mots une seule fois (sans créer
+// de String), cherche chaque mot et chaque paire de mots consécutifs dans une table
+// à clés primitives (hachage 64 bits du mot en minuscules) et tient compte, dans
+// une fenêtre de quelques mots, des négations ("not good") et des intensificateurs
+// ("very bad"). Contrairement au score par sous-chaîne, "goodbye" n'est pas positif.
+class NgramLexiconStrategy extends SentimentStrategy {
+    private static final String[] DEFAULT_POSITIVE_WORDS = {"good", "great", "excellent", "amazing", "love", "best", "awesome"};
+    private static final String[] DEFAULT_NEGATIVE_WORDS = {"bad", "terrible", "awful", "hate", "worst", "poor", "disappointing"};
+    private static final String[] NEGATIONS = {"not", "no", "never", "without", "hardly", "nothing", "neither", "nor", "cannot"};
+    private static final String[] INTENSIFIERS = {"very", "really", "extremely", "so", "super", "totally", "absolutely", "incredibly"};
+    private static final String[] DIMINISHERS = {"slightly", "somewhat", "kinda", "barely", "fairly"};
+    
+    // Portée d'une négation, en mots
+    private static final int NEGATION_WINDOW = 3;
+    private static final double NEGATION_FACTOR = -0.75;
+    private static final double INTENSIFIER_FACTOR = 1.5;
+    private static final double DIMINISHER_FACTOR = 0.5;
+    
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final NgramLexiconStrategy DEFAULT = createDefault();
+    
+    // Table à adressage ouvert : clé 0 = case vide
+    private final long[] keys;
+    private final double[] weights;
+    private final int mask;
+    private final long[] negations;
+    private final long[] intensifiers;
+    private final long[] diminishers;
+    
+    public NgramLexiconStrategy(Map<String, Double> weightedTerms) {
+        int capacity = Integer.highestOneBit(Math.max(16, weightedTerms.size() * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.weights = new double[capacity];
+        this.mask = capacity - 1;
+        for (Map.Entry<String, Double> entry : weightedTerms.entrySet()) {
+            String[] words = entry.getKey().trim().toLowerCase(Locale.ROOT).split("\\s+");
+            if (words.length > 2) {
+                throw new IllegalArgumentException("Only single words and word pairs are supported: " + entry.getKey());
+            }
+            long key = words.length == 1 ? hashWord(words[0]) : pairKey(hashWord(words[0]), hashWord(words[1]));
+            put(key, entry.getValue());
+        }
+        this.negations = hashAll(NEGATIONS);
+        this.intensifiers = hashAll(INTENSIFIERS);
+        this.diminishers = hashAll(DIMINISHERS);
+    }
+    
+    public static NgramLexiconStrategy getDefault() { return DEFAULT; }
+    
+    private static NgramLexiconStrategy createDefault() {
+        Map<String, Double> weightedTerms = new LinkedHashMap<>();
+        for (String word : DEFAULT_POSITIVE_WORDS) weightedTerms.put(word, 1.0);
+        for (String word : DEFAULT_NEGATIVE_WORDS) weightedTerms.put(word, -1.0);
+        return new NgramLexiconStrategy(weightedTerms);
+    }
+    
+    // Même format que SentimentLexicon.fromFile ; un terme peut être une paire de mots ("waste of", "must see")
+    public static NgramLexiconStrategy fromFile(String path) throws IOException {
+        Map<String, Double> weightedTerms = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                int sep = Math.max(line.lastIndexOf('\t'), Math.max(line.lastIndexOf(','), line.lastIndexOf(' ')));
+                if (sep <= 0) {
+                    throw new IllegalArgumentException("Invalid lexicon entry at line " + lineNumber + ": " + line);
+                }
+                try {
+                    weightedTerms.put(line.substring(0, sep).trim(), Double.parseDouble(line.substring(sep + 1).trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid weight at line " + lineNumber + ": " + line);
+                }
+            }
+        }
+        return new NgramLexiconStrategy(weightedTerms);
+    }
+    
+    @Override
+    public String getName() { return "lexicon_ngram"; }
+    
+    @Override
+    public double score(CharSequence text) {
+        double positive = 0.0;
+        double negative = 0.0;
+        long previousWord = 0;
+        double previousContribution = 0.0;
+        int wordsSinceNegation = Integer.MAX_VALUE;
+        double modifier = 1.0;
+        
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            // Mot suivant : lettres, chiffres et apostrophes, haché en minuscules au vol
+            while (i < n && !isWordChar(text.charAt(i))) {
+                // La ponctuation ferme la portée de la négation ("not bad, really good")
+                if (isClauseBreak(text.charAt(i))) wordsSinceNegation = Integer.MAX_VALUE;
+                i++;
+            }
+            if (i >= n) break;
+            long hash = FNV_OFFSET;
+            char last = 0;
+            char beforeLast = 0;
+            while (i < n && isWordChar(text.charAt(i))) {
+                char c = Character.toLowerCase(text.charAt(i++));
+                hash = (hash ^ c) * FNV_PRIME;
+                beforeLast = last;
+                last = c;
+            }
+            if (hash == 0) hash = 1;
+            
+            if (contains(negations, hash) || (beforeLast == '\'' && last == 't')) {
+                wordsSinceNegation = 0;
+                previousWord = hash;
+                previousContribution = 0.0;
+                continue;
+            }
+            if (contains(intensifiers, hash)) {
+                modifier *= INTENSIFIER_FACTOR;
+                previousWord = hash;
+                previousContribution = 0.0;
+                continue;
+            }
+            if (contains(diminishers, hash)) {
+                modifier *= DIMINISHER_FACTOR;
+                previousWord = hash;
+                previousContribution = 0.0;
+                continue;
+            }
+            if (wordsSinceNegation != Integer.MAX_VALUE) wordsSinceNegation++;
+            
+            // Une paire connue remplace la contribution du mot précédent
+            double contribution;
+            double pairWeight = previousWord == 0 ? 0.0 : get(pairKey(previousWord, hash));
+            if (pairWeight != 0.0) {
+                if (previousContribution > 0) positive -= previousContribution;
+                else negative += previousContribution;
+                contribution = pairWeight;
+            } else {
+                contribution = get(hash);
+            }
+            
+            if (contribution != 0.0) {
+                contribution *= modifier;
+                // Une paire qui commence par la négation ("not bad") porte déjà son propre poids
+                boolean pairStartsWithNegation = pairWeight != 0.0 && wordsSinceNegation == 1;
+                if (wordsSinceNegation <= NEGATION_WINDOW && !pairStartsWithNegation) contribution *= NEGATION_FACTOR;
+                if (contribution > 0) positive += contribution;
+                else negative -= contribution;
+            }
+            // L'intensificateur ne porte que sur le mot qui le suit
+            modifier = 1.0;
+            previousWord = hash;
+            previousContribution = contribution;
+        }
+        
+        if (positive + negative == 0.0) return 0.0;
+        return (positive - negative) / (positive + negative);
+    }
+    
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'';
+    }
+    
+    private static boolean isClauseBreak(char c) {
+        return c == ',' || c == '.' || c == ';' || c == ':' || c == '!' || c == '?';
+    }
+    
+    private static long hashWord(String word) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * FNV_PRIME;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+    
+    private static long pairKey(long first, long second) {
+        long key = (first * 31 + second) * FNV_PRIME;
+        return key == 0 ? 1 : key;
+    }
+    
+    private static long[] hashAll(String[] words) {
+        long[] hashes = new long[words.length];
+        for (int i = 0; i < words.length; i++) hashes[i] = hashWord(words[i]);
+        return hashes;
+    }
+    
+    private static boolean contains(long[] hashes, long hash) {
+        for (long candidate : hashes) {
+            if (candidate == hash) return true;
+        }
+        return false;
+    }
+    
+    private void put(long key, double weight) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+        keys[slot] = key;
+        weights[slot] = weight;
+    }
+    
+    private double get(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) return weights[slot];
+            slot = (slot + 1) & mask;
+        }
+        return 0.0;
+    }
+    
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,392 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+// Classe ReportEngine : rapports sur de grands registres (utilisateurs, vidéos, commentaires,
+// résumés par vidéo et par catégorie) en texte, CSV ou JSON-lines. Les entrées sont mises
+// en forme par lots en parallèle, chacun dans son StringBuilder, puis écrites dans l'ordre
+// par un seul Writer tamponné. Seuls quelques lots d'avance sont gardés en mémoire.
+class ReportEngine implements Closeable {
+    public static final String TEXT = "text";
+    public static final String CSV = "csv";
+    public static final String JSONL = "jsonl";
+    
+    // Lignes par lot : assez pour amortir la tâche, assez peu pour répartir la charge
+    static final int CHUNK_SIZE = 512;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String TEXT_SEPARATOR = "-".repeat(60) + "\n";
+    
+    private final String format;
+    private final Writer out;
+    // System.out n'est jamais fermé, seulement vidé
+    private final boolean ownsOutput;
+    private final ExecutorService pool;
+    private final int window;
+    private char[] copyBuffer = new char[BUFFER_SIZE];
+    private long rows;
+    
+    public ReportEngine(String format, Writer out) {
+        this(format, out, true);
+    }
+    
+    private ReportEngine(String format, Writer out, boolean ownsOutput) {
+        if (!TEXT.equals(format) && !CSV.equals(format) && !JSONL.equals(format)) {
+            throw new IllegalArgumentException("Unknown report format: " + format + " (expected text, csv or jsonl)");
+        }
+        this.format = format;
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, BUFFER_SIZE);
+        this.ownsOutput = ownsOutput;
+        this.pool = ForkJoinPool.commonPool();
+        this.window = 2 * Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+    }
+    
+    public static ReportEngine toStandardOutput(String format) {
+        return new ReportEngine(format, new OutputStreamWriter(System.out, StandardCharsets.UTF_8), false);
+    }
+    
+    public static ReportEngine toFile(String format, String path) throws IOException {
+        return new ReportEngine(format, Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8), true);
+    }
+    
+    public String getFormat() { return format; }
+    public long getRowsWritten() { return rows; }
+    
+    public void writeUsers(Collection<? extends User> users) throws IOException {
+        header("type,user_id,username,email,registered");
+        writeRows(new ArrayList<>(users), this::appendUser);
+    }
+    
+    // Une ligne par vidéo ; le score vient des agrégats tenus à jour, sans réanalyse
+    // (en mode pondéré, du résultat d'analyse en cache)
+    public void writeVideos(Collection<Video> videos) throws IOException {
+        header("video_id,title,category,creator_id,views,comments,quality_score,uploaded");
+        writeRows(new ArrayList<>(videos), this::appendVideo);
+    }
+    
+    // Commentaires de toutes les vidéos, colonnes comprises ; lots découpés par nombre de commentaires
+    public void writeComments(Collection<Video> videos) throws IOException {
+        header("comment_id,video_id,author_id,likes,dislikes,sentiment,posted,content");
+        List<List<Video>> chunks = new ArrayList<>();
+        List<Video> chunk = new ArrayList<>();
+        int pending = 0;
+        for (Video video : videos) {
+            chunk.add(video);
+            pending += video.getCommentCount();
+            if (pending >= CHUNK_SIZE) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                pending = 0;
+            }
+        }
+        if (!chunk.isEmpty()) chunks.add(chunk);
+        writeChunks(chunks, (videoChunk, text) -> {
+            int count = 0;
+            for (Video video : videoChunk) {
+                for (Comment comment : video.getComments()) {
+                    appendComment(video, comment, text);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+    
+    // Totaux par catégorie, calculés par lots en parallèle puis fusionnés
+    public void writeCategories(Collection<Video> videos) throws IOException {
+        header("category,videos,views,comments,quality_score");
+        List<Video> all = new ArrayList<>(videos);
+        List<Future<Map<String, CategoryTotals>>> partials = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            List<Video> chunk = all.subList(from, Math.min(all.size(), from + CHUNK_SIZE));
+            partials.add(pool.submit(() -> {
+                Map<String, CategoryTotals> totals = new HashMap<>();
+                for (Video video : chunk) {
+                    String category = video.getCategory() == null ? "" : video.getCategory();
+                    totals.computeIfAbsent(category, CategoryTotals::new).add(video);
+                }
+                return totals;
+            }));
+        }
+        Map<String, CategoryTotals> merged = new TreeMap<>();
+        for (Future<Map<String, CategoryTotals>> partial : partials) {
+            for (CategoryTotals totals : await(partial).values()) {
+                CategoryTotals existing = merged.putIfAbsent(totals.category, totals);
+                if (existing != null) existing.merge(totals);
+            }
+        }
+        writeRows(new ArrayList<>(merged.values()), this::appendCategory);
+    }
+    
+    public void flush() throws IOException {
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (ownsOutput) out.close(); else out.flush();
+    }
+    
+    private void header(String columns) throws IOException {
+        if (CSV.equals(format)) out.write(columns + "\n");
+    }
+    
+    private <T> void writeRows(List<T> items, BiConsumer<T, StringBuilder> formatter) throws IOException {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + CHUNK_SIZE)));
+        }
+        writeChunks(chunks, (chunk, text) -> {
+            for (T item : chunk) formatter.accept(item, text);
+            return chunk.size();
+        });
+    }
+    
+    // Au plus window lots en cours : le lot le plus ancien est écrit avant d'en lancer un autre
+    private <T> void writeChunks(List<List<T>> chunks, ChunkFormatter<T> formatter) throws IOException {
+        ArrayDeque<Future<FormattedChunk>> inFlight = new ArrayDeque<>();
+        for (List<T> chunk : chunks) {
+            inFlight.add(pool.submit(() -> {
+                StringBuilder text = new StringBuilder(chunk.size() * 128);
+                return new FormattedChunk(text, formatter.format(chunk, text));
+            }));
+            if (inFlight.size() >= window) write(await(inFlight.poll()));
+        }
+        while (!inFlight.isEmpty()) write(await(inFlight.poll()));
+    }
+    
+    private void write(FormattedChunk chunk) throws IOException {
+        StringBuilder text = chunk.text;
+        int length = text.length();
+        if (copyBuffer.length < length) copyBuffer = new char[Math.max(length, copyBuffer.length * 2)];
+        text.getChars(0, length, copyBuffer, 0);
+        out.write(copyBuffer, 0, length);
+        rows += chunk.rows;
+    }
+    
+    private static <R> R await(Future<R> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Report generation interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Report generation failed", e.getCause());
+        }
+    }
+    
+    private void appendUser(User user, StringBuilder text) {
+        switch (format) {
+            case TEXT:
+                user.appendInfo(text);
+                text.append(TEXT_SEPARATOR);
+                break;
+            case CSV:
+                text.append(typeOf(user)).append(',');
+                csv(text, user.getId()).append(',');
+                csv(text, user.getUsername()).append(',');
+                csv(text, user.getEmail()).append(',');
+                text.append(user.getRegistrationDate()).append('\n');
+                break;
+            default:
+                appendUserJson(user, text).append('\n');
+        }
+    }
+    
+    // Objets JSON d'une entité, partagés par JSON-lines et par l'API HTTP
+    static StringBuilder appendUserJson(User user, StringBuilder text) {
+        text.append("{\"type\":\"").append(typeOf(user)).append("\",\"user_id\":");
+        json(text, user.getId()).append(",\"username\":");
+        json(text, user.getUsername()).append(",\"email\":");
+        json(text, user.getEmail()).append(",\"registered\":\"");
+        return text.append(user.getRegistrationDate()).append("\"}");
+    }
+    
+    private void appendVideo(Video video, StringBuilder text) {
+        if (TEXT.equals(format)) {
+            video.appendInfo(text);
+            text.append(TEXT_SEPARATOR);
+            return;
+        }
+        if (CSV.equals(format)) {
+            double score = YouTubeAnalyzerSystem.qualityScore(video);
+            csv(text, video.getVideoId()).append(',');
+            csv(text, video.getTitle()).append(',');
+            csv(text, video.getCategory()).append(',');
+            csv(text, video.getCreatorId()).append(',');
+            text.append(video.getViewCount()).append(',').append(video.getCommentCount()).append(',');
+            text.append(score).append(',').append(video.getUploadDate()).append('\n');
+        } else {
+            appendVideoJson(video, text).append('\n');
+        }
+    }
+    
+    static StringBuilder appendVideoJson(Video video, StringBuilder text) {
+        text.append("{\"video_id\":");
+        json(text, video.getVideoId()).append(",\"title\":");
+        json(text, video.getTitle()).append(",\"category\":");
+        json(text, video.getCategory()).append(",\"creator_id\":");
+        json(text, video.getCreatorId()).append(",\"views\":").append(video.getViewCount());
+        text.append(",\"comments\":").append(video.getCommentCount());
+        text.append(",\"quality_score\":").append(YouTubeAnalyzerSystem.qualityScore(video));
+        return text.append(",\"uploaded\":\"").append(video.getUploadDate()).append("\"}");
+    }
+    
+    private void appendComment(Video video, Comment comment, StringBuilder text) {
+        if (TEXT.equals(format)) {
+            comment.appendComment(text);
+            text.append(TEXT_SEPARATOR);
+            return;
+        }
+        if (CSV.equals(format)) {
+            String authorId = comment.getAuthor() == null ? null : comment.getAuthor().getId();
+            csv(text, comment.getCommentId()).append(',');
+            csv(text, video.getVideoId()).append(',');
+            csv(text, authorId).append(',');
+            text.append(comment.getLikesCount()).append(',').append(comment.getDislikesCount()).append(',');
+            text.append(comment.getSentimentScore()).append(',').append(comment.getPostDate()).append(',');
+            csv(text, comment.getContent()).append('\n');
+        } else {
+            appendCommentJson(video, comment, text).append('\n');
+        }
+    }
+    
+    static StringBuilder appendCommentJson(Video video, Comment comment, StringBuilder text) {
+        String authorId = comment.getAuthor() == null ? null : comment.getAuthor().getId();
+        text.append("{\"comment_id\":");
+        json(text, comment.getCommentId()).append(",\"video_id\":");
+        json(text, video.getVideoId()).append(",\"author_id\":");
+        json(text, authorId).append(",\"likes\":").append(comment.getLikesCount());
+        text.append(",\"dislikes\":").append(comment.getDislikesCount());
+        text.append(",\"sentiment\":").append(comment.getSentimentScore());
+        text.append(",\"posted\":\"").append(comment.getPostDate()).append("\",\"content\":");
+        return json(text, comment.getContent()).append('}');
+    }
+    
+    private void appendCategory(CategoryTotals totals, StringBuilder text) {
+        double score = Analyzer.toQualityScore(totals.sentimentSum, totals.commentCount);
+        switch (format) {
+            case TEXT:
+                text.append(totals.category.isEmpty() ? "(none)" : totals.category).append(": ");
+                text.append(totals.videoCount).append(" videos, ").append(totals.views).append(" views, ");
+                text.append(totals.commentCount).append(" comments, score ").append(score).append("/10\n");
+                break;
+            case CSV:
+                csv(text, totals.category).append(',').append(totals.videoCount).append(',');
+                text.append(totals.views).append(',').append(totals.commentCount).append(',').append(score).append('\n');
+                break;
+            default:
+                text.append("{\"category\":");
+                json(text, totals.category).append(",\"videos\":").append(totals.videoCount);
+                text.append(",\"views\":").append(totals.views).append(",\"comments\":").append(totals.commentCount);
+                text.append(",\"quality_score\":").append(score).append("}\n");
+        }
+    }
+    
+    private static String typeOf(User user) {
+        return user instanceof VideoCreator ? "creator" : user instanceof Viewer ? "viewer" : "regular";
+    }
+    
+    // Champ CSV (RFC 4180) : entre guillemets seulement s'il contient un séparateur
+    private static StringBuilder csv(StringBuilder text, String value) {
+        if (value == null) return text;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return text.append(value);
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') text.append('"');
+            text.append(c);
+        }
+        return text.append('"');
+    }
+    
+    static StringBuilder json(StringBuilder text, String value) {
+        if (value == null) return text.append("null");
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': text.append("\\\""); break;
+                case '\\': text.append("\\\\"); break;
+                case '\n': text.append("\\n"); break;
+                case '\r': text.append("\\r"); break;
+                case '\t': text.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        text.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        text.append(c);
+                    }
+            }
+        }
+        return text.append('"');
+    }
+    
+    // Met en forme un lot dans text et retourne le nombre d'entrées écrites
+    private interface ChunkFormatter<T> {
+        int format(List<T> chunk, StringBuilder text);
+    }
+    
+    private static final class FormattedChunk {
+        final StringBuilder text;
+        final int rows;
+        
+        FormattedChunk(StringBuilder text, int rows) {
+            this.text = text;
+            this.rows = rows;
+        }
+    }
+    
+    private static final class CategoryTotals {
+        final String category;
+        int videoCount;
+        long views;
+        long commentCount;
+        double sentimentSum;
+        
+        CategoryTotals(String category) {
+            this.category = category;
+        }
+        
+        // En mode pondéré, chaque vidéo apporte son sentiment moyen pondéré, compté autant de
+        // fois qu'elle a de commentaires
+        void add(Video video) {
+            SentimentAggregate aggregate = video.getAggregate();
+            videoCount++;
+            views += video.getViewCount();
+            if (YouTubeAnalyzerSystem.isEngagementWeighted() && video.getCommentCount() > 0) {
+                AnalysisResult result = YouTubeAnalyzerSystem.analyze(video, true);
+                commentCount += result.getTotalCommentsAnalyzed();
+                sentimentSum += (result.getQualityScore() / 5 - 1) * result.getTotalCommentsAnalyzed();
+                return;
+            }
+            synchronized (aggregate) {
+                commentCount += aggregate.getCount();
+                sentimentSum += aggregate.getSentimentSum();
+            }
+        }
+        
+        void merge(CategoryTotals other) {
+            videoCount += other.videoCount;
+            views += other.views;
+            commentCount += other.commentCount;
+            sentimentSum += other.sentimentSum;
+        }
+    }
+}
\ No newline at end of file
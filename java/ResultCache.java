@@ -0,0 +1,131 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+// Classe ResultCache : derniers résultats d'analyse par vidéo, chacun associé à la
+// version de l'ensemble de commentaires qui l'a produit. Un résultat n'est servi que
+// si la vidéo n'a pas changé depuis ; la taille est bornée (éviction LRU).
+// Le mode d'analyse fait partie de la clé : un score pondéré par l'engagement n'est
+// jamais servi à la place du score normal, ni l'inverse.
+class ResultCache {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    
+    private static final class Key {
+        final String videoId;
+        final boolean weighted;
+        
+        Key(String videoId, boolean weighted) {
+            this.videoId = videoId;
+            this.weighted = weighted;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return weighted == key.weighted && videoId.equals(key.videoId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(videoId, weighted);
+        }
+    }
+    
+    private static class Entry {
+        final long version;
+        final AnalysisResult result;
+        
+        Entry(long version, AnalysisResult result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+    
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long hits;
+    private long misses;
+    private long staleMisses;
+    private long evictions;
+    
+    public ResultCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Cache capacity must be positive");
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= ResultCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+    
+    // Retourne null si absent ou calculé sur une autre version des commentaires
+    public synchronized AnalysisResult get(String videoId, boolean weighted, long version) {
+        Entry entry = entries.get(new Key(videoId, weighted));
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.version != version) {
+            staleMisses++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+    
+    // Dernier résultat connu, même périmé, sans compter de succès ni d'échec
+    public synchronized AnalysisResult peek(String videoId, boolean weighted) {
+        Entry entry = entries.get(new Key(videoId, weighted));
+        return entry == null ? null : entry.result;
+    }
+    
+    public synchronized void put(String videoId, boolean weighted, long version, AnalysisResult result) {
+        entries.put(new Key(videoId, weighted), new Entry(version, result));
+    }
+    
+    // Retire les résultats de la vidéo dans les deux modes
+    public synchronized boolean invalidate(String videoId) {
+        boolean removed = entries.remove(new Key(videoId, false)) != null;
+        return entries.remove(new Key(videoId, true)) != null || removed;
+    }
+    
+    // Retire les résultats des vidéos refusées par keep, retourne le nombre de résultats retirés
+    public synchronized int retainVideos(Predicate<String> keep) {
+        int before = entries.size();
+        entries.keySet().removeIf(key -> !keep.test(key.videoId));
+        return before - entries.size();
+    }
+    
+    // Résultats d'un seul mode, par id de vidéo
+    public synchronized Map<String, AnalysisResult> snapshot(boolean weighted) {
+        Map<String, AnalysisResult> copy = new HashMap<>();
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            if (entry.getKey().weighted == weighted) copy.put(entry.getKey().videoId, entry.getValue().result);
+        }
+        return copy;
+    }
+    
+    public int getCapacity() { return capacity; }
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getStaleMisses() { return staleMisses; }
+    public synchronized long getEvictions() { return evictions; }
+    
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+    
+    public synchronized String getStats() {
+        return String.format("size=%d/%d hits=%d misses=%d (stale=%d) evictions=%d hitRate=%.1f%%",
+                             entries.size(), capacity, hits, misses, staleMisses, evictions, getHitRate() * 100);
+    }
+}
\ No newline at end of file
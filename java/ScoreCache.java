@@ -0,0 +1,39 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Classe ScoreCache : cache borné des scores par commentId, le moins récemment
+// consulté est évincé une fois la capacité atteinte
+class ScoreCache {
+    private final int capacity;
+    private final LinkedHashMap<String, Double> scores;
+    private long evictions;
+    
+    public ScoreCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Cache capacity must be positive");
+        this.capacity = capacity;
+        this.scores = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+                if (size() <= ScoreCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+    
+    public synchronized void put(String commentId, double score) {
+        scores.put(commentId, score);
+    }
+    
+    public synchronized Double get(String commentId) {
+        return scores.get(commentId);
+    }
+    
+    public synchronized void clear() {
+        scores.clear();
+    }
+    
+    public int getCapacity() { return capacity; }
+    public synchronized int size() { return scores.size(); }
+    public synchronized long getEvictions() { return evictions; }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+// Classe SentimentAggregate : agrégats de sentiment maintenus au fil des ajouts,
+// suppressions et modifications de commentaires d'une vidéo
+class SentimentAggregate {
+    private double sentimentSum;
+    private int count;
+    private int positiveCount;
+    private int negativeCount;
+    private int neutralCount;
+    
+    public synchronized void add(double sentiment) {
+        sentimentSum += sentiment;
+        count++;
+        if (sentiment > 0) positiveCount++;
+        else if (sentiment < 0) negativeCount++;
+        else neutralCount++;
+    }
+    
+    public synchronized void remove(double sentiment) {
+        count--;
+        if (sentiment > 0) positiveCount--;
+        else if (sentiment < 0) negativeCount--;
+        else neutralCount--;
+        // Évite de traîner une erreur d'arrondi une fois la vidéo vidée
+        sentimentSum = count == 0 ? 0.0 : sentimentSum - sentiment;
+    }
+    
+    public synchronized void replace(double oldSentiment, double newSentiment) {
+        remove(oldSentiment);
+        add(newSentiment);
+    }
+    
+    public synchronized double getSentimentSum() { return sentimentSum; }
+    public synchronized int getCount() { return count; }
+    public synchronized int getPositiveCount() { return positiveCount; }
+    public synchronized int getNegativeCount() { return negativeCount; }
+    public synchronized int getNeutralCount() { return neutralCount; }
+    
+    public synchronized double getQualityScore() {
+        return Analyzer.toQualityScore(sentimentSum, count);
+    }
+    
+    public synchronized AnalysisResult toResult() {
+        return new AnalysisResult(Analyzer.toQualityScore(sentimentSum, count), count);
+    }
+}
\ No newline at end of file
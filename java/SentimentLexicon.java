@@ -0,0 +1,217 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Classe SentimentLexicon : lexique pondéré compilé une seule fois en automate
+// Aho-Corasick, chaque commentaire est parcouru une seule fois sans copie
+class SentimentLexicon extends SentimentStrategy {
+    private static final String[] DEFAULT_POSITIVE_WORDS = {"good", "great", "excellent", "amazing", "love", "best", "awesome"};
+    private static final String[] DEFAULT_NEGATIVE_WORDS = {"bad", "terrible", "awful", "hate", "worst", "poor", "disappointing"};
+    private static final SentimentLexicon DEFAULT = createDefault();
+    
+    private final String[] terms;
+    private final double[] weights;
+    private final char[] charClasses;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final int[] outputStart;
+    private final int[] outputs;
+    private final ThreadLocal<int[]> seenMarks;
+    
+    // Les poids positifs comptent comme mots positifs, les poids négatifs comme mots négatifs
+    public SentimentLexicon(Map<String, Double> weightedTerms) {
+        List<String> termList = new ArrayList<>();
+        List<Double> weightList = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : weightedTerms.entrySet()) {
+            String term = entry.getKey().toLowerCase(Locale.ROOT);
+            if (term.isEmpty() || entry.getValue() == 0.0) continue;
+            termList.add(term);
+            weightList.add(entry.getValue());
+        }
+        
+        this.terms = termList.toArray(new String[0]);
+        this.weights = new double[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            weights[i] = weightList.get(i);
+        }
+        
+        // Classes de caractères : 0 = caractère absent du lexique, majuscules repliées
+        this.charClasses = new char[Character.MAX_VALUE + 1];
+        int classes = 1;
+        for (String term : terms) {
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                if (charClasses[c] != 0) continue;
+                char cls = (char) classes++;
+                charClasses[c] = cls;
+                charClasses[Character.toUpperCase(c)] = cls;
+                charClasses[Character.toTitleCase(c)] = cls;
+            }
+        }
+        this.alphabetSize = classes;
+        
+        // Construction du trie
+        Map<Long, Integer> edges = new HashMap<>();
+        List<List<Integer>> ownTerms = new ArrayList<>();
+        ownTerms.add(new ArrayList<>());
+        for (int t = 0; t < terms.length; t++) {
+            int node = 0;
+            for (int i = 0; i < terms[t].length(); i++) {
+                long key = ((long) node << 16) | charClasses[terms[t].charAt(i)];
+                Integer next = edges.get(key);
+                if (next == null) {
+                    next = ownTerms.size();
+                    ownTerms.add(new ArrayList<>());
+                    edges.put(key, next);
+                }
+                node = next;
+            }
+            ownTerms.get(node).add(t);
+        }
+        
+        // Automate déterministe : liens d'échec calculés en largeur
+        int nodeCount = ownTerms.size();
+        this.transitions = new int[nodeCount * alphabetSize];
+        int[] fail = new int[nodeCount];
+        List<List<Integer>> nodeOutputs = new ArrayList<>(Collections.nCopies(nodeCount, (List<Integer>) null));
+        nodeOutputs.set(0, ownTerms.get(0));
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int cls = 1; cls < alphabetSize; cls++) {
+                Integer child = edges.get(((long) node << 16) | cls);
+                if (child == null) {
+                    transitions[node * alphabetSize + cls] = node == 0 ? 0 : transitions[fail[node] * alphabetSize + cls];
+                    continue;
+                }
+                fail[child] = node == 0 ? 0 : transitions[fail[node] * alphabetSize + cls];
+                List<Integer> out = new ArrayList<>(ownTerms.get(child));
+                out.addAll(nodeOutputs.get(fail[child]));
+                nodeOutputs.set(child, out);
+                transitions[node * alphabetSize + cls] = child;
+                queue.add(child);
+            }
+        }
+        
+        this.outputStart = new int[nodeCount + 1];
+        int total = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            outputStart[node] = total;
+            total += nodeOutputs.get(node).size();
+        }
+        outputStart[nodeCount] = total;
+        this.outputs = new int[total];
+        for (int node = 0; node < nodeCount; node++) {
+            List<Integer> out = nodeOutputs.get(node);
+            for (int i = 0; i < out.size(); i++) {
+                outputs[outputStart[node] + i] = out.get(i);
+            }
+        }
+        
+        // Marqueurs par thread pour ne compter chaque terme qu'une fois par texte
+        final int termCount = terms.length;
+        this.seenMarks = ThreadLocal.withInitial(() -> new int[termCount + 1]);
+    }
+    
+    public static SentimentLexicon getDefault() { return DEFAULT; }
+    
+    private static SentimentLexicon createDefault() {
+        Map<String, Double> weightedTerms = new LinkedHashMap<>();
+        for (String word : DEFAULT_POSITIVE_WORDS) weightedTerms.put(word, 1.0);
+        for (String word : DEFAULT_NEGATIVE_WORDS) weightedTerms.put(word, -1.0);
+        return new SentimentLexicon(weightedTerms);
+    }
+    
+    // Format : un terme et son poids par ligne ("terme<TAB>poids" ou "terme,poids"), '#' pour les commentaires
+    public static SentimentLexicon fromFile(String path) throws IOException {
+        Map<String, Double> weightedTerms = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                int sep = Math.max(line.lastIndexOf('\t'), Math.max(line.lastIndexOf(','), line.lastIndexOf(' ')));
+                if (sep <= 0) {
+                    throw new IllegalArgumentException("Invalid lexicon entry at line " + lineNumber + ": " + line);
+                }
+                try {
+                    weightedTerms.put(line.substring(0, sep).trim(), Double.parseDouble(line.substring(sep + 1).trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid weight at line " + lineNumber + ": " + line);
+                }
+            }
+        }
+        return new SentimentLexicon(weightedTerms);
+    }
+    
+    public int size() { return terms.length; }
+    
+    @Override
+    public String getName() { return "keyword"; }
+    
+    // Score dans [-1, 1] : (positif - négatif) / (positif + négatif), 0 si aucun terme trouvé
+    @Override
+    public double score(CharSequence text) {
+        int[] marks = seenMarks.get();
+        int generation = nextGeneration(marks);
+        
+        double positive = 0.0;
+        double negative = 0.0;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = transitions[state * alphabetSize + charClasses[text.charAt(i)]];
+            for (int k = outputStart[state], end = outputStart[state + 1]; k < end; k++) {
+                int term = outputs[k];
+                if (marks[term] == generation) continue;
+                marks[term] = generation;
+                double weight = weights[term];
+                if (weight > 0) positive += weight;
+                else negative -= weight;
+            }
+        }
+        
+        if (positive + negative == 0.0) return 0.0;
+        return (positive - negative) / (positive + negative);
+    }
+    
+    // Même automate, lu directement dans le tableau (stockage en colonnes)
+    @Override
+    public double score(char[] chars, int length) {
+        int[] marks = seenMarks.get();
+        int generation = nextGeneration(marks);
+        
+        double positive = 0.0;
+        double negative = 0.0;
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            state = transitions[state * alphabetSize + charClasses[chars[i]]];
+            for (int k = outputStart[state], end = outputStart[state + 1]; k < end; k++) {
+                int term = outputs[k];
+                if (marks[term] == generation) continue;
+                marks[term] = generation;
+                double weight = weights[term];
+                if (weight > 0) positive += weight;
+                else negative -= weight;
+            }
+        }
+        
+        if (positive + negative == 0.0) return 0.0;
+        return (positive - negative) / (positive + negative);
+    }
+    
+    private int nextGeneration(int[] marks) {
+        int generation = marks[terms.length] + 1;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            generation = 1;
+        }
+        marks[terms.length] = generation;
+        return generation;
+    }
+}
\ No newline at end of file
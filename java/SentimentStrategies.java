@@ -0,0 +1,51 @@
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Classe SentimentStrategies : registre des stratégies par nom d'analysisMethod.
+// "sentiment_analysis" (historique) et "keyword" : mots-clés par sous-chaîne (SentimentLexicon)
+// "lexicon_ngram" : tokens pondérés avec négation et intensificateurs (NgramLexiconStrategy)
+class SentimentStrategies {
+    private static final Map<String, SentimentStrategy> strategies = new ConcurrentHashMap<>();
+    
+    static {
+        register("sentiment_analysis", SentimentLexicon.getDefault());
+        register("keyword", SentimentLexicon.getDefault());
+        register("lexicon_ngram", NgramLexiconStrategy.getDefault());
+    }
+    
+    private SentimentStrategies() {}
+    
+    // Permet de brancher une stratégie externe (lexique chargé depuis un fichier, etc.)
+    public static void register(String analysisMethod, SentimentStrategy strategy) {
+        strategies.put(analysisMethod, strategy);
+    }
+    
+    public static SentimentStrategy forMethod(String analysisMethod) {
+        SentimentStrategy strategy = strategies.get(analysisMethod);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown analysis method '" + analysisMethod + "', available: " + strategies.keySet());
+        }
+        return strategy;
+    }
+    
+    // Lexique pondéré lu dans un fichier, compilé par la même implémentation que analysisMethod
+    public static SentimentStrategy load(String analysisMethod, String lexiconPath) throws IOException {
+        SentimentStrategy base = forMethod(analysisMethod);
+        if (base instanceof NgramLexiconStrategy) return NgramLexiconStrategy.fromFile(lexiconPath);
+        if (base instanceof SentimentLexicon) return SentimentLexicon.fromFile(lexiconPath);
+        throw new IllegalArgumentException("Analysis method '" + analysisMethod + "' does not take a lexicon file");
+    }
+    
+    public static Collection<String> getMethods() {
+        return Collections.unmodifiableSet(strategies.keySet());
+    }
+    
+    public static void printThroughput() {
+        for (SentimentStrategy strategy : strategies.values().stream().distinct().toArray(SentimentStrategy[]::new)) {
+            System.out.println(strategy.getThroughputReport());
+        }
+    }
+}
\ No newline at end of file
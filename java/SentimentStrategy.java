@@ -0,0 +1,45 @@
+import java.nio.CharBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+// Classe SentimentStrategy : stratégie de score de sentiment choisie par
+// Analyzer selon son analysisMethod (voir SentimentStrategies). Chaque stratégie
+// cumule son propre débit pour comparer les implémentations entre elles.
+abstract class SentimentStrategy {
+    private final LongAdder textsScored = new LongAdder();
+    private final LongAdder charsScored = new LongAdder();
+    private final LongAdder nanosSpent = new LongAdder();
+    
+    public abstract String getName();
+    
+    // Score dans [-1, 1], 0 pour un texte neutre
+    public abstract double score(CharSequence text);
+    
+    // Texte déjà décodé dans un tampon (stockage en colonnes) ; à redéfinir pour éviter charAt
+    public double score(char[] chars, int length) {
+        return score(CharBuffer.wrap(chars, 0, length));
+    }
+    
+    // Appelé par lot (un passage d'Analyzer) pour ne pas mesurer chaque appel
+    public void recordThroughput(long texts, long chars, long nanos) {
+        textsScored.add(texts);
+        charsScored.add(chars);
+        nanosSpent.add(nanos);
+    }
+    
+    public long getTextsScored() { return textsScored.sum(); }
+    
+    public double getTextsPerSecond() {
+        long nanos = nanosSpent.sum();
+        return nanos == 0 ? 0.0 : textsScored.sum() * 1e9 / nanos;
+    }
+    
+    public double getCharsPerSecond() {
+        long nanos = nanosSpent.sum();
+        return nanos == 0 ? 0.0 : charsScored.sum() * 1e9 / nanos;
+    }
+    
+    public String getThroughputReport() {
+        return String.format("%s: %d texts, %.0f texts/sec, %.1f MB chars/sec", getName(), getTextsScored(),
+                             getTextsPerSecond(), getCharsPerSecond() / (1 << 20));
+    }
+}
\ No newline at end of file
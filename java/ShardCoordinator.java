@@ -0,0 +1,421 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Classe ShardCoordinator : répartit vidéos, commentaires et résultats entre plusieurs
+// processus shards (ShardServer) par hachage cohérent du videoId. Les utilisateurs sont
+// répliqués partout ; une analyse est envoyée au shard propriétaire ; statistiques globales
+// et totaux par catégorie sont demandés à tous les shards en parallèle puis additionnés.
+// Les écritures partent par paquets de BATCH_SIZE lignes (un aller-retour par paquet).
+// En tant que Sink, le coordinateur ne valide rien lui-même : null veut dire « routé ». Les
+// rejets des shards n'arrivent qu'à l'envoi du paquet ; ils sont comptés à part
+// (getShardIngested, getShardRejected, getShardErrors).
+//
+// Ajout d'un shard : les vidéos qui lui reviennent sont déplacées une par une (copie,
+// bascule du routage, suppression de l'ancien shard), l'ingestion continuant entre deux
+// déplacements. Un dernier passage, écritures suspendues, rattrape les vidéos créées
+// entre-temps puis installe le nouvel anneau.
+//
+//   java YouTubeAnalyzerSystem --shard 9101        (un processus par shard)
+//   java ShardCoordinator --shards localhost:9101,localhost:9102 [--batch fichiers...] [--add-shard localhost:9103]
+class ShardCoordinator implements BatchIngestor.Sink, Closeable {
+    // Enregistrements envoyés par paquet à un même shard
+    private static final int BATCH_SIZE = 512;
+    private static final int MAX_REPORTED_ERRORS = 10;
+    
+    private final Map<String, ShardConnection> shards = new ConcurrentHashMap<>();
+    private volatile ShardRing ring;
+    // Vidéos déjà déplacées pendant un rééquilibrage, tant que l'ancien anneau est en place
+    private final Map<String, String> relocated = new ConcurrentHashMap<>();
+    // Pris par l'ingestion et par chaque déplacement : une écriture n'est jamais en attente
+    // vers un shard qui n'a plus la vidéo
+    private final Object writeLock = new Object();
+    private final Map<String, List<String>> pending = new HashMap<>();
+    private final StringBuilder record = new StringBuilder(256);
+    private final ExecutorService scatter;
+    private long shardIngested;
+    private long shardRejected;
+    // Premiers motifs de rejet renvoyés par les shards, au plus MAX_REPORTED_ERRORS
+    private final List<String> shardErrors = new ArrayList<>();
+    
+    public ShardCoordinator(List<String> addresses) throws IOException {
+        for (String address : addresses) shards.put(address, new ShardConnection(address));
+        this.ring = new ShardRing(addresses);
+        this.scatter = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public static void main(String[] args) throws Exception {
+        List<String> addresses = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--shards": addresses.addAll(Arrays.asList(args[++i].split(","))); break;
+                case "--add-shard": added.add(args[++i]); break;
+                case "--batch":
+                    while (i + 1 < args.length && !args[i + 1].startsWith("--")) files.add(args[++i]);
+                    break;
+                default:
+                    System.out.println("Unknown argument: " + args[i]);
+                    return;
+            }
+        }
+        if (addresses.isEmpty()) {
+            System.out.println("Usage: java ShardCoordinator --shards host:port,... [--batch files...] [--add-shard host:port]");
+            return;
+        }
+        
+        try (ShardCoordinator coordinator = new ShardCoordinator(addresses)) {
+            if (!files.isEmpty()) {
+                long start = System.nanoTime();
+                BatchIngestor ingestor = new BatchIngestor(true, coordinator);
+                for (String file : files) ingestor.ingest(Paths.get(file));
+                coordinator.flush();
+                double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+                System.out.printf("Rows routed: %d, accepted by shards: %d, rejected: %d (%.0f rows/sec)%n",
+                                  ingestor.getRowsIngested(), coordinator.shardIngested, coordinator.shardRejected,
+                                  ingestor.getRowsIngested() / seconds);
+                for (String error : coordinator.getShardErrors()) System.out.println("Rejected by " + error);
+            }
+            coordinator.printStats();
+            for (String address : added) {
+                long start = System.nanoTime();
+                int moved = coordinator.addShard(address);
+                System.out.printf("%nAdded shard %s: %d videos moved in %.2f s%n", address, moved,
+                                  (System.nanoTime() - start) / 1e9);
+                coordinator.printStats();
+            }
+        }
+    }
+    
+    public List<String> getShards() { return ring.getShards(); }
+    
+    // Totaux des shards sur les paquets déjà envoyés (flush pour tout compter)
+    public long getShardIngested() { synchronized (writeLock) { return shardIngested; } }
+    public long getShardRejected() { synchronized (writeLock) { return shardRejected; } }
+    public List<String> getShardErrors() { synchronized (writeLock) { return new ArrayList<>(shardErrors); } }
+    
+    public String ownerOf(String videoId) {
+        String moved = relocated.get(videoId);
+        return moved != null ? moved : ring.ownerOf(videoId);
+    }
+    
+    // Sink : null une fois l'enregistrement mis dans le paquet de son shard
+    @Override
+    public String user(String kind, String userId, String username, String email) {
+        synchronized (writeLock) {
+            record.setLength(0);
+            record.append("{\"type\":\"user\",\"kind\":");
+            ReportEngine.json(record, kind).append(",\"userId\":");
+            ReportEngine.json(record, userId).append(",\"username\":");
+            ReportEngine.json(record, username).append(",\"email\":");
+            String json = ReportEngine.json(record, email).append('}').toString();
+            for (String shard : shards.keySet()) enqueue(shard, json);
+        }
+        return null;
+    }
+    
+    @Override
+    public String video(String creatorId, String videoId, String title, String url, int duration, String category) {
+        synchronized (writeLock) {
+            record.setLength(0);
+            record.append("{\"type\":\"video\",\"creatorId\":");
+            ReportEngine.json(record, creatorId).append(",\"videoId\":");
+            ReportEngine.json(record, videoId).append(",\"title\":");
+            ReportEngine.json(record, title).append(",\"url\":");
+            ReportEngine.json(record, url).append(",\"duration\":").append(duration).append(",\"category\":");
+            enqueue(ownerOf(videoId), ReportEngine.json(record, category).append('}').toString());
+        }
+        return null;
+    }
+    
+    @Override
+    public String comment(String videoId, String authorId, String commentId, String content) {
+        synchronized (writeLock) {
+            record.setLength(0);
+            record.append("{\"type\":\"comment\",\"videoId\":");
+            ReportEngine.json(record, videoId).append(",\"authorId\":");
+            ReportEngine.json(record, authorId).append(",\"commentId\":");
+            ReportEngine.json(record, commentId).append(",\"content\":");
+            enqueue(ownerOf(videoId), ReportEngine.json(record, content).append('}').toString());
+        }
+        return null;
+    }
+    
+    // Envoie les paquets en attente ; les lectures le font d'abord pour voir leurs propres écritures
+    public void flush() {
+        synchronized (writeLock) {
+            for (Map.Entry<String, List<String>> entry : pending.entrySet()) {
+                if (!entry.getValue().isEmpty()) send(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    // Champs de la réponse du shard propriétaire (qualityScore, comments...), ou "error"
+    public Map<String, String> analyze(String videoId) throws IOException {
+        flush();
+        return shards.get(ownerOf(videoId)).call("ANALYZE " + videoId, Collections.emptyList()).get(0);
+    }
+    
+    public boolean removeUser(String userId) throws IOException {
+        flush();
+        boolean deleted = false;
+        for (List<Map<String, String>> response : gather("DELETE_USER " + userId)) {
+            deleted |= Boolean.parseBoolean(response.get(0).get("deleted"));
+        }
+        return deleted;
+    }
+    
+    // Pendant un déplacement, une vidéo peut être comptée deux fois l'espace d'un instant
+    public GlobalStats stats() throws IOException {
+        flush();
+        GlobalStats stats = new GlobalStats();
+        List<String> addresses = new ArrayList<>(shards.keySet());
+        List<List<Map<String, String>>> responses = gather("STATS", addresses);
+        for (int i = 0; i < addresses.size(); i++) {
+            Map<String, String> partial = responses.get(i).get(0);
+            long videos = Long.parseLong(partial.get("videos"));
+            // Utilisateurs répliqués : chaque shard les a tous
+            stats.users = Math.max(stats.users, Long.parseLong(partial.get("users")));
+            stats.videos += videos;
+            stats.comments += Long.parseLong(partial.get("comments"));
+            stats.views += Long.parseLong(partial.get("views"));
+            stats.sentimentSum += Double.parseDouble(partial.get("sentimentSum"));
+            stats.videosPerShard.put(addresses.get(i), videos);
+        }
+        return stats;
+    }
+    
+    public Collection<CategoryTotal> categories() throws IOException {
+        flush();
+        Map<String, CategoryTotal> merged = new TreeMap<>();
+        for (List<Map<String, String>> response : gather("CATEGORIES")) {
+            for (Map<String, String> partial : response) {
+                CategoryTotal total = merged.computeIfAbsent(partial.get("category"), CategoryTotal::new);
+                total.videos += Long.parseLong(partial.get("videos"));
+                total.views += Long.parseLong(partial.get("views"));
+                total.comments += Long.parseLong(partial.get("comments"));
+                total.sentimentSum += Double.parseDouble(partial.get("sentimentSum"));
+            }
+        }
+        return merged.values();
+    }
+    
+    // Retourne le nombre de vidéos déplacées vers le nouveau shard
+    public int addShard(String address) throws IOException {
+        if (shards.containsKey(address)) throw new IllegalArgumentException("Shard already present: " + address);
+        ShardConnection added = new ShardConnection(address);
+        ShardRing target = ring.withShard(address);
+        List<String> previous = new ArrayList<>(shards.keySet());
+        synchronized (writeLock) {
+            // Utilisateurs d'abord : les commentaires déplacés ont besoin de leurs auteurs.
+            // Dès cet instant, les nouveaux utilisateurs sont aussi envoyés au nouveau shard.
+            flush();
+            List<String> users = shards.get(previous.get(0)).lines("USERS", Collections.emptyList());
+            for (int from = 0; from < users.size(); from += BATCH_SIZE) {
+                added.call("INGEST " + Math.min(BATCH_SIZE, users.size() - from),
+                           users.subList(from, Math.min(users.size(), from + BATCH_SIZE)));
+            }
+            shards.put(address, added);
+        }
+        
+        int moved = 0;
+        for (String source : previous) {
+            for (String videoId : keysMovingTo(source, target, address)) {
+                synchronized (writeLock) {
+                    if (move(videoId, source, address)) moved++;
+                }
+            }
+        }
+        synchronized (writeLock) {
+            // Rattrapage des vidéos créées pendant les déplacements, puis bascule de l'anneau
+            flush();
+            for (String source : previous) {
+                for (String videoId : keysMovingTo(source, target, address)) {
+                    if (move(videoId, source, address)) moved++;
+                }
+            }
+            ring = target;
+            relocated.clear();
+        }
+        return moved;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        flush();
+        scatter.shutdownNow();
+        for (ShardConnection connection : shards.values()) connection.close();
+    }
+    
+    private void enqueue(String shard, String json) {
+        List<String> batch = pending.computeIfAbsent(shard, key -> new ArrayList<>(BATCH_SIZE));
+        batch.add(json);
+        if (batch.size() >= BATCH_SIZE) send(shard, batch);
+    }
+    
+    private void send(String shard, List<String> batch) {
+        try {
+            Map<String, String> result = shards.get(shard).call("INGEST " + batch.size(), batch).get(0);
+            shardIngested += Long.parseLong(result.getOrDefault("ingested", "0"));
+            shardRejected += Long.parseLong(result.getOrDefault("rejected", "0"));
+            String error = result.get("firstError");
+            if (error != null && shardErrors.size() < MAX_REPORTED_ERRORS) shardErrors.add(shard + ": " + error);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Shard " + shard + " unreachable", e);
+        }
+        batch.clear();
+    }
+    
+    private List<String> keysMovingTo(String source, ShardRing target, String address) throws IOException {
+        List<String> moving = new ArrayList<>();
+        for (Map<String, String> key : shards.get(source).call("KEYS", Collections.emptyList())) {
+            String videoId = key.get("videoId");
+            if (videoId != null && target.ownerOf(videoId).equals(address)) moving.add(videoId);
+        }
+        return moving;
+    }
+    
+    // Sous writeLock : copie vers le nouveau shard, bascule du routage, puis suppression de la source
+    private boolean move(String videoId, String source, String address) throws IOException {
+        flush();
+        List<String> records = shards.get(source).lines("EXPORT " + videoId, Collections.emptyList());
+        if (records.isEmpty() || records.get(0).startsWith("{\"error\"")) return false;
+        Map<String, String> imported = shards.get(address).call("IMPORT " + records.size(), records).get(0);
+        if (!"0".equals(imported.get("rejected"))) {
+            // Copie partielle retirée du nouveau shard ; la source garde la vidéo et le routage ne change pas
+            shards.get(address).call("DROP " + videoId, Collections.emptyList());
+            throw new IOException("Shard " + address + " rejected " + imported.get("rejected") + " records of " + videoId);
+        }
+        relocated.put(videoId, address);
+        shards.get(source).call("DROP " + videoId, Collections.emptyList());
+        return true;
+    }
+    
+    private List<List<Map<String, String>>> gather(String command) throws IOException {
+        return gather(command, new ArrayList<>(shards.keySet()));
+    }
+    
+    // Même requête à tous les shards en parallèle ; réponses dans l'ordre des adresses
+    private List<List<Map<String, String>>> gather(String command, List<String> addresses) throws IOException {
+        List<Future<List<Map<String, String>>>> futures = new ArrayList<>();
+        for (String address : addresses) {
+            ShardConnection connection = shards.get(address);
+            futures.add(scatter.submit(() -> connection.call(command, Collections.emptyList())));
+        }
+        List<List<Map<String, String>>> responses = new ArrayList<>();
+        for (Future<List<Map<String, String>>> future : futures) {
+            try {
+                responses.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for shards");
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            }
+        }
+        return responses;
+    }
+    
+    private void printStats() throws IOException {
+        GlobalStats stats = stats();
+        System.out.printf("%nShards: %d, users: %d, videos: %d, comments: %d, views: %d, quality score: %.2f/10%n",
+                          stats.videosPerShard.size(), stats.users, stats.videos, stats.comments, stats.views,
+                          stats.getQualityScore());
+        for (Map.Entry<String, Long> shard : stats.videosPerShard.entrySet()) {
+            System.out.println("  " + shard.getKey() + ": " + shard.getValue() + " videos");
+        }
+        for (CategoryTotal total : categories()) {
+            System.out.printf("  %s: %d videos, %d comments, score %.2f/10%n", total.category.isEmpty() ? "(none)" : total.category,
+                              total.videos, total.comments, total.getQualityScore());
+        }
+    }
+    
+    static class GlobalStats {
+        long users;
+        long videos;
+        long comments;
+        long views;
+        double sentimentSum;
+        final Map<String, Long> videosPerShard = new TreeMap<>();
+        
+        double getQualityScore() { return Analyzer.toQualityScore(sentimentSum, comments); }
+    }
+    
+    static class CategoryTotal {
+        final String category;
+        long videos;
+        long views;
+        long comments;
+        double sentimentSum;
+        
+        CategoryTotal(String category) {
+            this.category = category;
+        }
+        
+        double getQualityScore() { return Analyzer.toQualityScore(sentimentSum, comments); }
+    }
+    
+    // Une connexion TCP par shard, une requête à la fois
+    private static class ShardConnection implements Closeable {
+        private final String address;
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+        private final BatchIngestor parser = new BatchIngestor(false);
+        
+        ShardConnection(String address) throws IOException {
+            int colon = address.lastIndexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("Shard address must be host:port: " + address);
+            this.address = address;
+            this.socket = new Socket();
+            socket.connect(new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1))));
+            socket.setTcpNoDelay(true);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 1 << 16);
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16);
+        }
+        
+        // Lignes brutes de la réponse, sans la ligne vide finale
+        synchronized List<String> lines(String command, List<String> body) throws IOException {
+            out.write(command);
+            out.write('\n');
+            for (String line : body) {
+                out.write(line);
+                out.write('\n');
+            }
+            out.flush();
+            List<String> response = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null && !line.isEmpty()) response.add(line);
+            if (line == null) throw new EOFException("Shard " + address + " closed the connection");
+            return response;
+        }
+        
+        synchronized List<Map<String, String>> call(String command, List<String> body) throws IOException {
+            List<Map<String, String>> response = new ArrayList<>();
+            for (String line : lines(command, body)) {
+                Map<String, String> fields = parser.parseJson(line);
+                if (fields == null) throw new IOException("Malformed response from shard " + address + ": " + line);
+                response.add(fields);
+            }
+            return response;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
\ No newline at end of file
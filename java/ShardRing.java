@@ -0,0 +1,65 @@
+import java.util.*;
+
+// Classe ShardRing : hachage cohérent des videoId vers les shards. Chaque shard occupe
+// DEFAULT_VIRTUAL_NODES points de l'anneau ; une clé appartient au premier point qui suit
+// son hash. Ajouter un shard ne déplace que les clés qui tombent désormais sur ses points,
+// environ 1/n des vidéos, toutes vers le nouveau venu.
+// Immuable : le coordinateur remplace l'anneau d'un bloc une fois un rééquilibrage fini.
+class ShardRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+    
+    private final int virtualNodes;
+    private final List<String> shards;
+    private final long[] points;
+    private final String[] owners;
+    
+    public ShardRing(Collection<String> shards) {
+        this(shards, DEFAULT_VIRTUAL_NODES);
+    }
+    
+    public ShardRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("At least one shard is required");
+        if (virtualNodes < 1) throw new IllegalArgumentException("Virtual nodes must be positive");
+        this.virtualNodes = virtualNodes;
+        this.shards = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(shards)));
+        // Points triés dans un tableau : une recherche dichotomique par clé, sans objet
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String shard : this.shards) {
+            for (int i = 0; i < virtualNodes; i++) ring.put(hash(shard + "#" + i), shard);
+        }
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> point : ring.entrySet()) {
+            points[i] = point.getKey();
+            owners[i++] = point.getValue();
+        }
+    }
+    
+    public List<String> getShards() { return shards; }
+    
+    public ShardRing withShard(String shard) {
+        List<String> grown = new ArrayList<>(shards);
+        grown.add(shard);
+        return new ShardRing(grown, virtualNodes);
+    }
+    
+    public String ownerOf(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) index = -index - 1;
+        return owners[index == points.length ? 0 : index];
+    }
+    
+    // FNV-1a 64 bits puis mélange final de MurmurHash3 : points bien répartis sur l'anneau
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
\ No newline at end of file
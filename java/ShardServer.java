@@ -0,0 +1,319 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Classe ShardServer : un processus YouTubeAnalyzerSystem lancé avec --shard <port> devient
+// un shard. Ses registres ne contiennent que les vidéos (et leurs commentaires et résultats)
+// que le ShardCoordinator lui attribue ; les utilisateurs sont répliqués sur tous les shards.
+// Protocole texte sur TCP : une requête est une ligne « VERBE [argument] », suivie de n
+// lignes JSON pour INGEST et IMPORT ; la réponse est une suite d'objets JSON plats, un par
+// ligne, terminée par une ligne vide.
+//
+//   PING                      {"videos":n}
+//   INGEST <n>  + n lignes    enregistrements au format JSON lines de BatchIngestor
+//   IMPORT <n>  + n lignes    vidéo et commentaires complets (dates, likes, score) issus d'EXPORT
+//   EXPORT <videoId>          la vidéo puis ses commentaires
+//   DROP <videoId>            retire la vidéo, ses commentaires et son résultat
+//   KEYS                      un {"videoId":...} par vidéo du shard
+//   USERS                     les utilisateurs, au format d'INGEST
+//   DELETE_USER <userId>      suppression en cascade sur ce shard
+//   ANALYZE <videoId>         analyse, en cache tant que les commentaires ne changent pas
+//   STATS | CATEGORIES        totaux partiels, additionnés par le coordinateur
+class ShardServer {
+    private static final int BUFFER_SIZE = 1 << 16;
+    
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Thread acceptor;
+    private volatile boolean running = true;
+    
+    public ShardServer(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        AtomicInteger threadCount = new AtomicInteger();
+        connections = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "shard-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Pas démon : le processus du shard vit tant qu'il accepte des connexions
+        acceptor = new Thread(this::acceptLoop, "shard-acceptor");
+    }
+    
+    public void start() {
+        acceptor.start();
+    }
+    
+    public int getPort() { return serverSocket.getLocalPort(); }
+    
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Déjà fermé
+        }
+        connections.shutdownNow();
+    }
+    
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                // Requêtes courtes en aller-retour : Nagle retarderait chaque réponse
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) System.out.println("Shard accept failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void serve(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            StringBuilder response = new StringBuilder(256);
+            String request;
+            while ((request = in.readLine()) != null) {
+                response.setLength(0);
+                int space = request.indexOf(' ');
+                String verb = space < 0 ? request : request.substring(0, space);
+                String argument = space < 0 ? "" : request.substring(space + 1);
+                // Les lignes JSON sont lues avant tout traitement : une erreur ne désynchronise pas le flux
+                List<String> lines = verb.equals("INGEST") || verb.equals("IMPORT")
+                        ? readLines(in, argument) : Collections.emptyList();
+                try {
+                    handle(verb, argument, lines, response);
+                } catch (RuntimeException e) {
+                    response.setLength(0);
+                    error(response, verb + " failed: " + e);
+                }
+                out.write(response.append('\n').toString());
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Connexion fermée par le coordinateur
+        }
+    }
+    
+    private void handle(String verb, String argument, List<String> lines, StringBuilder response) {
+        Map<String, Video> videos = YouTubeAnalyzerSystem.getVideos();
+        switch (verb) {
+            case "PING":
+                response.append("{\"videos\":").append(videos.size()).append("}\n");
+                return;
+            case "INGEST":
+                ingest(lines, response);
+                return;
+            case "IMPORT":
+                importRecords(lines, response);
+                return;
+            case "EXPORT":
+                Video exported = videos.get(argument);
+                if (exported == null) {
+                    error(response, "Video not found: " + argument);
+                    return;
+                }
+                export(exported, response);
+                return;
+            case "DROP":
+                int dropped = YouTubeAnalyzerSystem.removeVideos(Collections.singletonList(argument));
+                response.append("{\"dropped\":").append(dropped).append("}\n");
+                return;
+            case "KEYS":
+                for (String videoId : videos.keySet()) {
+                    ReportEngine.json(response.append("{\"videoId\":"), videoId).append("}\n");
+                }
+                return;
+            case "USERS":
+                for (User user : YouTubeAnalyzerSystem.getUsers().values()) appendUser(user, response);
+                return;
+            case "DELETE_USER":
+                boolean deleted = YouTubeAnalyzerSystem.removeUser(argument);
+                response.append("{\"deleted\":").append(deleted).append("}\n");
+                return;
+            case "ANALYZE":
+                Video video = videos.get(argument);
+                if (video == null) {
+                    error(response, "Video not found: " + argument);
+                    return;
+                }
+                AnalysisResult result = YouTubeAnalyzerSystem.analyze(video);
+                ReportEngine.json(response.append("{\"videoId\":"), video.getVideoId());
+                response.append(",\"qualityScore\":").append(result.getQualityScore());
+                response.append(",\"comments\":").append(result.getTotalCommentsAnalyzed()).append(",\"recommendation\":");
+                ReportEngine.json(response, result.getRecommendation()).append("}\n");
+                return;
+            case "STATS":
+                stats(videos.values(), response);
+                return;
+            case "CATEGORIES":
+                categories(videos.values(), response);
+                return;
+            default:
+                error(response, "Unknown command: " + verb);
+        }
+    }
+    
+    private static void ingest(List<String> lines, StringBuilder response) {
+        BatchIngestor ingestor = new BatchIngestor(false);
+        try {
+            ingestor.ingest(new BufferedReader(new StringReader(String.join("\n", lines))), "batch", true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        response.append("{\"ingested\":").append(ingestor.getRowsIngested());
+        response.append(",\"rejected\":").append(ingestor.getRowsRejected());
+        if (!ingestor.getErrors().isEmpty()) {
+            ReportEngine.json(response.append(",\"firstError\":"), ingestor.getErrors().get(0));
+        }
+        response.append("}\n");
+    }
+    
+    // Rechargement fidèle, comme depuis une image disque : le score n'est pas recalculé
+    private static void importRecords(List<String> lines, StringBuilder response) {
+        BatchIngestor parser = new BatchIngestor(false);
+        long imported = 0;
+        long rejected = 0;
+        for (String line : lines) {
+            Map<String, String> record = parser.parseJson(line);
+            boolean accepted;
+            try {
+                accepted = record != null && importRecord(record);
+            } catch (RuntimeException e) {
+                // Champ manquant ou illisible
+                accepted = false;
+            }
+            if (accepted) {
+                imported++;
+            } else {
+                rejected++;
+            }
+        }
+        response.append("{\"imported\":").append(imported).append(",\"rejected\":").append(rejected).append("}\n");
+    }
+    
+    private static boolean importRecord(Map<String, String> record) {
+        switch (record.getOrDefault("type", "")) {
+            case "video":
+                Video video = YouTubeAnalyzerSystem.registerVideo(
+                        record.get("creatorId"), record.get("videoId"), record.get("title"), record.get("url"),
+                        Integer.parseInt(record.get("duration")), record.get("category"),
+                        LocalDateTime.parse(record.get("uploadDate")));
+                if (video == null) return false;
+                video.restoreViews(Long.parseLong(record.get("views")));
+                return true;
+            case "comment":
+                User author = YouTubeAnalyzerSystem.getUsers().get(record.get("authorId"));
+                if (author == null) return false;
+                Comment comment = new Comment(record.get("commentId"), record.get("content"), author);
+                comment.restoreState(LocalDateTime.parse(record.get("postDate")),
+                                     Long.parseLong(record.get("likes")), Long.parseLong(record.get("dislikes")));
+                return YouTubeAnalyzerSystem.importComment(record.get("videoId"), comment,
+                                                           Double.parseDouble(record.get("sentiment")));
+            default:
+                return false;
+        }
+    }
+    
+    private static void export(Video video, StringBuilder response) {
+        response.append("{\"type\":\"video\",\"creatorId\":");
+        ReportEngine.json(response, video.getCreatorId()).append(",\"videoId\":");
+        ReportEngine.json(response, video.getVideoId()).append(",\"title\":");
+        ReportEngine.json(response, video.getTitle()).append(",\"url\":");
+        ReportEngine.json(response, video.getUrl()).append(",\"duration\":").append(video.getDuration());
+        ReportEngine.json(response.append(",\"category\":"), video.getCategory() == null ? "" : video.getCategory());
+        response.append(",\"views\":").append(video.getViewCount());
+        response.append(",\"uploadDate\":\"").append(video.getUploadDate()).append("\"}\n");
+        for (Comment comment : video.getComments()) {
+            response.append("{\"type\":\"comment\",\"videoId\":");
+            ReportEngine.json(response, video.getVideoId()).append(",\"authorId\":");
+            ReportEngine.json(response, comment.getAuthor().getId()).append(",\"commentId\":");
+            ReportEngine.json(response, comment.getCommentId()).append(",\"content\":");
+            ReportEngine.json(response, comment.getContent());
+            response.append(",\"postDate\":\"").append(comment.getPostDate()).append('"');
+            response.append(",\"likes\":").append(comment.getLikesCount());
+            response.append(",\"dislikes\":").append(comment.getDislikesCount());
+            response.append(",\"sentiment\":").append(comment.getSentimentScore()).append("}\n");
+        }
+    }
+    
+    private static void appendUser(User user, StringBuilder response) {
+        String kind = user instanceof VideoCreator ? "creator" : user instanceof Viewer ? "viewer" : "user";
+        response.append("{\"type\":\"user\",\"kind\":\"").append(kind).append("\",\"userId\":");
+        ReportEngine.json(response, user.getId()).append(",\"username\":");
+        ReportEngine.json(response, user.getUsername()).append(",\"email\":");
+        ReportEngine.json(response, user.getEmail()).append("}\n");
+    }
+    
+    // Sommes et non moyennes : le coordinateur les additionne avant de diviser
+    private static void stats(Collection<Video> videos, StringBuilder response) {
+        long videoCount = 0;
+        long comments = 0;
+        long views = 0;
+        double sentimentSum = 0;
+        for (Video video : videos) {
+            SentimentAggregate aggregate = video.getAggregate();
+            synchronized (aggregate) {
+                comments += aggregate.getCount();
+                sentimentSum += aggregate.getSentimentSum();
+            }
+            views += video.getViewCount();
+            videoCount++;
+        }
+        response.append("{\"users\":").append(YouTubeAnalyzerSystem.getUsers().size());
+        response.append(",\"videos\":").append(videoCount).append(",\"comments\":").append(comments);
+        response.append(",\"views\":").append(views).append(",\"sentimentSum\":").append(sentimentSum).append("}\n");
+    }
+    
+    private static void categories(Collection<Video> videos, StringBuilder response) {
+        // {vidéos, vues, commentaires} et somme des sentiments par catégorie
+        Map<String, long[]> counts = new TreeMap<>();
+        Map<String, double[]> sentiments = new HashMap<>();
+        for (Video video : videos) {
+            String category = video.getCategory() == null ? "" : video.getCategory();
+            long[] count = counts.computeIfAbsent(category, key -> new long[3]);
+            double[] sentiment = sentiments.computeIfAbsent(category, key -> new double[1]);
+            SentimentAggregate aggregate = video.getAggregate();
+            synchronized (aggregate) {
+                count[2] += aggregate.getCount();
+                sentiment[0] += aggregate.getSentimentSum();
+            }
+            count[0]++;
+            count[1] += video.getViewCount();
+        }
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            long[] count = entry.getValue();
+            ReportEngine.json(response.append("{\"category\":"), entry.getKey());
+            response.append(",\"videos\":").append(count[0]).append(",\"views\":").append(count[1]);
+            response.append(",\"comments\":").append(count[2]);
+            response.append(",\"sentimentSum\":").append(sentiments.get(entry.getKey())[0]).append("}\n");
+        }
+    }
+    
+    private static List<String> readLines(BufferedReader in, String count) throws IOException {
+        int expected = Integer.parseInt(count.trim());
+        List<String> lines = new ArrayList<>(expected);
+        for (int i = 0; i < expected; i++) {
+            String line = in.readLine();
+            if (line == null) throw new EOFException("Connection closed after " + i + " of " + expected + " lines");
+            lines.add(line);
+        }
+        return lines;
+    }
+    
+    private static void error(StringBuilder response, String message) {
+        ReportEngine.json(response.append("{\"error\":"), message).append("}\n");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Classe SketchRegistry : statistiques globales approximatives, tenues au fil de l'ingestion
+// au lieu d'un parcours de tous les commentaires. Par catégorie : auteurs distincts
+// (HyperLogLog), longueur et sentiment des commentaires (KllSketch) ; par créateur : auteurs
+// distincts. Les chiffres toutes catégories confondues fusionnent les sketches des catégories.
+// Taille fixe par clé (quelques Ko) quel que soit le nombre de commentaires.
+// Les sketches ne savent qu'ajouter : suppressions et modifications n'y sont pas reportées ;
+// seul un changement de stratégie d'analyse reconstruit les sketches de sentiment.
+class SketchRegistry {
+    public static final String UNCATEGORIZED = "(uncategorized)";
+    private static final int CHUNK_SIZE = 256;
+    
+    // Sketches d'une catégorie, ou de leur réunion
+    static final class CategorySketches {
+        final HyperLogLog authors = new HyperLogLog();
+        final KllSketch lengths = new KllSketch();
+        volatile KllSketch sentiments = new KllSketch();
+        
+        void merge(CategorySketches other) {
+            authors.merge(other.authors);
+            lengths.merge(other.lengths);
+            sentiments.merge(other.sentiments);
+        }
+    }
+    
+    private final ConcurrentHashMap<String, CategorySketches> categories = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, HyperLogLog> creators = new ConcurrentHashMap<>();
+    // Scores de qualité des vidéos au dernier passage complet, remplacés d'un bloc
+    private volatile Map<String, KllSketch> videoScores = Collections.emptyMap();
+    private volatile KllSketch allVideoScores = new KllSketch();
+    
+    public void commentAdded(Video video, long authorHash, int length, double sentiment) {
+        String category = video.getCategory();
+        CategorySketches sketches = categories.computeIfAbsent(category == null ? UNCATEGORIZED : category,
+                                                               key -> new CategorySketches());
+        sketches.authors.add(authorHash);
+        sketches.lengths.update(length);
+        sketches.sentiments.update(sentiment);
+        String creatorId = video.getCreatorId();
+        if (creatorId != null) creators.computeIfAbsent(creatorId, key -> new HyperLogLog()).add(authorHash);
+    }
+    
+    public Set<String> getCategories() {
+        return new TreeSet<>(categories.keySet());
+    }
+    
+    // null si la catégorie n'a encore aucun commentaire
+    public CategorySketches getCategory(String category) {
+        return categories.get(category);
+    }
+    
+    // Réunion des catégories : une fusion par catégorie, indépendante du volume de données
+    public CategorySketches getGlobal() {
+        CategorySketches global = new CategorySketches();
+        for (CategorySketches sketches : categories.values()) global.merge(sketches);
+        return global;
+    }
+    
+    // Auteurs distincts ayant commenté les vidéos d'un créateur (0 si aucun)
+    public long getCreatorAuthors(String creatorId) {
+        HyperLogLog authors = creators.get(creatorId);
+        return authors == null ? 0 : authors.estimate();
+    }
+    
+    public KllSketch getVideoScores(String category) {
+        return videoScores.get(category);
+    }
+    
+    public KllSketch getAllVideoScores() {
+        return allVideoScores;
+    }
+    
+    // Les scores changent à chaque commentaire : ils sont relevés après un passage d'analyse
+    // complet. Chaque paquet de vidéos remplit ses propres sketches, fusionnés ensuite.
+    public int rebuildVideoScores(Collection<Video> videos) {
+        List<Video> all = new ArrayList<>(videos);
+        List<Future<Map<String, KllSketch>>> partials = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            List<Video> chunk = all.subList(from, Math.min(all.size(), from + CHUNK_SIZE));
+            partials.add(ForkJoinPool.commonPool().submit(() -> scoreChunk(chunk)));
+        }
+        Map<String, KllSketch> merged = new HashMap<>();
+        KllSketch overall = new KllSketch();
+        try {
+            for (Future<Map<String, KllSketch>> partial : partials) {
+                for (Map.Entry<String, KllSketch> entry : partial.get().entrySet()) {
+                    merged.computeIfAbsent(entry.getKey(), key -> new KllSketch()).merge(entry.getValue());
+                    overall.merge(entry.getValue());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not rebuild score sketches", e.getCause());
+        }
+        videoScores = Collections.unmodifiableMap(merged);
+        allVideoScores = overall;
+        return (int) overall.getCount();
+    }
+    
+    // Sentiments relus dans les commentaires stockés, après un rescore de toutes les vidéos
+    public void rebuildSentiments(Collection<Video> videos) {
+        Map<String, KllSketch> rebuilt = new HashMap<>();
+        for (Video video : videos) {
+            String category = video.getCategory();
+            KllSketch sketch = rebuilt.computeIfAbsent(category == null ? UNCATEGORIZED : category, key -> new KllSketch());
+            ColumnarCommentStore columns = video.getColumnarStore();
+            if (columns != null) {
+                for (int row = 0, size = columns.size(); row < size; row++) {
+                    if (!columns.isDeleted(row)) sketch.update(columns.getSentiment(row));
+                }
+            } else {
+                for (Comment comment : video.getComments()) sketch.update(comment.getSentimentScore());
+            }
+        }
+        for (Map.Entry<String, CategorySketches> entry : categories.entrySet()) {
+            KllSketch sketch = rebuilt.get(entry.getKey());
+            entry.getValue().sentiments = sketch != null ? sketch : new KllSketch();
+        }
+    }
+    
+    // Mémoire occupée par les registres HyperLogLog (les KllSketch sont bornés à environ 3k valeurs)
+    public long getHyperLogLogBytes() {
+        long bytes = 0;
+        for (CategorySketches sketches : categories.values()) bytes += sketches.authors.getHeapBytes();
+        for (HyperLogLog authors : creators.values()) bytes += authors.getHeapBytes();
+        return bytes;
+    }
+    
+    public int getCreatorCount() { return creators.size(); }
+    
+    private static Map<String, KllSketch> scoreChunk(List<Video> chunk) {
+        Map<String, KllSketch> scores = new HashMap<>();
+        for (Video video : chunk) {
+            if (video.getCommentCount() == 0) continue;
+            String category = video.getCategory();
+            scores.computeIfAbsent(category == null ? UNCATEGORIZED : category, key -> new KllSketch())
+                  .update(YouTubeAnalyzerSystem.qualityScore(video));
+        }
+        return scores;
+    }
+}
\ No newline at end of file
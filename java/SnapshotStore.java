@@ -0,0 +1,534 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+// Classe SnapshotStore : persistance binaire des registres.
+// snapshot.bin : image complète (en-tête, puis sections préfixées par leur nombre
+// d'éléments, chaînes préfixées par leur longueur en UTF-8), relue par mmap.
+// Une chaîne absente (null) est écrite avec la longueur -1.
+// wal.log : journal des modifications depuis la dernière image, chaque
+// enregistrement étant [longueur][CRC32][type][données]. Un enregistrement
+// tronqué par un crash est ignoré et coupé au redémarrage.
+// Les résultats d'analyse, recalculables, ne sont pas journalisés (seulement gardés dans
+// l'image). Dès que le journal dépasse walLimit octets, une image est prise en arrière-plan :
+// le temps de redémarrage reste borné par la taille de l'image, pas par l'historique.
+class SnapshotStore {
+    private static final int MAGIC = 0x59544153;
+    // Version 2 : historiques de visionnage en fin d'image ; version 3 : méthode d'analyse avec
+    // laquelle les scores de l'image ont été calculés. Les versions précédentes restent lisibles.
+    private static final int VERSION = 3;
+    
+    static final byte USER = 1;
+    static final byte VIDEO = 2;
+    static final byte COMMENT = 3;
+    static final byte RESULT = 4;
+    static final byte DELETE_USER = 5;
+    static final byte DELETE_VIDEO = 6;
+    static final byte WATCH = 7;
+    static final byte ANALYSIS_METHOD = 8;
+    static final byte EDIT_COMMENT = 9;
+    static final byte DELETE_COMMENT = 10;
+    
+    public static final long DEFAULT_WAL_LIMIT = 64L << 20;
+    
+    private final Path snapshotFile;
+    private final Path walFile;
+    private final boolean syncWrites;
+    private final long walLimit;
+    // Pris en partage par chaque modification des registres avec son enregistrement au
+    // journal, en exclusif par saveSnapshot : une image ne tombe jamais entre les deux
+    // (la modification serait dans l'image et rejouée une seconde fois depuis le journal)
+    private final ReentrantReadWriteLock mutations = new ReentrantReadWriteLock();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "snapshotter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel wal;
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+    
+    // syncWrites : force chaque enregistrement sur disque (survit à une coupure de courant)
+    public SnapshotStore(String directory, boolean syncWrites) throws IOException {
+        this(directory, syncWrites, DEFAULT_WAL_LIMIT);
+    }
+    
+    // walLimit : taille du journal au-delà de laquelle une image est prise automatiquement
+    public SnapshotStore(String directory, boolean syncWrites, long walLimit) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        this.snapshotFile = dir.resolve("snapshot.bin");
+        this.walFile = dir.resolve("wal.log");
+        this.syncWrites = syncWrites;
+        this.walLimit = walLimit;
+    }
+    
+    // Autour d'une modification des registres et de son appel log...()
+    public void beginMutation() { mutations.readLock().lock(); }
+    public void endMutation() { mutations.readLock().unlock(); }
+    
+    // Recharge l'image puis rejoue le journal ; retourne le nombre d'enregistrements rejoués
+    public synchronized int load() throws IOException {
+        if (Files.exists(snapshotFile)) {
+            try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+                readSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+        int replayed = 0;
+        long validLength = 0;
+        if (Files.exists(walFile)) {
+            try (FileChannel channel = FileChannel.open(walFile, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.remaining() >= 8) {
+                    int length = buffer.getInt();
+                    int checksum = buffer.getInt();
+                    if (length <= 0 || length > buffer.remaining()) break;
+                    byte[] payload = new byte[length];
+                    buffer.get(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) break;
+                    applyRecord(ByteBuffer.wrap(payload));
+                    replayed++;
+                    validLength = buffer.position();
+                }
+            }
+        }
+        wal = FileChannel.open(walFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        wal.truncate(validLength);
+        wal.position(validLength);
+        if (validLength >= walLimit) scheduleSnapshot();
+        return replayed;
+    }
+    
+    // Écrit une nouvelle image complète puis vide le journal. Les modifications attendent
+    // la fin de l'écriture ; les lectures continuent.
+    public void saveSnapshot() throws IOException {
+        mutations.writeLock().lock();
+        try {
+            writeSnapshot();
+        } finally {
+            mutations.writeLock().unlock();
+        }
+    }
+    
+    // Image forcée sur disque, renommée, dossier forcé à son tour : le journal n'est vidé
+    // qu'une fois la nouvelle image durable
+    private synchronized void writeSnapshot() throws IOException {
+        Path temp = snapshotFile.resolveSibling("snapshot.bin.tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            
+            Collection<User> users = new ArrayList<>(YouTubeAnalyzerSystem.getUsers().values());
+            out.writeInt(users.size());
+            for (User user : users) {
+                writeUser(out, user);
+            }
+            
+            Collection<Video> videos = new ArrayList<>(YouTubeAnalyzerSystem.getVideos().values());
+            out.writeInt(videos.size());
+            for (Video video : videos) {
+                writeVideo(out, video);
+                List<Comment> comments = video.getComments();
+                out.writeInt(comments.size());
+                for (Comment comment : comments) {
+                    writeComment(out, comment);
+                    out.writeDouble(comment.getSentimentScore());
+                }
+            }
+            
+            Map<String, AnalysisResult> results = YouTubeAnalyzerSystem.getResults();
+            out.writeInt(results.size());
+            for (Map.Entry<String, AnalysisResult> entry : results.entrySet()) {
+                writeString(out, entry.getKey());
+                writeResult(out, entry.getValue());
+            }
+            
+            List<Viewer> watchers = new ArrayList<>();
+            for (Viewer viewer : YouTubeAnalyzerSystem.getViewers()) {
+                if (viewer.getWatchCount() > 0) watchers.add(viewer);
+            }
+            out.writeInt(watchers.size());
+            for (Viewer viewer : watchers) {
+                writeString(out, viewer.getId());
+                viewer.getWatchHistory().write(out, YouTubeAnalyzerSystem.getCategorySymbols());
+            }
+            
+            writeString(out, YouTubeAnalyzerSystem.getAnalysisMethod());
+            writeString(out, YouTubeAnalyzerSystem.getLexiconPath());
+            out.flush();
+            channel.force(true);
+        }
+        if (wal != null) wal.force(true);
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(snapshotFile.getParent());
+        if (wal != null) {
+            wal.truncate(0);
+            wal.position(0);
+        }
+    }
+    
+    public synchronized void close() throws IOException {
+        snapshotter.shutdown();
+        if (wal != null) {
+            wal.force(true);
+            wal.close();
+            wal = null;
+        }
+    }
+    
+    public synchronized void logUser(User user) {
+        try {
+            beginRecord(USER);
+            writeUser(record, user);
+            commitRecord();
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+    
+    public synchronized void logVideo(Video video) {
+        try {
+            beginRecord(VIDEO);
+            writeVideo(record, video);
+            commitRecord();
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+    
+    public synchronized void logComment(String videoId, Comment comment) {
+        try {
+            beginRecord(COMMENT);
+            writeString(record, videoId);
+            writeComment(record, comment);
+            record.writeDouble(comment.getSentimentScore());
+            commitRecord();
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+    
+    public synchronized void logWatch(String viewerId, String videoId, LocalDateTime watchedAt) {
+        try {
+            beginRecord(WATCH);
+            writeString(record, viewerId);
+            writeString(record, videoId);
+            writeDate(record, watchedAt);
+            commitRecord();
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+    
+    public synchronized void logAnalysisMethod(String method, String lexiconPath) {
+        try {
+            beginRecord(ANALYSIS_METHOD);
+            writeString(record, method);
+            writeString(record, lexiconPath);
+            commitRecord();
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+    
+    // Nouveau texte seulement : le score est recalculé au rejeu avec la stratégie du moment
+    public synchronized void logEditComment(String videoId, String commentId, String content) {
+        try {
+            beginRecord(EDIT_COMMENT);
+            writeString(record, videoId);
+            writeString(record, commentId);
+            writeString(record, content);
+            commitRecord();
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+    
+    public synchronized void logDeleteComment(String videoId, String commentId) {
+        try {
+            beginRecord(DELETE_COMMENT);
+            writeString(record, videoId);
+            writeString(record, commentId);
+            commitRecord();
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+    
+    public synchronized void logDelete(byte type, String id) {
+        try {
+            beginRecord(type);
+            writeString(record, id);
+            commitRecord();
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+    
+    private void beginRecord(byte type) throws IOException {
+        recordBytes.reset();
+        record.writeByte(type);
+    }
+    
+    private void commitRecord() throws IOException {
+        if (wal == null) return;
+        byte[] payload = recordBytes.toByteArray();
+        crc.reset();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (buffer.hasRemaining()) {
+            wal.write(buffer);
+        }
+        if (syncWrites) wal.force(false);
+        if (wal.position() >= walLimit) scheduleSnapshot();
+    }
+    
+    // Image en arrière-plan, une seule à la fois ; hors de commitRecord, qui tient le verrou partagé
+    private void scheduleSnapshot() {
+        if (!snapshotScheduled.compareAndSet(false, true)) return;
+        try {
+            snapshotter.execute(() -> {
+                try {
+                    saveSnapshot();
+                } catch (IOException e) {
+                    System.out.println("Automatic snapshot failed: " + e.getMessage());
+                } finally {
+                    snapshotScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Store fermé : l'image de fermeture suffit
+            snapshotScheduled.set(false);
+        }
+    }
+    
+    // Rend le renommage durable ; un dossier ne s'ouvre pas partout (Windows), le renommage y est déjà journalisé
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Système de fichiers qui ne le permet pas
+        }
+    }
+    
+    private static void reportFailure(IOException e) {
+        System.out.println("Write-ahead log error: " + e.getMessage());
+    }
+    
+    private void readSnapshot(ByteBuffer in) throws IOException {
+        if (in.remaining() < 8 || in.getInt() != MAGIC) throw new IOException("Not a snapshot file: " + snapshotFile);
+        int version = in.getInt();
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version " + version);
+        
+        int userCount = in.getInt();
+        for (int i = 0; i < userCount; i++) {
+            readUser(in);
+        }
+        int videoCount = in.getInt();
+        for (int i = 0; i < videoCount; i++) {
+            Video video = readVideo(in);
+            int commentCount = in.getInt();
+            for (int c = 0; c < commentCount; c++) {
+                Comment comment = readComment(in);
+                double sentiment = in.getDouble();
+                if (video != null && comment != null) {
+                    YouTubeAnalyzerSystem.restoreComment(video.getVideoId(), comment, sentiment);
+                }
+            }
+        }
+        int resultCount = in.getInt();
+        for (int i = 0; i < resultCount; i++) {
+            String videoId = readString(in);
+            YouTubeAnalyzerSystem.restoreResult(videoId, readResult(in));
+        }
+        if (version < 2) return;
+        int watcherCount = in.getInt();
+        Map<String, User> users = YouTubeAnalyzerSystem.getUsers();
+        for (int i = 0; i < watcherCount; i++) {
+            User user = users.get(readString(in));
+            // Relue même sans spectateur pour avancer dans l'image
+            WatchHistory history = user instanceof Viewer ? ((Viewer) user).getWatchHistory() : new WatchHistory();
+            history.read(in, YouTubeAnalyzerSystem.getCategorySymbols());
+        }
+        if (version < 3) return;
+        String method = readString(in);
+        YouTubeAnalyzerSystem.restoreAnalysisMethod(method, readString(in));
+    }
+    
+    private void applyRecord(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        switch (type) {
+            case USER:
+                readUser(in);
+                break;
+            case VIDEO:
+                readVideo(in);
+                break;
+            case COMMENT:
+                String videoId = readString(in);
+                Comment comment = readComment(in);
+                double sentiment = in.getDouble();
+                if (comment != null) YouTubeAnalyzerSystem.restoreComment(videoId, comment, sentiment);
+                break;
+            case RESULT:
+                // Journaux d'avant l'arrêt de la journalisation des résultats
+                String resultVideoId = readString(in);
+                YouTubeAnalyzerSystem.restoreResult(resultVideoId, readResult(in));
+                break;
+            case DELETE_USER:
+                YouTubeAnalyzerSystem.removeUser(readString(in));
+                break;
+            case DELETE_VIDEO:
+                YouTubeAnalyzerSystem.removeVideo(readString(in));
+                break;
+            case WATCH:
+                String viewerId = readString(in);
+                String watchedVideoId = readString(in);
+                YouTubeAnalyzerSystem.restoreWatch(viewerId, watchedVideoId, readDate(in));
+                break;
+            case ANALYSIS_METHOD:
+                // Rejoué comme en direct : les commentaires déjà relus sont réévalués
+                String method = readString(in);
+                YouTubeAnalyzerSystem.setAnalysisMethod(method, readString(in));
+                break;
+            case EDIT_COMMENT:
+                String editedVideoId = readString(in);
+                String editedId = readString(in);
+                YouTubeAnalyzerSystem.editComment(editedVideoId, editedId, readString(in));
+                break;
+            case DELETE_COMMENT:
+                String commentVideoId = readString(in);
+                YouTubeAnalyzerSystem.removeComment(commentVideoId, readString(in));
+                break;
+            default:
+                System.out.println("Ignoring unknown log record type " + type);
+        }
+    }
+    
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        String kind = user instanceof VideoCreator ? "creator" : user instanceof Viewer ? "viewer" : "user";
+        writeString(out, kind);
+        writeString(out, user.getId());
+        writeString(out, user.getUsername());
+        writeString(out, user.getEmail());
+        writeDate(out, user.getRegistrationDate());
+    }
+    
+    private static User readUser(ByteBuffer in) {
+        String kind = readString(in);
+        User user = YouTubeAnalyzerSystem.registerUser(kind, readString(in), readString(in), readString(in));
+        LocalDateTime registrationDate = readDate(in);
+        if (user != null) user.setRegistrationDate(registrationDate);
+        return user;
+    }
+    
+    private static void writeVideo(DataOutputStream out, Video video) throws IOException {
+        writeString(out, video.getCreatorId() == null ? "" : video.getCreatorId());
+        writeString(out, video.getVideoId());
+        writeString(out, video.getTitle());
+        writeString(out, video.getUrl());
+        out.writeInt(video.getDuration());
+        writeString(out, video.getCategory());
+        out.writeLong(video.getViewCount());
+        writeDate(out, video.getUploadDate());
+    }
+    
+    private static Video readVideo(ByteBuffer in) {
+        String creatorId = readString(in);
+        String videoId = readString(in);
+        String title = readString(in);
+        String url = readString(in);
+        int duration = in.getInt();
+        String category = readString(in);
+        long views = in.getLong();
+        LocalDateTime uploadDate = readDate(in);
+        Video video = YouTubeAnalyzerSystem.registerVideo(creatorId, videoId, title, url, duration, category, uploadDate);
+        if (video != null) video.restoreViews(views);
+        return video;
+    }
+    
+    private static void writeComment(DataOutputStream out, Comment comment) throws IOException {
+        writeString(out, comment.getAuthor().getId());
+        writeString(out, comment.getCommentId());
+        writeString(out, comment.getContent());
+        writeDate(out, comment.getPostDate());
+        out.writeLong(comment.getLikesCount());
+        out.writeLong(comment.getDislikesCount());
+    }
+    
+    // Retourne null si l'auteur n'existe plus
+    private static Comment readComment(ByteBuffer in) {
+        User author = YouTubeAnalyzerSystem.getUsers().get(readString(in));
+        String commentId = readString(in);
+        String content = readString(in);
+        LocalDateTime postDate = readDate(in);
+        long likes = in.getLong();
+        long dislikes = in.getLong();
+        if (author == null) return null;
+        Comment comment = new Comment(commentId, content, author);
+        comment.restoreState(postDate, likes, dislikes);
+        return comment;
+    }
+    
+    private static void writeResult(DataOutputStream out, AnalysisResult result) throws IOException {
+        writeString(out, result.getResultId());
+        out.writeDouble(result.getQualityScore());
+        out.writeInt(result.getTotalCommentsAnalyzed());
+        writeDate(out, result.getAnalysisDate());
+    }
+    
+    private static AnalysisResult readResult(ByteBuffer in) {
+        String resultId = readString(in);
+        double qualityScore = in.getDouble();
+        int totalComments = in.getInt();
+        return new AnalysisResult(resultId, qualityScore, totalComments, readDate(in));
+    }
+    
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeDate(DataOutputStream out, LocalDateTime date) throws IOException {
+        out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(date.getNano());
+    }
+    
+    private static LocalDateTime readDate(ByteBuffer in) {
+        long seconds = in.getLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.getInt(), ZoneOffset.UTC);
+    }
+}
\ No newline at end of file
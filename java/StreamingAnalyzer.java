@@ -0,0 +1,283 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+// Classe StreamingAnalyzer : analyse d'un flux continu de commentaires par fenêtres
+// de temps (basées sur Comment.postDate). Une fenêtre glissante de taille T et de pas P
+// est découpée en T/P tranches agrégées (somme, nombre) : la mémoire reste bornée quel
+// que soit le volume. Fenêtre fixe (tumbling) quand T == P.
+//
+// Côté entrée c'est un Flow.Subscriber<Comment> qui ne demande de nouveaux éléments
+// qu'après les avoir traités ; côté sortie un Flow.Publisher<WindowResult> à tampon
+// borné : un consommateur lent bloque l'émission, donc la demande amont.
+// Les fenêtres terminées sont émises hors du moniteur, dans l'ordre (emitLock) : un
+// consommateur lent ne bloque pas les lectures de compteurs.
+//
+// Suivi en direct d'une vidéo : YouTubeAnalyzerSystem.startLiveAnalysis branche un
+// analyseur sur les commentaires qui arrivent, RecentWindows garde les dernières fenêtres
+// (GET /videos/{id}/live).
+class StreamingAnalyzer implements Flow.Subscriber<Comment>, Flow.Publisher<StreamingAnalyzer.WindowResult> {
+    public static final int DEFAULT_REQUEST_BATCH = 256;
+    
+    // Résultat d'une fenêtre [start, end)
+    static class WindowResult {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final AnalysisResult result;
+        private final int positiveCount;
+        private final int negativeCount;
+        
+        WindowResult(LocalDateTime start, LocalDateTime end, AnalysisResult result, int positiveCount, int negativeCount) {
+            this.start = start;
+            this.end = end;
+            this.result = result;
+            this.positiveCount = positiveCount;
+            this.negativeCount = negativeCount;
+        }
+        
+        public LocalDateTime getStart() { return start; }
+        public LocalDateTime getEnd() { return end; }
+        public AnalysisResult getResult() { return result; }
+        public int getPositiveCount() { return positiveCount; }
+        public int getNegativeCount() { return negativeCount; }
+        
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ") score " + result.getQualityScore() + "/10 over "
+                   + result.getTotalCommentsAnalyzed() + " comments";
+        }
+    }
+    
+    // Consommateur qui ne garde que les capacity dernières fenêtres émises
+    static class RecentWindows implements Flow.Subscriber<WindowResult> {
+        private final StreamingAnalyzer analyzer;
+        private final int capacity;
+        private final ArrayDeque<WindowResult> windows;
+        
+        RecentWindows(StreamingAnalyzer analyzer, int capacity) {
+            this.analyzer = analyzer;
+            this.capacity = capacity;
+            this.windows = new ArrayDeque<>(capacity);
+            analyzer.subscribe(this);
+        }
+        
+        public StreamingAnalyzer getAnalyzer() { return analyzer; }
+        
+        // Du plus ancien au plus récent
+        public synchronized List<WindowResult> getWindows() { return new ArrayList<>(windows); }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            // Traitement immédiat et mémoire bornée : aucune raison de freiner l'émission
+            subscription.request(Long.MAX_VALUE);
+        }
+        
+        @Override
+        public synchronized void onNext(WindowResult window) {
+            if (windows.size() == capacity) windows.removeFirst();
+            windows.addLast(window);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            // Les fenêtres déjà reçues restent lisibles
+        }
+        
+        @Override
+        public void onComplete() {
+            // Idem
+        }
+    }
+    
+    private final SentimentStrategy strategy;
+    private final long slideMillis;
+    private final int paneCount;
+    private final int requestBatch;
+    private final SubmissionPublisher<WindowResult> publisher;
+    // Fenêtres terminées sous le moniteur, pas encore passées au publisher
+    private final ArrayDeque<WindowResult> ready = new ArrayDeque<>();
+    private final Object emitLock = new Object();
+    
+    // Tranches circulaires : la tranche k est rangée en k % paneCount
+    private final double[] paneSums;
+    private final int[] paneCounts;
+    private final int[] panePositive;
+    private final int[] paneNegative;
+    private long currentPane = Long.MIN_VALUE;
+    
+    private Flow.Subscription subscription;
+    private int pendingRequests;
+    private long commentsProcessed;
+    private long lateComments;
+    
+    public StreamingAnalyzer(Duration windowSize) {
+        this(SentimentLexicon.getDefault(), windowSize, windowSize, Flow.defaultBufferSize(), ForkJoinPool.commonPool());
+    }
+    
+    public StreamingAnalyzer(Duration windowSize, Duration slide) {
+        this(SentimentLexicon.getDefault(), windowSize, slide, Flow.defaultBufferSize(), ForkJoinPool.commonPool());
+    }
+    
+    // bufferCapacity : nombre maximal de fenêtres en attente par consommateur
+    public StreamingAnalyzer(SentimentStrategy strategy, Duration windowSize, Duration slide, int bufferCapacity, Executor executor) {
+        long sizeMillis = windowSize.toMillis();
+        this.slideMillis = slide.toMillis();
+        if (slideMillis <= 0 || sizeMillis < slideMillis || sizeMillis % slideMillis != 0) {
+            throw new IllegalArgumentException("Window size must be a positive multiple of the slide");
+        }
+        this.strategy = strategy;
+        this.paneCount = (int) (sizeMillis / slideMillis);
+        this.requestBatch = DEFAULT_REQUEST_BATCH;
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.paneSums = new double[paneCount];
+        this.paneCounts = new int[paneCount];
+        this.panePositive = new int[paneCount];
+        this.paneNegative = new int[paneCount];
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super WindowResult> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+    
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        pendingRequests = requestBatch;
+        subscription.request(requestBatch);
+    }
+    
+    @Override
+    public void onNext(Comment comment) {
+        accept(comment);
+        // Redemande par lots, une fois la moitié du lot consommée
+        if (--pendingRequests <= requestBatch / 2 && subscription != null) {
+            subscription.request(requestBatch - pendingRequests);
+            pendingRequests = requestBatch;
+        }
+    }
+    
+    @Override
+    public void onError(Throwable throwable) {
+        publisher.closeExceptionally(throwable);
+    }
+    
+    @Override
+    public void onComplete() {
+        close();
+    }
+    
+    // Point d'entrée direct, sans Flow : traite un commentaire et émet les fenêtres terminées
+    public void accept(Comment comment) {
+        accept(comment.getPostDate(), strategy.score(comment.getContent()));
+    }
+    
+    // Commentaire déjà évalué (ajout à une vidéo suivie en direct)
+    public void accept(LocalDateTime postDate, double sentiment) {
+        record(postDate, sentiment);
+        emitReady();
+    }
+    
+    // Émet les fenêtres encore ouvertes qui contiennent des commentaires
+    public void flush() {
+        synchronized (this) {
+            if (currentPane != Long.MIN_VALUE) {
+                advanceTo(currentPane + paneCount);
+                currentPane = Long.MIN_VALUE;
+            }
+        }
+        emitReady();
+    }
+    
+    // Fin du flux : dernières fenêtres émises, puis onComplete chez les consommateurs
+    public void close() {
+        flush();
+        publisher.close();
+    }
+    
+    private synchronized void record(LocalDateTime postDate, double sentiment) {
+        long time = postDate.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long pane = Math.floorDiv(time, slideMillis);
+        if (currentPane == Long.MIN_VALUE) {
+            currentPane = pane;
+        } else if (pane > currentPane) {
+            advanceTo(pane);
+        } else if (pane <= currentPane - paneCount) {
+            // Trop ancien : toutes les fenêtres qui le contenaient sont déjà émises
+            lateComments++;
+            return;
+        }
+        
+        int slot = (int) Math.floorMod(pane, (long) paneCount);
+        paneSums[slot] += sentiment;
+        paneCounts[slot]++;
+        if (sentiment > 0) panePositive[slot]++;
+        else if (sentiment < 0) paneNegative[slot]++;
+        commentsProcessed++;
+    }
+    
+    public synchronized long getCommentsProcessed() { return commentsProcessed; }
+    public synchronized long getLateComments() { return lateComments; }
+    
+    // Nombre de fenêtres en attente chez le consommateur le plus lent
+    public int getEstimatedLag() { return publisher.estimateMaximumLag(); }
+    
+    // Hors du moniteur ; submit bloque si le tampon d'un consommateur est plein, ce qui
+    // freine l'appelant (contre-pression vers l'amont). Un seul émetteur à la fois : les
+    // fenêtres sortent dans l'ordre où elles ont été fermées.
+    private void emitReady() {
+        synchronized (emitLock) {
+            WindowResult window;
+            while ((window = nextReady()) != null) publisher.submit(window);
+        }
+    }
+    
+    private synchronized WindowResult nextReady() {
+        return ready.poll();
+    }
+    
+    // Ferme chaque tranche dépassée : la fenêtre qui se termine avec elle est émise,
+    // puis la tranche qui sort de toutes les fenêtres est remise à zéro
+    private void advanceTo(long pane) {
+        long target = Math.min(pane, currentPane + paneCount);
+        while (currentPane < target) {
+            emitWindowEndingAt(currentPane);
+            currentPane++;
+            int slot = (int) Math.floorMod(currentPane, (long) paneCount);
+            paneSums[slot] = 0.0;
+            paneCounts[slot] = 0;
+            panePositive[slot] = 0;
+            paneNegative[slot] = 0;
+        }
+        // Après paneCount tranches vides toutes les fenêtres sont vides : saut direct
+        currentPane = Math.max(currentPane, pane);
+    }
+    
+    private void emitWindowEndingAt(long lastPane) {
+        double sum = 0.0;
+        int count = 0;
+        int positive = 0;
+        int negative = 0;
+        for (int i = 0; i < paneCount; i++) {
+            sum += paneSums[i];
+            count += paneCounts[i];
+            positive += panePositive[i];
+            negative += paneNegative[i];
+        }
+        if (count == 0) return;
+        
+        LocalDateTime start = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC)
+                                           .plus(Duration.ofMillis((lastPane - paneCount + 1) * slideMillis));
+        LocalDateTime end = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC)
+                                         .plus(Duration.ofMillis((lastPane + 1) * slideMillis));
+        AnalysisResult result = new AnalysisResult(Analyzer.toQualityScore(sum, count), count);
+        ready.add(new WindowResult(start, end, result, positive, negative));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Classe SymbolTable : associe chaque identifiant texte (utilisateur, vidéo, catégorie...)
+// à un entier dense 0, 1, 2... attribué à la première rencontre, et garde une seule
+// instance String par identifiant pour l'affichage. Table à adressage ouvert : la
+// lecture se fait sans verrou, seule l'insertion d'un nouveau symbole est synchronisée.
+class SymbolTable {
+    private static final int INITIAL_CAPACITY = 64;
+    
+    // Tableaux remplacés ensemble à l'agrandissement
+    private static final class State {
+        // Clé de la case, null si vide ; publiée (écriture volatile) après son id
+        final AtomicReferenceArray<String> keys;
+        final int[] ids;
+        final String[] names;
+        final int mask;
+        
+        State(int capacity) {
+            this.keys = new AtomicReferenceArray<>(capacity);
+            this.ids = new int[capacity];
+            this.names = new String[capacity / 2];
+            this.mask = capacity - 1;
+        }
+    }
+    
+    private final String name;
+    private volatile State state = new State(INITIAL_CAPACITY);
+    private volatile int size;
+    
+    public SymbolTable(String name) {
+        this.name = name;
+    }
+    
+    public String getName() { return name; }
+    public int size() { return size; }
+    
+    // Id du symbole, créé s'il est inconnu
+    public int intern(String symbol) {
+        int id = find(state, symbol);
+        if (id >= 0) return id;
+        synchronized (this) {
+            State current = state;
+            id = find(current, symbol);
+            if (id >= 0) return id;
+            if (size == current.names.length) {
+                current = rehash(current);
+            }
+            id = size;
+            current.names[id] = symbol;
+            insert(current, symbol, id);
+            size = id + 1;
+            return id;
+        }
+    }
+    
+    // Id du symbole, -1 s'il n'a jamais été rencontré ; n'insère rien
+    public int lookup(String symbol) {
+        while (true) {
+            State current = state;
+            int id = find(current, symbol);
+            // Un échec n'est sûr que si la table n'a pas été agrandie entre-temps
+            if (id >= 0 || current == state) return id;
+        }
+    }
+    
+    // Instance canonique du symbole, à conserver à la place des copies
+    public String canonical(String symbol) {
+        return symbol == null ? null : nameOf(intern(symbol));
+    }
+    
+    public String nameOf(int id) {
+        State current = state;
+        if (id < 0 || id >= size) throw new IllegalArgumentException("Unknown " + name + " id " + id);
+        String symbol = current.names.length > id ? current.names[id] : null;
+        if (symbol != null) return symbol;
+        synchronized (this) {
+            return state.names[id];
+        }
+    }
+    
+    // Le hash, mis en cache dans chaque String, est comparé avant le contenu
+    private static int find(State current, String symbol) {
+        int hash = symbol.hashCode();
+        int slot = spread(hash) & current.mask;
+        while (true) {
+            String candidate = current.keys.get(slot);
+            if (candidate == null) return -1;
+            if (candidate == symbol || (candidate.hashCode() == hash && candidate.equals(symbol))) {
+                return current.ids[slot];
+            }
+            slot = (slot + 1) & current.mask;
+        }
+    }
+    
+    private static void insert(State current, String symbol, int id) {
+        int slot = spread(symbol.hashCode()) & current.mask;
+        while (current.keys.get(slot) != null) slot = (slot + 1) & current.mask;
+        current.ids[slot] = id;
+        current.keys.set(slot, symbol);
+    }
+    
+    // Taux de remplissage maximal 1/2 : les sondes restent courtes
+    private State rehash(State current) {
+        State larger = new State((current.mask + 1) * 2);
+        System.arraycopy(current.names, 0, larger.names, 0, size);
+        for (int id = 0; id < size; id++) {
+            insert(larger, larger.names[id], id);
+        }
+        state = larger;
+        return larger;
+    }
+    
+    // Mélange final de MurmurHash3 : les bits bas, seuls utilisés par le masque, dépendent de tout le hash
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+// Classe TrendTracker : sentiment et activité récents d'une vidéo, en état constant.
+// Décroissance exponentielle « vers l'avant » : un commentaire daté t pèse exp(λ(t - L))
+// par rapport à un repère L (la mise en ligne de la vidéo), au lieu de faire décroître
+// tout l'historique à chaque instant. Un rapport de deux sommes ne dépend donc pas de
+// l'heure de la requête, et un ajout ou un retrait est une simple addition.
+// Quand les exposants deviennent trop grands, le repère est avancé et les sommes remises
+// à l'échelle, ce qui ne change aucun rapport.
+class TrendTracker {
+    // Demi-vies : score de qualité, fenêtre courte (vitesse, tendance) et fenêtre longue (référence)
+    public static final long QUALITY_HALF_LIFE = 90L * 24 * 3600;
+    public static final long SHORT_HALF_LIFE = 6L * 3600;
+    public static final long LONG_HALF_LIFE = 7L * 24 * 3600;
+    private static final double QUALITY_RATE = Math.log(2) / QUALITY_HALF_LIFE;
+    private static final double SHORT_RATE = Math.log(2) / SHORT_HALF_LIFE;
+    private static final double LONG_RATE = Math.log(2) / LONG_HALF_LIFE;
+    // exp(300) reste loin du débordement des double, même après des milliers d'ajouts
+    private static final double RESCALE_EXPONENT = 300;
+    
+    private long landmark;
+    private double qualitySum;
+    private double qualityWeight;
+    private double shortSum;
+    private double shortWeight;
+    private double longSum;
+    private double longWeight;
+    // Poids court où chaque commentaire compte de 0,5 (très négatif) à 1 (très positif)
+    private double buzzWeight;
+    private int count;
+    private long lastCommentAt = Long.MIN_VALUE;
+    
+    public TrendTracker(long landmarkEpochSecond) {
+        this.landmark = landmarkEpochSecond;
+    }
+    
+    public synchronized void add(long epochSecond, double sentiment) {
+        if (SHORT_RATE * (epochSecond - landmark) > RESCALE_EXPONENT) rescale(epochSecond);
+        accumulate(epochSecond, sentiment, 1);
+        count++;
+        lastCommentAt = Math.max(lastCommentAt, epochSecond);
+    }
+    
+    public synchronized void remove(long epochSecond, double sentiment) {
+        if (count == 0) return;
+        if (--count == 0) {
+            // Pas d'erreur d'arrondi résiduelle une fois la vidéo vidée
+            qualitySum = qualityWeight = shortSum = shortWeight = longSum = longWeight = buzzWeight = 0;
+            return;
+        }
+        accumulate(epochSecond, sentiment, -1);
+    }
+    
+    public synchronized void replace(long epochSecond, double oldSentiment, double newSentiment) {
+        accumulate(epochSecond, oldSentiment, -1);
+        accumulate(epochSecond, newSentiment, 1);
+    }
+    
+    // Score 0-10 où un commentaire vieux de QUALITY_HALF_LIFE compte moitié moins qu'un nouveau
+    public synchronized double getDecayedScore() {
+        return Analyzer.toQualityScore(qualitySum, qualityWeight);
+    }
+    
+    // Sentiment moyen des dernières heures moins celui des derniers jours (-2..2) : > 0 = en hausse
+    public synchronized double getMomentum() {
+        if (shortWeight <= 0 || longWeight <= 0) return 0.0;
+        return shortSum / shortWeight - longSum / longWeight;
+    }
+    
+    // Commentaires par heure vus à la date donnée (moyenne mobile exponentielle, demi-vie courte)
+    public synchronized double getVelocity(long nowEpochSecond) {
+        if (shortWeight <= 0) return 0.0;
+        return shortWeight * Math.exp(-SHORT_RATE * (nowEpochSecond - landmark)) * SHORT_RATE * 3600;
+    }
+    
+    // Clé de classement en logarithme, comparable entre vidéos et indépendante de l'heure :
+    // log(Σ buzz · exp(λ t)). Elle ne fait que croître avec les ajouts.
+    public synchronized double getTrendKey() {
+        return buzzWeight <= 0 ? Double.NEGATIVE_INFINITY : SHORT_RATE * landmark + Math.log(buzzWeight);
+    }
+    
+    public synchronized int getCount() { return count; }
+    public synchronized long getLastCommentAt() { return lastCommentAt; }
+    
+    private void accumulate(long epochSecond, double sentiment, int sign) {
+        long age = epochSecond - landmark;
+        double quality = sign * Math.exp(QUALITY_RATE * age);
+        double recent = sign * Math.exp(SHORT_RATE * age);
+        double reference = sign * Math.exp(LONG_RATE * age);
+        qualitySum += quality * sentiment;
+        qualityWeight += quality;
+        shortSum += recent * sentiment;
+        shortWeight += recent;
+        longSum += reference * sentiment;
+        longWeight += reference;
+        buzzWeight += recent * (3 + sentiment) / 4;
+    }
+    
+    private void rescale(long newLandmark) {
+        long shift = newLandmark - landmark;
+        double quality = Math.exp(-QUALITY_RATE * shift);
+        double recent = Math.exp(-SHORT_RATE * shift);
+        double reference = Math.exp(-LONG_RATE * shift);
+        qualitySum *= quality;
+        qualityWeight *= quality;
+        shortSum *= recent;
+        shortWeight *= recent;
+        longSum *= reference;
+        longWeight *= reference;
+        buzzWeight *= recent;
+        landmark = newLandmark;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Supplier;
+
+// Classe TrendingIndex : les vidéos les plus en vogue, tenues à jour à chaque commentaire
+// au lieu d'être recalculées sur tout le registre. Le classement suit la clé de
+// TrendTracker, qui ne dépend pas de l'heure : seule la vidéo commentée change de place.
+// Seules les capacity premières sont gardées. Une clé d'une vidéo hors classement ne fait
+// que croître ; elle y entre dès qu'elle dépasse la dernière. Une baisse (commentaire
+// supprimé) ou une vidéo retirée rend le classement douteux : il est reconstruit à la
+// prochaine lecture depuis le registre.
+class TrendingIndex {
+    public static final int DEFAULT_CAPACITY = 100;
+    
+    private static class Entry implements Comparable<Entry> {
+        final Video video;
+        final double key;
+        
+        Entry(Video video, double key) {
+            this.video = video;
+            this.key = key;
+        }
+        
+        // Clé décroissante puis identifiant pour départager
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = Double.compare(other.key, key);
+            return byKey != 0 ? byKey : video.getVideoId().compareTo(other.video.getVideoId());
+        }
+    }
+    
+    private final int capacity;
+    private final Supplier<Collection<Video>> allVideos;
+    private final TreeSet<Entry> ranked = new TreeSet<>();
+    // Lu sans verrou pour écarter d'emblée les vidéos trop loin du classement
+    private final Map<String, Entry> members = new ConcurrentHashMap<>();
+    private volatile double threshold = Double.NEGATIVE_INFINITY;
+    private volatile boolean stale;
+    // Horloge = date du dernier commentaire vu : des données importées restent comparables
+    private final LongAccumulator clock = new LongAccumulator(Long::max, Long.MIN_VALUE);
+    
+    public TrendingIndex(int capacity, Supplier<Collection<Video>> allVideos) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.allVideos = allVideos;
+    }
+    
+    public int getCapacity() { return capacity; }
+    
+    // Après chaque ajout, retrait ou modification de commentaire de la vidéo
+    public void update(Video video) {
+        TrendTracker trend = video.getTrend();
+        long lastCommentAt = trend.getLastCommentAt();
+        if (lastCommentAt != Long.MIN_VALUE) clock.accumulate(lastCommentAt);
+        double key = trend.getTrendKey();
+        if (key <= threshold && !members.containsKey(video.getVideoId())) return;
+        synchronized (this) {
+            // Relue sous le verrou : deux mises à jour concurrentes ne s'inversent pas
+            key = trend.getTrendKey();
+            Entry previous = members.get(video.getVideoId());
+            if (previous != null) {
+                ranked.remove(previous);
+                // Une vidéo hors classement est peut-être passée devant
+                if (key < previous.key && ranked.size() + 1 == capacity) stale = true;
+            } else if (ranked.size() == capacity && key <= ranked.last().key) {
+                return;
+            }
+            insert(new Entry(video, key));
+        }
+    }
+    
+    public synchronized void remove(String videoId) {
+        Entry entry = members.remove(videoId);
+        if (entry == null) return;
+        ranked.remove(entry);
+        threshold = Double.NEGATIVE_INFINITY;
+        stale = true;
+    }
+    
+    // Au plus limit vidéos, de la plus en vogue à la moins en vogue
+    public synchronized List<Video> top(int limit) {
+        if (stale) rebuild();
+        List<Video> top = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Entry entry : ranked) {
+            if (top.size() == limit) break;
+            if (entry.key == Double.NEGATIVE_INFINITY) break;
+            top.add(entry.video);
+        }
+        return top;
+    }
+    
+    public long getClock() {
+        long now = clock.get();
+        return now == Long.MIN_VALUE ? System.currentTimeMillis() / 1000 : now;
+    }
+    
+    private void insert(Entry entry) {
+        ranked.add(entry);
+        members.put(entry.video.getVideoId(), entry);
+        if (ranked.size() > capacity) {
+            members.remove(ranked.pollLast().video.getVideoId());
+        }
+        threshold = ranked.size() == capacity ? ranked.last().key : Double.NEGATIVE_INFINITY;
+    }
+    
+    // Parcours complet du registre en O(n log capacity)
+    private void rebuild() {
+        ranked.clear();
+        members.clear();
+        threshold = Double.NEGATIVE_INFINITY;
+        for (Video video : allVideos.get()) {
+            double key = video.getTrend().getTrendKey();
+            if (key == Double.NEGATIVE_INFINITY) continue;
+            if (ranked.size() == capacity && key <= ranked.last().key) continue;
+            insert(new Entry(video, key));
+        }
+        stale = false;
+    }
+}
\ No newline at end of file
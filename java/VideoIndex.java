@@ -0,0 +1,115 @@
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Classe VideoIndex : index secondaires des vidéos, tenus à jour à la création et
+// à la suppression. Chaque index est trié par date de mise en ligne, ce qui permet
+// des recherches par intervalle ("catégorie X, cette semaine") sans parcourir tout
+// le registre.
+class VideoIndex {
+    // Clé de tri : date de mise en ligne puis identifiant pour départager
+    private static class UploadKey implements Comparable<UploadKey> {
+        private final LocalDateTime uploadDate;
+        private final String videoId;
+        
+        UploadKey(LocalDateTime uploadDate, String videoId) {
+            this.uploadDate = uploadDate;
+            this.videoId = videoId;
+        }
+        
+        @Override
+        public int compareTo(UploadKey other) {
+            int byDate = uploadDate.compareTo(other.uploadDate);
+            return byDate != 0 ? byDate : videoId.compareTo(other.videoId);
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof UploadKey && compareTo((UploadKey) other) == 0;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(uploadDate, videoId);
+        }
+    }
+    
+    private final ConcurrentSkipListMap<UploadKey, Video> byUploadDate = new ConcurrentSkipListMap<>();
+    private final Map<String, ConcurrentSkipListMap<UploadKey, Video>> byCategory = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentSkipListMap<UploadKey, Video>> byCreator = new ConcurrentHashMap<>();
+    
+    public void add(Video video) {
+        UploadKey key = keyOf(video);
+        byUploadDate.put(key, video);
+        addTo(byCategory, categoryOf(video), key, video);
+        if (video.getCreatorId() != null) {
+            addTo(byCreator, video.getCreatorId(), key, video);
+        }
+    }
+    
+    public void remove(Video video) {
+        UploadKey key = keyOf(video);
+        byUploadDate.remove(key);
+        removeFrom(byCategory, categoryOf(video), key);
+        if (video.getCreatorId() != null) {
+            removeFrom(byCreator, video.getCreatorId(), key);
+        }
+    }
+    
+    // Bornes null = intervalle ouvert ; from inclus, to exclu
+    public Collection<Video> findByUploadDate(LocalDateTime from, LocalDateTime to) {
+        return range(byUploadDate, from, to);
+    }
+    
+    public Collection<Video> findByCategory(String category, LocalDateTime from, LocalDateTime to) {
+        ConcurrentSkipListMap<UploadKey, Video> videos = byCategory.get(category == null ? "" : category);
+        return videos == null ? Collections.emptyList() : range(videos, from, to);
+    }
+    
+    public Collection<Video> findByCreator(String creatorId, LocalDateTime from, LocalDateTime to) {
+        ConcurrentSkipListMap<UploadKey, Video> videos = byCreator.get(creatorId);
+        return videos == null ? Collections.emptyList() : range(videos, from, to);
+    }
+    
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(byCategory.keySet());
+    }
+    
+    public int countInCategory(String category) {
+        ConcurrentSkipListMap<UploadKey, Video> videos = byCategory.get(category == null ? "" : category);
+        return videos == null ? 0 : videos.size();
+    }
+    
+    private static Collection<Video> range(ConcurrentSkipListMap<UploadKey, Video> videos, LocalDateTime from, LocalDateTime to) {
+        ConcurrentNavigableMap<UploadKey, Video> view = videos;
+        if (from != null) view = view.tailMap(new UploadKey(from, ""), true);
+        if (to != null) view = view.headMap(new UploadKey(to, ""), false);
+        return Collections.unmodifiableCollection(view.values());
+    }
+    
+    // Ajout et retrait passent par compute : une sous-carte vidée puis retirée ne perd pas un ajout concurrent
+    private static void addTo(Map<String, ConcurrentSkipListMap<UploadKey, Video>> index, String name, UploadKey key, Video video) {
+        index.compute(name, (k, videos) -> {
+            if (videos == null) videos = new ConcurrentSkipListMap<>();
+            videos.put(key, video);
+            return videos;
+        });
+    }
+    
+    private static void removeFrom(Map<String, ConcurrentSkipListMap<UploadKey, Video>> index, String name, UploadKey key) {
+        index.computeIfPresent(name, (k, videos) -> {
+            videos.remove(key);
+            return videos.isEmpty() ? null : videos;
+        });
+    }
+    
+    private static UploadKey keyOf(Video video) {
+        return new UploadKey(video.getUploadDate(), video.getVideoId());
+    }
+    
+    private static String categoryOf(Video video) {
+        return video.getCategory() == null ? "" : video.getCategory();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Classe WatchHistory : historique de visionnage d'un spectateur, de taille fixe quel
+// que soit le nombre de vidéos vues. Les derniers visionnages sont gardés dans un
+// tampon circulaire (id de la vidéo + date), l'appartenance passe par un filtre de Bloom,
+// et les catégories préférées sont suivies au fil de l'eau avec l'algorithme Space-Saving
+// (quelques compteurs, les moins vus sont remplacés).
+// Le filtre est dimensionné pour BLOOM_CAPACITY visionnages à BLOOM_FALSE_POSITIVE_RATE ;
+// une fois plein, il devient la génération précédente et un filtre vide prend sa place.
+// Une vidéo vue parmi les BLOOM_CAPACITY derniers visionnages est toujours reconnue, les
+// plus anciennes finissent par être oubliées, et les faux positifs restent sous
+// 2 × BLOOM_FALSE_POSITIVE_RATE quel que soit le nombre de vidéos vues.
+class WatchHistory {
+    public static final int DEFAULT_CAPACITY = 64;
+    public static final int BLOOM_CAPACITY = 512;
+    public static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+    // m = -n ln p / (ln 2)², arrondi au mot de 64 bits (4928 bits, 616 octets par génération)
+    // et k = (m / n) ln 2 hachages (7)
+    static final int BLOOM_BITS = (int) Math.ceil(-BLOOM_CAPACITY * Math.log(BLOOM_FALSE_POSITIVE_RATE)
+                                                  / (Math.log(2) * Math.log(2)) / 64) * 64;
+    static final int BLOOM_HASHES = (int) Math.round((double) BLOOM_BITS / BLOOM_CAPACITY * Math.log(2));
+    private static final int CATEGORY_COUNTERS = 8;
+    
+    private final int capacity;
+    // Alloués au premier visionnage : un spectateur inactif ne coûte rien
+    private String[] videos;
+    private long[] watchedAt;
+    private long[] bloom;
+    private long[] previousBloom;
+    // Visionnages ajoutés au filtre courant depuis sa création
+    private int bloomInsertions;
+    private int[] categories;
+    private long[] categoryCounts;
+    private int categoryCount;
+    private long total;
+    
+    public WatchHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public WatchHistory(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+    }
+    
+    // categorySymbol : id interné de la catégorie (-1 si la vidéo n'en a pas)
+    public synchronized void record(String videoId, int categorySymbol, long epochSecond) {
+        if (videos == null) allocate();
+        int slot = (int) (total % capacity);
+        videos[slot] = videoId;
+        watchedAt[slot] = epochSecond;
+        total++;
+        addToFilter(videoId);
+        if (categorySymbol >= 0) countCategory(categorySymbol);
+    }
+    
+    // Jamais de faux négatif sur les BLOOM_CAPACITY derniers visionnages ; faux positifs rares
+    public synchronized boolean mightHaveWatched(String videoId) {
+        if (videos == null) return false;
+        long hash = ShardRing.hash(videoId);
+        return contains(bloom, hash) || (previousBloom != null && contains(previousBloom, hash));
+    }
+    
+    // Ids des derniers visionnages, du plus récent au plus ancien
+    public synchronized String[] recentVideos(int limit) {
+        int count = (int) Math.min(Math.min(total, capacity), limit);
+        String[] recent = new String[count];
+        for (int i = 0; i < count; i++) {
+            recent[i] = videos[(int) ((total - 1 - i) % capacity)];
+        }
+        return recent;
+    }
+    
+    public synchronized long lastWatchedAt(String videoId) {
+        for (long i = total - 1; i >= 0 && i >= total - capacity; i--) {
+            int slot = (int) (i % capacity);
+            if (videos[slot].equals(videoId)) return watchedAt[slot];
+        }
+        return -1;
+    }
+    
+    // Catégories les plus vues, au plus limit, par nombre de visionnages décroissant
+    public synchronized int[] topCategories(int limit) {
+        List<Integer> order = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) order.add(i);
+        order.sort((a, b) -> Long.compare(categoryCounts[b], categoryCounts[a]));
+        int count = Math.min(limit, categoryCount);
+        int[] top = new int[count];
+        for (int i = 0; i < count; i++) top[i] = categories[order.get(i)];
+        return top;
+    }
+    
+    public synchronized long getTotalWatched() { return total; }
+    public int getCapacity() { return capacity; }
+    
+    // Image pour SnapshotStore : visionnages gardés du plus ancien au plus récent, catégories
+    // par nom (les ids internés changent d'un processus à l'autre), puis les deux filtres
+    synchronized void write(DataOutputStream out, SymbolTable categorySymbols) throws IOException {
+        out.writeLong(total);
+        int kept = (int) Math.min(total, capacity);
+        out.writeInt(kept);
+        for (long i = total - kept; i < total; i++) {
+            int slot = (int) (i % capacity);
+            SnapshotStore.writeString(out, videos[slot]);
+            out.writeLong(watchedAt[slot]);
+        }
+        out.writeInt(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            SnapshotStore.writeString(out, categorySymbols.nameOf(categories[i]));
+            out.writeLong(categoryCounts[i]);
+        }
+        out.writeInt(bloomInsertions);
+        writeFilter(out, bloom);
+        writeFilter(out, previousBloom);
+    }
+    
+    synchronized void read(ByteBuffer in, SymbolTable categorySymbols) {
+        allocate();
+        total = in.getLong();
+        int kept = in.getInt();
+        for (long i = total - kept; i < total; i++) {
+            int slot = (int) (i % capacity);
+            videos[slot] = SnapshotStore.readString(in);
+            watchedAt[slot] = in.getLong();
+        }
+        categoryCount = in.getInt();
+        for (int i = 0; i < categoryCount; i++) {
+            categories[i] = categorySymbols.intern(SnapshotStore.readString(in));
+            categoryCounts[i] = in.getLong();
+        }
+        bloomInsertions = in.getInt();
+        long[] current = readFilter(in);
+        long[] previous = readFilter(in);
+        if (current != null && current.length == BLOOM_BITS / 64) {
+            bloom = current;
+            previousBloom = previous;
+            return;
+        }
+        // Filtre d'une autre taille : reconstruit à partir des visionnages gardés
+        bloomInsertions = 0;
+        previousBloom = null;
+        for (long i = total - kept; i < total; i++) addToFilter(videos[(int) (i % capacity)]);
+    }
+    
+    private void allocate() {
+        videos = new String[capacity];
+        watchedAt = new long[capacity];
+        bloom = new long[BLOOM_BITS / 64];
+        categories = new int[CATEGORY_COUNTERS];
+        categoryCounts = new long[CATEGORY_COUNTERS];
+    }
+    
+    private void addToFilter(String videoId) {
+        if (bloomInsertions == BLOOM_CAPACITY) {
+            previousBloom = bloom;
+            bloom = new long[BLOOM_BITS / 64];
+            bloomInsertions = 0;
+        }
+        long hash = ShardRing.hash(videoId);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = bloomBit(hash, i);
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+        bloomInsertions++;
+    }
+    
+    // Space-Saving : une catégorie inconnue prend la place du plus petit compteur, +1
+    private void countCategory(int categorySymbol) {
+        for (int i = 0; i < categoryCount; i++) {
+            if (categories[i] == categorySymbol) {
+                categoryCounts[i]++;
+                return;
+            }
+        }
+        if (categoryCount < CATEGORY_COUNTERS) {
+            categories[categoryCount] = categorySymbol;
+            categoryCounts[categoryCount++] = 1;
+            return;
+        }
+        int smallest = 0;
+        for (int i = 1; i < CATEGORY_COUNTERS; i++) {
+            if (categoryCounts[i] < categoryCounts[smallest]) smallest = i;
+        }
+        categories[smallest] = categorySymbol;
+        categoryCounts[smallest]++;
+    }
+    
+    private static void writeFilter(DataOutputStream out, long[] filter) throws IOException {
+        out.writeInt(filter == null ? -1 : filter.length);
+        if (filter == null) return;
+        for (long word : filter) out.writeLong(word);
+    }
+    
+    private static long[] readFilter(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        long[] filter = new long[length];
+        for (int i = 0; i < length; i++) filter[i] = in.getLong();
+        return filter;
+    }
+    
+    private static boolean contains(long[] filter, long hash) {
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = bloomBit(hash, i);
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+    
+    // Double hachage sur le hash 64 bits de l'id : la i-ème position est h1 + i * h2, h2 impair
+    private static int bloomBit(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Integer.remainderUnsigned(h1 + i * h2, BLOOM_BITS);
+    }
+}
\ No newline at end of file
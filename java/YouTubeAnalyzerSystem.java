@@ -1,5 +1,20 @@
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 // Classe de base User
@@ -19,82 +34,146 @@ class User {
     public String getId() { return userId; }
     public String getUsername() { return username; }
     public String getEmail() { return email; }
+    public LocalDateTime getRegistrationDate() { return registrationDate; }
     
     public void setUsername(String username) { this.username = username; }
     public void setEmail(String email) { this.email = email; }
+    void setRegistrationDate(LocalDateTime registrationDate) { this.registrationDate = registrationDate; }
     
     public void displayInfo() {
-        System.out.println("User ID: " + userId);
-        System.out.println("Username: " + username);
-        System.out.println("Email: " + email);
-        System.out.println("Registration Date: " + registrationDate.format(DateTimeFormatter.ISO_DATE));
+        StringBuilder info = new StringBuilder(256);
+        appendInfo(info);
+        System.out.print(info);
+    }
+    
+    // Lignes de displayInfo, construites d'un bloc : un seul appel d'écriture par entité
+    void appendInfo(StringBuilder info) {
+        info.append("User ID: ").append(userId).append('\n');
+        info.append("Username: ").append(username).append('\n');
+        info.append("Email: ").append(email).append('\n');
+        info.append("Registration Date: ").append(registrationDate.format(DateTimeFormatter.ISO_DATE)).append('\n');
     }
 }
 
 // Classe VideoCreator hérite de User
 class VideoCreator extends User {
     private int subscriberCount;
-    private int totalVideos;
+    private AtomicInteger totalVideos;
     private boolean isVerified;
-    private List<Video> videos;
+    private Map<String, Video> videos;
     
     public VideoCreator(String userId, String username, String email) {
         super(userId, username, email);
         this.subscriberCount = 0;
-        this.totalVideos = 0;
+        this.totalVideos = new AtomicInteger();
         this.isVerified = false;
-        this.videos = new ArrayList<>();
+        this.videos = new ConcurrentHashMap<>();
     }
     
     public int getSubscriberCount() { return subscriberCount; }
-    public int getTotalVideos() { return totalVideos; }
+    public int getTotalVideos() { return totalVideos.get(); }
     public boolean isVerified() { return isVerified; }
+    public Collection<Video> getVideos() { return Collections.unmodifiableCollection(videos.values()); }
     
     public void uploadVideo(Video video) {
-        videos.add(video);
-        totalVideos++;
+        addVideo(video);
         System.out.println("Video '" + video.getTitle() + "' uploaded successfully");
     }
     
+    // Ajout silencieux, utilisé par l'ingestion par lots
+    void addVideo(Video video) {
+        video.setCreatorId(getId());
+        if (videos.put(video.getVideoId(), video) == null) {
+            totalVideos.incrementAndGet();
+        }
+    }
+    
     public void deleteVideo(String videoId) {
-        videos.removeIf(v -> v.getVideoId().equals(videoId));
-        totalVideos--;
-        System.out.println("Video " + videoId + " deleted");
+        if (removeVideo(videoId)) {
+            System.out.println("Video " + videoId + " deleted");
+        }
+    }
+    
+    // Ne décrémente le compteur que si la vidéo appartenait bien au créateur
+    boolean removeVideo(String videoId) {
+        if (videos.remove(videoId) == null) return false;
+        totalVideos.decrementAndGet();
+        return true;
     }
     
     @Override
-    public void displayInfo() {
-        super.displayInfo();
-        System.out.println("Subscribers: " + subscriberCount);
-        System.out.println("Total Videos: " + totalVideos);
-        System.out.println("Verified: " + isVerified);
+    void appendInfo(StringBuilder info) {
+        super.appendInfo(info);
+        info.append("Subscribers: ").append(subscriberCount).append('\n');
+        info.append("Total Videos: ").append(totalVideos.get()).append('\n');
+        info.append("Verified: ").append(isVerified).append('\n');
     }
 }
 
 // Classe Viewer hérite de User
 class Viewer extends User {
-    private List<String> watchHistory;
-    private List<String> favoriteCategories;
+    // Taille fixe : derniers visionnages, appartenance et catégories préférées (voir WatchHistory)
+    private final WatchHistory watchHistory;
     
     public Viewer(String userId, String username, String email) {
         super(userId, username, email);
-        this.watchHistory = new ArrayList<>();
-        this.favoriteCategories = new ArrayList<>();
+        this.watchHistory = new WatchHistory();
     }
     
     public void addToWatchHistory(String videoId) {
-        watchHistory.add(videoId);
+        Video video = YouTubeAnalyzerSystem.getVideoRegistry().get(videoId);
+        if (video != null) {
+            addToWatchHistory(video, LocalDateTime.now());
+        } else {
+            watchHistory.record(videoId, -1, LocalDateTime.now().toEpochSecond(ZoneOffset.UTC));
+        }
+    }
+    
+    void addToWatchHistory(Video video, LocalDateTime watchedAt) {
+        watchHistory.record(video.getVideoId(), video.getCategoryId(), watchedAt.toEpochSecond(ZoneOffset.UTC));
+    }
+    
+    // Vrai si la vidéo fait partie des WatchHistory.BLOOM_CAPACITY derniers visionnages (au moins) ;
+    // faux positifs sous 2 %, jamais de faux négatif sur cette fenêtre
+    public boolean hasWatched(String videoId) {
+        return watchHistory.mightHaveWatched(videoId);
     }
     
+    // Derniers visionnages (au plus WatchHistory.DEFAULT_CAPACITY), du plus récent au plus ancien
+    public List<String> getRecentlyWatched(int limit) {
+        return Arrays.asList(watchHistory.recentVideos(limit));
+    }
+    
+    public long getWatchCount() { return watchHistory.getTotalWatched(); }
+    
+    // Déduites des visionnages, de la plus vue à la moins vue
     public List<String> getFavoriteCategories() {
-        return favoriteCategories;
+        SymbolTable categorySymbols = YouTubeAnalyzerSystem.getCategorySymbols();
+        List<String> favorites = new ArrayList<>();
+        for (int category : watchHistory.topCategories(3)) favorites.add(categorySymbols.nameOf(category));
+        return favorites;
     }
     
+    // Passe par le système : la vue et l'historique sont journalisés
     public void watchVideo(Video video) {
-        video.addView();
-        addToWatchHistory(video.getVideoId());
+        YouTubeAnalyzerSystem.recordWatch(this, video);
         System.out.println(getUsername() + " is watching: " + video.getTitle());
     }
+    
+    void recordWatch(Video video, LocalDateTime watchedAt) {
+        video.addView();
+        addToWatchHistory(video, watchedAt);
+    }
+    
+    WatchHistory getWatchHistory() { return watchHistory; }
+    
+    @Override
+    void appendInfo(StringBuilder info) {
+        super.appendInfo(info);
+        info.append("Videos Watched: ").append(getWatchCount()).append('\n');
+        info.append("Recently Watched: ").append(getRecentlyWatched(5)).append('\n');
+        info.append("Favorite Categories: ").append(getFavoriteCategories()).append('\n');
+    }
 }
 
 // Classe Video
@@ -103,143 +182,904 @@ class Video {
     private String title;
     private String url;
     private int duration;
-    private int viewCount;
+    private LongAdder viewCount;
     private LocalDateTime uploadDate;
-    private String category;
-    private List<Comment> comments;
+    // Ids internés (-1 si absent) : une seule instance String par catégorie et par créateur
+    private int categoryId;
+    private volatile CommentLog comments;
+    // Stockage en colonnes optionnel, remplace CommentLog quand il est activé
+    private volatile ColumnarCommentStore columns;
+    // Ajouts et retraits le prennent en partage ; seul le remplacement par une copie
+    // compactée le prend en exclusif. Les lectures (analyse, instantanés) n'y touchent pas.
+    private final StampedLock storageLock = new StampedLock();
+    private SentimentAggregate aggregate;
+    // Sentiment récent et activité, pondérés par la date des commentaires
+    private TrendTracker trend;
+    // Auteurs distincts approximatifs, jamais décrémenté
+    private HyperLogLog authors;
+    private volatile int creatorId = -1;
+    // Incrémentée à chaque ajout, suppression ou modification de commentaire
+    private AtomicLong version;
+    // Fenêtres de temps sur les nouveaux commentaires, null sans suivi en direct
+    private volatile StreamingAnalyzer.RecentWindows liveWindows;
     
     public Video(String videoId, String title, String url, int duration, String category) {
+        this(videoId, title, url, duration, category, LocalDateTime.now());
+    }
+    
+    public Video(String videoId, String title, String url, int duration, String category, LocalDateTime uploadDate) {
         this.videoId = videoId;
         this.title = title;
         this.url = url;
         this.duration = duration;
-        this.viewCount = 0;
-        this.uploadDate = LocalDateTime.now();
-        this.category = category;
-        this.comments = new ArrayList<>();
+        this.viewCount = new LongAdder();
+        this.uploadDate = uploadDate;
+        this.categoryId = category == null ? -1 : YouTubeAnalyzerSystem.getCategorySymbols().intern(category);
+        this.comments = new CommentLog();
+        this.aggregate = new SentimentAggregate();
+        this.trend = new TrendTracker(uploadDate.toEpochSecond(ZoneOffset.UTC));
+        this.authors = new HyperLogLog();
+        this.version = new AtomicLong();
     }
     
     public String getVideoId() { return videoId; }
     public String getTitle() { return title; }
     public String getUrl() { return url; }
     public int getDuration() { return duration; }
-    public int getViewCount() { return viewCount; }
+    public long getViewCount() { return viewCount.sum(); }
+    public LocalDateTime getUploadDate() { return uploadDate; }
+    public String getCategory() {
+        return categoryId < 0 ? null : YouTubeAnalyzerSystem.getCategorySymbols().nameOf(categoryId);
+    }
     
-    public void addView() { viewCount++; }
+    public String getCreatorId() {
+        return creatorId < 0 ? null : YouTubeAnalyzerSystem.getUserSymbols().nameOf(creatorId);
+    }
+    
+    public int getCategoryId() { return categoryId; }
+    public long getVersion() { return version.get(); }
+    
+    void setCreatorId(String creatorId) {
+        this.creatorId = creatorId == null ? -1 : YouTubeAnalyzerSystem.getUserSymbols().intern(creatorId);
+    }
+    
+    public boolean isColumnar() { return columns != null; }
+    public ColumnarCommentStore getColumnarStore() { return columns; }
+    
+    // A activer avant le premier commentaire : les commentaires ne sont alors plus des objets
+    public synchronized void enableColumnarStore() {
+        if (columns != null) return;
+        if (!comments.isEmpty()) throw new IllegalStateException("Video " + videoId + " already has comments");
+        columns = new ColumnarCommentStore();
+    }
+    
+    // Rechargement depuis une image disque
+    void restoreViews(long views) {
+        this.viewCount.reset();
+        this.viewCount.add(views);
+    }
+    
+    // Le score déjà calculé est repris tel quel, sans réanalyser le texte
+    void restoreComment(Comment comment, double sentiment) {
+        store(comment, true, sentiment);
+        aggregate.add(sentiment);
+        trend.add(epochSecond(comment.getPostDate()), sentiment);
+        sketch(comment.getAuthor().getId(), comment.getContent(), sentiment);
+        version.incrementAndGet();
+        trendChanged();
+    }
+    
+    public void addView() { viewCount.increment(); }
+    
+    public StreamingAnalyzer.RecentWindows getLiveWindows() { return liveWindows; }
+    
+    // Remplace le suivi en direct (null pour l'arrêter) ; l'ancien analyseur émet ses dernières fenêtres
+    void setLiveWindows(StreamingAnalyzer.RecentWindows windows) {
+        StreamingAnalyzer.RecentWindows previous = liveWindows;
+        liveWindows = windows;
+        if (previous != null) previous.getAnalyzer().close();
+    }
     
+    // Ajout sans verrou, possible pendant qu'une analyse lit les commentaires
     public void addComment(Comment comment) {
-        comments.add(comment);
+        // Score calculé une seule fois, à l'arrivée du commentaire, avec la stratégie du système
+        double sentiment = store(comment, false, 0.0);
+        aggregate.add(sentiment);
+        trend.add(epochSecond(comment.getPostDate()), sentiment);
+        sketch(comment.getAuthor().getId(), comment.getContent(), sentiment);
+        version.incrementAndGet();
+        trendChanged();
+        live(comment.getPostDate(), sentiment);
+        Metrics.commentAdded();
     }
     
+    // Ajout en colonnes sans objet Comment, retourne le score du commentaire
+    public double appendComment(String commentId, String authorId, String content, LocalDateTime postDate) {
+        double sentiment;
+        long stamp = storageLock.readLock();
+        try {
+            if (columns == null) throw new IllegalStateException("Video " + videoId + " is not columnar");
+            sentiment = score(YouTubeAnalyzerSystem.getSentimentStrategy(), content);
+            columns.append(commentId, authorId, content, epochSecond(postDate), 0, 0, sentiment);
+        } finally {
+            storageLock.unlockRead(stamp);
+        }
+        aggregate.add(sentiment);
+        trend.add(epochSecond(postDate), sentiment);
+        sketch(authorId, content, sentiment);
+        version.incrementAndGet();
+        trendChanged();
+        live(postDate, sentiment);
+        Metrics.commentAdded();
+        return sentiment;
+    }
+    
+    // Score calculé sous le verrou de lecture : un rescore en cours ne peut pas le manquer.
+    // restored : le score donné est repris tel quel (rechargement)
+    private double store(Comment comment, boolean restored, double sentiment) {
+        comment.setVideoId(videoId);
+        long stamp = storageLock.readLock();
+        try {
+            if (!restored) sentiment = score(YouTubeAnalyzerSystem.getSentimentStrategy(), comment.getContent());
+            comment.setSentimentScore(sentiment);
+            if (columns != null) {
+                columns.append(comment.getCommentId(), comment.getAuthor().getId(), comment.getContent(),
+                               comment.getPostDate().toEpochSecond(ZoneOffset.UTC), comment.getLikesCount(),
+                               comment.getDislikesCount(), sentiment);
+            } else {
+                comments.append(comment);
+            }
+        } finally {
+            storageLock.unlockRead(stamp);
+        }
+        return sentiment;
+    }
+    
+    public boolean removeComment(String commentId) {
+        long stamp = storageLock.readLock();
+        try {
+            ColumnarCommentStore store = columns;
+            if (store != null) {
+                int row = store.find(commentId);
+                if (row < 0 || !store.delete(row)) return false;
+                aggregate.remove(store.getSentiment(row));
+                trend.remove(store.getPostedAt(row), store.getSentiment(row));
+            } else {
+                Comment comment = comments.find(commentId);
+                if (comment == null) return false;
+                synchronized (comment) {
+                    if (!comments.remove(comment)) return false;
+                    aggregate.remove(comment.getSentimentScore());
+                    trend.remove(epochSecond(comment.getPostDate()), comment.getSentimentScore());
+                }
+            }
+        } finally {
+            storageLock.unlockRead(stamp);
+        }
+        version.incrementAndGet();
+        trendChanged();
+        return true;
+    }
+    
+    public boolean editComment(String commentId, String newContent) {
+        long stamp = storageLock.readLock();
+        try {
+            double newSentiment = score(YouTubeAnalyzerSystem.getSentimentStrategy(), newContent);
+            ColumnarCommentStore store = columns;
+            if (store != null) {
+                // Le texte en colonnes est immuable : la ligne est remplacée par une nouvelle
+                int row = store.find(commentId);
+                if (row < 0 || !store.delete(row)) return false;
+                store.append(commentId, store.getAuthorId(row), newContent, store.getPostedAt(row),
+                             store.getLikes(row), store.getDislikes(row), newSentiment);
+                aggregate.replace(store.getSentiment(row), newSentiment);
+                trend.replace(store.getPostedAt(row), store.getSentiment(row), newSentiment);
+            } else {
+                Comment comment = comments.find(commentId);
+                if (comment == null) return false;
+                synchronized (comment) {
+                    double oldSentiment = comment.getSentimentScore();
+                    comment.setContent(newContent);
+                    comment.setSentimentScore(newSentiment);
+                    aggregate.replace(oldSentiment, newSentiment);
+                    trend.replace(epochSecond(comment.getPostDate()), oldSentiment, newSentiment);
+                }
+            }
+        } finally {
+            storageLock.unlockRead(stamp);
+        }
+        version.incrementAndGet();
+        trendChanged();
+        return true;
+    }
+    
+    // Réévalue tous les commentaires avec une nouvelle stratégie ; les ajouts attendent la fin
+    // du passage pour ne pas mélanger les deux stratégies dans l'agrégat
+    int rescore(SentimentStrategy strategy) {
+        int count = 0;
+        long chars = 0;
+        long stamp = storageLock.writeLock();
+        long start = System.nanoTime();
+        try {
+            ColumnarCommentStore store = columns;
+            if (store != null) {
+                for (int row = 0, size = store.size(); row < size; row++) {
+                    if (store.isDeleted(row)) continue;
+                    double oldSentiment = store.getSentiment(row);
+                    double newSentiment = store.score(row, strategy);
+                    store.setSentiment(row, newSentiment);
+                    aggregate.replace(oldSentiment, newSentiment);
+                    trend.replace(store.getPostedAt(row), oldSentiment, newSentiment);
+                    chars += store.getContentLength(row);
+                    count++;
+                }
+            } else {
+                for (Comment comment : comments.snapshot()) {
+                    synchronized (comment) {
+                        double oldSentiment = comment.getSentimentScore();
+                        double newSentiment = strategy.score(comment.getContent());
+                        comment.setSentimentScore(newSentiment);
+                        aggregate.replace(oldSentiment, newSentiment);
+                        trend.replace(epochSecond(comment.getPostDate()), oldSentiment, newSentiment);
+                        chars += comment.getContent().length();
+                    }
+                    count++;
+                }
+            }
+        } finally {
+            storageLock.unlockWrite(stamp);
+        }
+        long elapsed = System.nanoTime() - start;
+        strategy.recordThroughput(count, chars, elapsed);
+        Metrics.recordScoring(count, elapsed);
+        if (count > 0) {
+            version.incrementAndGet();
+            trendChanged();
+        }
+        return count;
+    }
+    
+    // Suppression en un passage des commentaires des auteurs donnés (ids internés) ;
+    // removed reçoit les objets Comment retirés, pour les ôter du registre global
+    int removeCommentsBy(BitSet authorSymbols, Consumer<Comment> removed) {
+        SymbolTable userSymbols = YouTubeAnalyzerSystem.getUserSymbols();
+        int count = 0;
+        long stamp = storageLock.readLock();
+        try {
+            ColumnarCommentStore store = columns;
+            if (store != null) {
+                for (int row = 0, size = store.size(); row < size; row++) {
+                    if (authorSymbols.get(store.getAuthorSymbol(row)) && store.delete(row)) {
+                        aggregate.remove(store.getSentiment(row));
+                        trend.remove(store.getPostedAt(row), store.getSentiment(row));
+                        count++;
+                    }
+                }
+            } else {
+                for (Comment comment : comments.removeIf(comment -> {
+                    int author = userSymbols.lookup(comment.getAuthor().getId());
+                    return author >= 0 && authorSymbols.get(author);
+                })) {
+                    aggregate.remove(comment.getSentimentScore());
+                    trend.remove(epochSecond(comment.getPostDate()), comment.getSentimentScore());
+                    removed.accept(comment);
+                    count++;
+                }
+            }
+        } finally {
+            storageLock.unlockRead(stamp);
+        }
+        if (count > 0) {
+            version.incrementAndGet();
+            trendChanged();
+        }
+        return count;
+    }
+    
+    // Cases libérées par les suppressions et pas encore récupérées
+    public int getReclaimableSlots() {
+        ColumnarCommentStore store = columns;
+        return store != null ? store.getDeletedCount() : comments.getHoles();
+    }
+    
+    // Remplace le stockage par une copie sans trou. Seuls les ajouts et retraits de cette
+    // vidéo attendent pendant la copie ; les lecteurs gardent l'ancien stockage, toujours valide.
+    int compact() {
+        long stamp = storageLock.writeLock();
+        try {
+            ColumnarCommentStore store = columns;
+            if (store != null) {
+                int reclaimed = store.getDeletedCount();
+                if (reclaimed > 0) columns = store.compacted();
+                return reclaimed;
+            }
+            int reclaimed = comments.getHoles();
+            if (reclaimed > 0) comments = comments.compacted();
+            return reclaimed;
+        } finally {
+            storageLock.unlockWrite(stamp);
+        }
+    }
+    
+    public SentimentAggregate getAggregate() {
+        return aggregate;
+    }
+    
+    // Résultat courant en O(1), sans reparcourir les commentaires
+    public AnalysisResult getCurrentResult() {
+        return aggregate.toResult();
+    }
+    
+    public TrendTracker getTrend() {
+        return trend;
+    }
+    
+    private void trendChanged() {
+        YouTubeAnalyzerSystem.getTrendingIndex().update(this);
+    }
+    
+    public long getDistinctAuthors() {
+        return authors.estimate();
+    }
+    
+    // Un seul hash de l'auteur pour les sketches de la vidéo, de sa catégorie et de son créateur
+    // Peut bloquer l'ajout si un consommateur des fenêtres est en retard (contre-pression)
+    private void live(LocalDateTime postDate, double sentiment) {
+        StreamingAnalyzer.RecentWindows windows = liveWindows;
+        if (windows != null) windows.getAnalyzer().accept(postDate, sentiment);
+    }
+    
+    private void sketch(String authorId, String content, double sentiment) {
+        long authorHash = ShardRing.hash(authorId);
+        authors.add(authorHash);
+        YouTubeAnalyzerSystem.getSketches().commentAdded(this, authorHash, content.length(), sentiment);
+    }
+    
+    // Score d'un commentaire à son arrivée ou à sa modification, compté dans le débit de la stratégie
+    private static double score(SentimentStrategy strategy, String content) {
+        long start = System.nanoTime();
+        double sentiment = strategy.score(content);
+        long elapsed = System.nanoTime() - start;
+        strategy.recordThroughput(1, content.length(), elapsed);
+        Metrics.recordScoring(1, elapsed);
+        return sentiment;
+    }
+    
+    private static long epochSecond(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+    
+    // Instantané des commentaires publiés ; en colonnes, des objets détachés sont créés à la demande
     public List<Comment> getComments() {
-        return comments;
+        ColumnarCommentStore store = columns;
+        if (store == null) return comments.snapshot();
+        return materialize(store, 0, 0, store.size());
+    }
+    
+    // Une page des commentaires (API HTTP) : seuls ceux de la page sont copiés ou créés
+    public List<Comment> getComments(int offset, int limit) {
+        ColumnarCommentStore store = columns;
+        if (store == null) return comments.page(offset, limit);
+        // Sans ligne supprimée, le rang d'un commentaire est sa ligne
+        int start = store.getDeletedCount() == 0 ? offset : 0;
+        return materialize(store, start, offset - start, limit);
+    }
+    
+    // Lignes vivantes à partir de from, les skip premières sautées, au plus limit
+    private static List<Comment> materialize(ColumnarCommentStore store, int from, int skip, int limit) {
+        int size = store.size();
+        List<Comment> materialized = new ArrayList<>(Math.min(limit, Math.max(size - from, 0)));
+        IntRegistry<User> users = YouTubeAnalyzerSystem.getUserRegistry();
+        for (int row = from; row < size && materialized.size() < limit; row++) {
+            if (store.isDeleted(row)) continue;
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            User author = users.get(store.getAuthorSymbol(row));
+            if (author == null) {
+                String authorId = store.getAuthorId(row);
+                author = new User(authorId, authorId, "");
+            }
+            materialized.add(store.toComment(row, author));
+        }
+        return materialized;
+    }
+    
+    public int getCommentCount() {
+        ColumnarCommentStore store = columns;
+        return store != null ? store.liveCount() : comments.size();
     }
     
     public void displayInfo() {
-        System.out.println("\n--- Video Information ---");
-        System.out.println("ID: " + videoId);
-        System.out.println("Title: " + title);
-        System.out.println("URL: " + url);
-        System.out.println("Duration: " + duration + " seconds");
-        System.out.println("Views: " + viewCount);
-        System.out.println("Category: " + category);
-        System.out.println("Comments: " + comments.size());
+        StringBuilder info = new StringBuilder(256);
+        appendInfo(info);
+        System.out.print(info);
+    }
+    
+    void appendInfo(StringBuilder info) {
+        info.append("\n--- Video Information ---\n");
+        info.append("ID: ").append(videoId).append('\n');
+        info.append("Title: ").append(title).append('\n');
+        info.append("URL: ").append(url).append('\n');
+        info.append("Duration: ").append(duration).append(" seconds\n");
+        info.append("Views: ").append(viewCount.sum()).append('\n');
+        info.append("Category: ").append(getCategory()).append('\n');
+        info.append("Comments: ").append(getCommentCount()).append('\n');
     }
 }
 
 // Classe Comment
 class Comment {
     private String commentId;
-    private String content;
+    private volatile String content;
     private LocalDateTime postDate;
-    private int likesCount;
-    private int dislikesCount;
+    private LongAdder likesCount;
+    private LongAdder dislikesCount;
     private User author;
+    private volatile double sentimentScore;
+    // Vidéo qui porte le commentaire, renseignée à l'ajout
+    private volatile String videoId;
+    // Signature SimHash du texte, calculée une fois ; invalidée par une modification du texte
+    private volatile SignedContent signed;
     
     public Comment(String commentId, String content, User author) {
+        this(commentId, content, author, LocalDateTime.now());
+    }
+    
+    // Date de publication fournie par la source (flux, import)
+    public Comment(String commentId, String content, User author, LocalDateTime postDate) {
         this.commentId = commentId;
         this.content = content;
         this.author = author;
-        this.postDate = LocalDateTime.now();
-        this.likesCount = 0;
-        this.dislikesCount = 0;
+        this.postDate = postDate;
+        this.likesCount = new LongAdder();
+        this.dislikesCount = new LongAdder();
     }
     
     public String getCommentId() { return commentId; }
     public String getContent() { return content; }
     public LocalDateTime getPostDate() { return postDate; }
-    public int getLikesCount() { return likesCount; }
+    public long getLikesCount() { return likesCount.sum(); }
+    public long getDislikesCount() { return dislikesCount.sum(); }
+    public double getSentimentScore() { return sentimentScore; }
+    public User getAuthor() { return author; }
+    public String getVideoId() { return videoId; }
+    
+    public long getSignature() {
+        String text = content;
+        SignedContent current = signed;
+        if (current == null || current.content != text) {
+            current = new SignedContent(text, DuplicateDetector.signature(text));
+            signed = current;
+        }
+        return current.signature;
+    }
     
-    public void addLike() { likesCount++; }
-    public void addDislike() { dislikesCount++; }
+    // Seulement par Video.editComment, qui réévalue le score et met l'agrégat à jour
+    void setContent(String content) { this.content = content; }
+    void setSentimentScore(double sentimentScore) { this.sentimentScore = sentimentScore; }
+    void setVideoId(String videoId) { this.videoId = videoId; }
+    
+    void restoreState(LocalDateTime postDate, long likes, long dislikes) {
+        this.postDate = postDate;
+        likesCount.reset();
+        likesCount.add(likes);
+        dislikesCount.reset();
+        dislikesCount.add(dislikes);
+    }
+    
+    public void addLike() { likesCount.increment(); }
+    public void addDislike() { dislikesCount.increment(); }
     
     public void displayComment() {
-        System.out.println("\nComment by " + author.getUsername() + ": " + content);
-        System.out.println("Likes: " + likesCount + ", Dislikes: " + dislikesCount);
+        StringBuilder text = new StringBuilder(128);
+        appendComment(text);
+        System.out.print(text);
+    }
+    
+    void appendComment(StringBuilder text) {
+        text.append("\nComment by ").append(author.getUsername()).append(": ").append(content).append('\n');
+        text.append("Likes: ").append(likesCount.sum()).append(", Dislikes: ").append(dislikesCount.sum()).append('\n');
+    }
+    
+    // Texte et signature publiés ensemble : une signature n'est jamais associée à un autre texte
+    private static final class SignedContent {
+        final String content;
+        final long signature;
+        
+        SignedContent(String content, long signature) {
+            this.content = content;
+            this.signature = signature;
+        }
     }
 }
 
 // Classe Analyzer
 class Analyzer {
+    // En dessous de deux lots, le découpage parallèle coûte plus qu'il ne rapporte
+    public static final int DEFAULT_BATCH_SIZE = 2048;
+    // Au-delà de ce nombre de vues, les likes sont ramenés à une audience de référence
+    static final long REFERENCE_VIEWS = 1000;
+    
     private String analyzerId;
     private String analysisMethod;
-    private Map<String, Double> sentimentScores;
+    private SentimentStrategy strategy;
+    private int batchSize;
+    // Lots répartis sur le pool commun, au plus parallelism à la fois : aucun pool propre à
+    // fermer, un Analyzer jetable ne laisse pas de threads derrière lui
+    private int parallelism;
+    // Scores du dernier passage, tampon primitif réutilisé d'un passage à l'autre
+    private double[] scoreBuffer;
+    private int lastRunSize;
+    private ScoreCache scoreCache;
+    private boolean engagementWeighted;
+    // Regroupement des quasi-doublons avant le score, null = chaque commentaire compte
+    private DuplicateDetector duplicateDetector;
+    private int lastClusterCount;
     
     public Analyzer(String analyzerId, String analysisMethod) {
+        // analysisMethod choisit la stratégie : "sentiment_analysis", "keyword", "lexicon_ngram"...
+        this(analyzerId, analysisMethod, SentimentStrategies.forMethod(analysisMethod));
+    }
+    
+    public Analyzer(String analyzerId, String analysisMethod, SentimentStrategy strategy) {
         this.analyzerId = analyzerId;
         this.analysisMethod = analysisMethod;
-        this.sentimentScores = new HashMap<>();
+        this.strategy = strategy;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.parallelism = 1;
+        this.scoreBuffer = new double[0];
     }
     
+    public SentimentStrategy getStrategy() { return strategy; }
+    public int getBatchSize() { return batchSize; }
+    public int getParallelism() { return parallelism; }
+    public boolean isEngagementWeighted() { return engagementWeighted; }
+    public synchronized DuplicateDetector getDuplicateDetector() { return duplicateDetector; }
+    
+    // Un groupe de n quasi-doublons est évalué une fois et pèse 1 + ln(n) au lieu de n :
+    // une inondation de copies ne fait plus la moyenne à elle seule
+    public synchronized void setDuplicateDetector(DuplicateDetector duplicateDetector) {
+        this.duplicateDetector = duplicateDetector;
+    }
+    
+    // Mode pondéré : un commentaire très liké pèse plus lourd dans le score
+    public synchronized void setEngagementWeighted(boolean engagementWeighted) {
+        this.engagementWeighted = engagementWeighted;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive");
+        this.batchSize = batchSize;
+    }
+    
+    // 1 = séquentiel, 0 = autant de threads que de coeurs
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism < 0) throw new IllegalArgumentException("Parallelism must not be negative");
+        this.parallelism = parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+    
+    // Cache optionnel pour retrouver un score par commentId, 0 pour le désactiver
+    public synchronized void setScoreCacheCapacity(int capacity) {
+        this.scoreCache = capacity == 0 ? null : new ScoreCache(capacity);
+    }
+    
+    public synchronized Double getCachedScore(String commentId) {
+        return scoreCache == null ? null : scoreCache.get(commentId);
+    }
+    
+    // Score du i-ème commentaire du dernier passage
+    public synchronized double getLastScore(int index) {
+        if (index < 0 || index >= lastRunSize) throw new IndexOutOfBoundsException("No score at index " + index);
+        return scoreBuffer[index];
+    }
+    
+    public synchronized int getLastRunSize() { return lastRunSize; }
+    // Groupes distincts du dernier passage (= nombre de commentaires sans détecteur)
+    public synchronized int getLastClusterCount() { return lastClusterCount; }
+    
     public AnalysisResult analyzeComments(List<Comment> comments) {
-        // Analyse chaque commentaire
-        for (Comment comment : comments) {
-            double sentiment = getSentimentScore(comment);
-            sentimentScores.put(comment.getCommentId(), sentiment);
-        }
-        
-        // Calcule le score global
+        // Analyse chaque commentaire et calcule le score global
         double qualityScore = calculateScore(comments);
         
         // Crée et retourne le résultat
         return new AnalysisResult(qualityScore, comments.size());
     }
     
+    // Comme analyzeComments, mais en mode pondéré les likes sont rapportés aux vues de la vidéo
+    public AnalysisResult analyzeVideo(Video video) {
+        if (video.isColumnar()) {
+            ColumnarCommentStore columns = video.getColumnarStore();
+            return new AnalysisResult(calculateScore(columns, columns.size(), video.getViewCount()), columns.liveCount());
+        }
+        List<Comment> comments = video.getComments();
+        return new AnalysisResult(calculateScore(comments, video.getViewCount()), comments.size());
+    }
+    
     public double getSentimentScore(Comment comment) {
-        String content = comment.getContent().toLowerCase();
-        String[] positiveWords = {"good", "great", "excellent", "amazing", "love", "best", "awesome"};
-        String[] negativeWords = {"bad", "terrible", "awful", "hate", "worst", "poor", "disappointing"};
+        return strategy.score(comment.getContent());
+    }
+    
+    public double calculateScore(List<Comment> comments) {
+        return calculateScore(comments, 0);
+    }
+    
+    // Un passage à la fois : l'Analyzer peut être réutilisé pour tout un lot de vidéos
+    public synchronized double calculateScore(List<Comment> comments, long viewCount) {
+        if (!(comments instanceof RandomAccess)) {
+            comments = new ArrayList<>(comments);
+        }
+        lastRunSize = comments.size();
+        lastClusterCount = lastRunSize;
+        if (comments.isEmpty()) return 5.0;
+        if (scoreBuffer.length < lastRunSize) {
+            scoreBuffer = new double[Math.max(lastRunSize, scoreBuffer.length * 2)];
+        }
+        
+        long start = System.nanoTime();
+        double[] totals = duplicateDetector != null
+                ? sumDeduplicated(comments, viewCount) : sumSentiments(comments, viewCount);
+        long elapsed = System.nanoTime() - start;
+        strategy.recordThroughput(lastRunSize, (long) totals[2], elapsed);
+        Metrics.recordScoring(lastRunSize, elapsed);
+        if (scoreCache != null) {
+            for (int i = 0; i < lastRunSize; i++) {
+                scoreCache.put(comments.get(i).getCommentId(), scoreBuffer[i]);
+            }
+        }
+        return toQualityScore(totals[0], totals[1]);
+    }
+    
+    // totalWeight = nombre de commentaires en mode non pondéré
+    // Parcours direct des colonnes, sans objet Comment ni String par commentaire
+    public synchronized double calculateScore(ColumnarCommentStore columns, int rows, long viewCount) {
+        lastRunSize = rows;
+        lastClusterCount = rows;
+        if (rows == 0) return 5.0;
+        if (scoreBuffer.length < rows) {
+            scoreBuffer = new double[Math.max(rows, scoreBuffer.length * 2)];
+        }
+        
+        long start = System.nanoTime();
+        double total = 0.0;
+        double totalWeight = 0.0;
+        long totalChars = 0;
+        if (duplicateDetector != null) {
+            double[] totals = sumDeduplicated(columns, rows, viewCount);
+            total = totals[0];
+            totalWeight = totals[1];
+            totalChars = (long) totals[2];
+        } else {
+            for (int row = 0; row < rows; row++) {
+                if (columns.isDeleted(row)) continue;
+                double score = columns.score(row, strategy);
+                scoreBuffer[row] = score;
+                double weight = engagementWeighted
+                        ? engagementWeight(columns.getLikes(row), columns.getDislikes(row), viewCount) : 1.0;
+                total += score * weight;
+                totalWeight += weight;
+                totalChars += columns.getContentLength(row);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        strategy.recordThroughput(rows, totalChars, elapsed);
+        Metrics.recordScoring(rows, elapsed);
+        if (scoreCache != null) {
+            for (int row = 0; row < rows; row++) {
+                scoreCache.put(columns.getCommentId(row), scoreBuffer[row]);
+            }
+        }
+        return toQualityScore(total, totalWeight);
+    }
+    
+    static double toQualityScore(double totalSentiment, double totalWeight) {
+        if (totalWeight == 0) return 5.0;
+        double avgSentiment = totalSentiment / totalWeight;
+        return Math.round((avgSentiment + 1) * 5 * 100.0) / 100.0;
+    }
+    
+    // Vaut 1 sans réaction ; croît avec le log des likes et décroît avec celui des dislikes.
+    // Sur une vidéo très vue, les réactions sont ramenées à REFERENCE_VIEWS vues pour qu'un
+    // même nombre de likes pèse plus sur une petite vidéo que sur un succès viral.
+    static double engagementWeight(long likes, long dislikes, long viewCount) {
+        double scale = viewCount > REFERENCE_VIEWS ? (double) REFERENCE_VIEWS / viewCount : 1.0;
+        return (1 + Math.log1p(likes * scale)) / (1 + Math.log1p(dislikes * scale));
+    }
+    
+    // Les k commentaires les plus influents (|sentiment| x poids d'engagement), du plus
+    // influent au moins influent. Un tas borné à k éléments évite de trier toute la liste.
+    public List<Comment> findMostInfluential(List<Comment> comments, long viewCount, int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive");
+        PriorityQueue<RankedComment> heap = new PriorityQueue<>(Math.min(k, Math.max(1, comments.size())));
+        for (Comment comment : comments) {
+            double influence = Math.abs(getSentimentScore(comment))
+                    * engagementWeight(comment.getLikesCount(), comment.getDislikesCount(), viewCount);
+            if (heap.size() < k) {
+                heap.add(new RankedComment(comment, influence));
+            } else if (influence > heap.peek().influence) {
+                heap.poll();
+                heap.add(new RankedComment(comment, influence));
+            }
+        }
         
-        int positiveCount = 0;
-        int negativeCount = 0;
+        Comment[] ranked = new Comment[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll().comment;
+        }
+        return Arrays.asList(ranked);
+    }
+    
+    // Le moins influent en tête du tas, c'est lui qu'on remplace
+    private static class RankedComment implements Comparable<RankedComment> {
+        final Comment comment;
+        final double influence;
         
-        for (String word : positiveWords) {
-            if (content.contains(word)) positiveCount++;
+        RankedComment(Comment comment, double influence) {
+            this.comment = comment;
+            this.influence = influence;
         }
         
-        for (String word : negativeWords) {
-            if (content.contains(word)) negativeCount++;
+        @Override
+        public int compareTo(RankedComment other) {
+            return Double.compare(influence, other.influence);
         }
+    }
+    
+    // Somme par lots fixes puis réduction dans l'ordre des lots : le résultat
+    // est identique en séquentiel et en parallèle
+    // Retourne {somme des sentiments pondérés, somme des poids, caractères évalués}
+    private double[] sumSentiments(List<Comment> comments, long viewCount) {
+        int size = comments.size();
+        // En long : un lot proche de Integer.MAX_VALUE ne déborde pas
+        int chunks = (int) ((size + (long) batchSize - 1) / batchSize);
+        // Lot i : somme pondérée en 3i, somme des poids en 3i + 1, caractères en 3i + 2
+        double[] chunkSums = new double[chunks * 3];
         
-        if (positiveCount + negativeCount == 0) return 0.0;
-        return (double)(positiveCount - negativeCount) / (positiveCount + negativeCount);
+        if (parallelism <= 1 || chunks < 2) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                sumChunk(comments, chunk, viewCount, chunkSums);
+            }
+        } else {
+            int chunksPerTask = (chunks + parallelism - 1) / parallelism;
+            ForkJoinPool.commonPool().invoke(new ChunkTask(comments, viewCount, chunkSums, 0, chunks, chunksPerTask));
+        }
+        
+        double[] totals = new double[3];
+        for (int i = 0; i < chunkSums.length; i += 3) {
+            totals[0] += chunkSums[i];
+            totals[1] += chunkSums[i + 1];
+            totals[2] += chunkSums[i + 2];
+        }
+        return totals;
     }
     
-    public double calculateScore(List<Comment> comments) {
-        if (comments.isEmpty()) return 5.0;
+    // Seul le premier commentaire de chaque groupe est évalué, les copies reprennent son score.
+    // Le groupe garde le poids d'engagement de son représentant, multiplié par 1 + ln(taille).
+    // Retourne {somme pondérée, somme des poids, caractères évalués}
+    private double[] sumDeduplicated(List<Comment> comments, long viewCount) {
+        int size = comments.size();
+        long[] signatures = new long[size];
+        for (int i = 0; i < size; i++) {
+            signatures[i] = comments.get(i).getSignature();
+        }
+        int[] representatives = duplicateDetector.cluster(signatures, size);
+        int[] clusterSizes = new int[size];
+        for (int i = 0; i < size; i++) clusterSizes[representatives[i]]++;
         
-        double totalSentiment = 0.0;
-        for (Double score : sentimentScores.values()) {
-            totalSentiment += score;
+        double[] totals = new double[3];
+        int clusters = 0;
+        for (int i = 0; i < size; i++) {
+            // Le représentant précède toujours ses copies : son score est déjà dans le tampon
+            if (representatives[i] != i) {
+                scoreBuffer[i] = scoreBuffer[representatives[i]];
+                continue;
+            }
+            Comment comment = comments.get(i);
+            double score = getSentimentScore(comment);
+            scoreBuffer[i] = score;
+            double weight = (1 + Math.log(clusterSizes[i])) * (engagementWeighted
+                    ? engagementWeight(comment.getLikesCount(), comment.getDislikesCount(), viewCount) : 1.0);
+            totals[0] += score * weight;
+            totals[1] += weight;
+            totals[2] += comment.getContent().length();
+            clusters++;
+        }
+        lastClusterCount = clusters;
+        return totals;
+    }
+    
+    // Variante colonnes : signatures lues dans le magasin, lignes supprimées ignorées.
+    // Retourne {somme pondérée, somme des poids, caractères évalués}
+    private double[] sumDeduplicated(ColumnarCommentStore columns, int rows, long viewCount) {
+        int[] liveRows = new int[rows];
+        long[] signatures = new long[rows];
+        int live = 0;
+        for (int row = 0; row < rows; row++) {
+            if (columns.isDeleted(row)) continue;
+            liveRows[live] = row;
+            signatures[live++] = columns.getSignature(row);
         }
+        int[] representatives = duplicateDetector.cluster(signatures, live);
+        int[] clusterSizes = new int[live];
+        for (int i = 0; i < live; i++) clusterSizes[representatives[i]]++;
         
-        double avgSentiment = totalSentiment / comments.size();
-        return Math.round((avgSentiment + 1) * 5 * 100.0) / 100.0;
+        double[] totals = new double[3];
+        int clusters = 0;
+        for (int i = 0; i < live; i++) {
+            int row = liveRows[i];
+            if (representatives[i] != i) {
+                scoreBuffer[row] = scoreBuffer[liveRows[representatives[i]]];
+                continue;
+            }
+            double score = columns.score(row, strategy);
+            scoreBuffer[row] = score;
+            double weight = (1 + Math.log(clusterSizes[i])) * (engagementWeighted
+                    ? engagementWeight(columns.getLikes(row), columns.getDislikes(row), viewCount) : 1.0);
+            totals[0] += score * weight;
+            totals[1] += weight;
+            totals[2] += columns.getContentLength(row);
+            clusters++;
+        }
+        lastClusterCount = clusters;
+        return totals;
+    }
+    
+    // Sentiment et poids calculés dans la même boucle, sans liste intermédiaire
+    private void sumChunk(List<Comment> comments, int chunk, long viewCount, double[] chunkSums) {
+        double sum = 0.0;
+        double weights = 0.0;
+        long chars = 0;
+        for (int i = chunk * batchSize, end = (int) Math.min(comments.size(), (long) i + batchSize); i < end; i++) {
+            Comment comment = comments.get(i);
+            String content = comment.getContent();
+            double score = strategy.score(content);
+            scoreBuffer[i] = score;
+            double weight = engagementWeighted
+                    ? engagementWeight(comment.getLikesCount(), comment.getDislikesCount(), viewCount) : 1.0;
+            sum += score * weight;
+            weights += weight;
+            chars += content.length();
+        }
+        chunkSums[3 * chunk] = sum;
+        chunkSums[3 * chunk + 1] = weights;
+        chunkSums[3 * chunk + 2] = chars;
+    }
+    
+    // Chaque tâche écrit uniquement dans ses propres cases de chunkSums ; jamais sérialisée
+    @SuppressWarnings("serial")
+    private class ChunkTask extends RecursiveAction {
+        private final List<Comment> comments;
+        private final long viewCount;
+        private final double[] chunkSums;
+        private final int from;
+        private final int to;
+        private final int chunksPerTask;
+        
+        ChunkTask(List<Comment> comments, long viewCount, double[] chunkSums, int from, int to, int chunksPerTask) {
+            this.comments = comments;
+            this.viewCount = viewCount;
+            this.chunkSums = chunkSums;
+            this.from = from;
+            this.to = to;
+            this.chunksPerTask = chunksPerTask;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= chunksPerTask) {
+                for (int chunk = from; chunk < to; chunk++) sumChunk(comments, chunk, viewCount, chunkSums);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(comments, viewCount, chunkSums, from, mid, chunksPerTask),
+                      new ChunkTask(comments, viewCount, chunkSums, mid, to, chunksPerTask));
+        }
     }
     
     public String generateReport(Video video) {
         AnalysisResult result = analyzeComments(video.getComments());
-        return "Analysis Report for '" + video.getTitle() + "': Score " + 
+        return "Analysis Report for '" + video.getTitle() + "': Score " +
                result.getQualityScore() + "/10";
     }
 }
@@ -260,7 +1100,19 @@ class AnalysisResult {
         this.recommendation = generateRecommendation();
     }
     
+    // Rechargement depuis une image disque
+    AnalysisResult(String resultId, double qualityScore, int totalComments, LocalDateTime analysisDate) {
+        this.resultId = resultId;
+        this.qualityScore = qualityScore;
+        this.totalCommentsAnalyzed = totalComments;
+        this.analysisDate = analysisDate;
+        this.recommendation = generateRecommendation();
+    }
+    
+    public String getResultId() { return resultId; }
     public double getQualityScore() { return qualityScore; }
+    public int getTotalCommentsAnalyzed() { return totalCommentsAnalyzed; }
+    public LocalDateTime getAnalysisDate() { return analysisDate; }
     public String getRecommendation() { return recommendation; }
     
     private String generateRecommendation() {
@@ -276,35 +1128,161 @@ class AnalysisResult {
     }
     
     public void displayResult() {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("ANALYSIS RESULT");
-        System.out.println("=".repeat(50));
-        System.out.println("Quality Score: " + qualityScore + "/10");
-        System.out.println("Total Comments Analyzed: " + totalCommentsAnalyzed);
-        System.out.println("Recommendation: " + recommendation);
-        System.out.println("Analysis Date: " + analysisDate.format(DateTimeFormatter.ISO_DATE_TIME));
-        System.out.println("=".repeat(50) + "\n");
+        StringBuilder text = new StringBuilder(512);
+        appendResult(text);
+        System.out.print(text);
+    }
+    
+    void appendResult(StringBuilder text) {
+        String rule = "=".repeat(50);
+        text.append('\n').append(rule).append("\nANALYSIS RESULT\n").append(rule).append('\n');
+        text.append("Quality Score: ").append(qualityScore).append("/10\n");
+        text.append("Total Comments Analyzed: ").append(totalCommentsAnalyzed).append('\n');
+        text.append("Recommendation: ").append(recommendation).append('\n');
+        text.append("Analysis Date: ").append(analysisDate.format(DateTimeFormatter.ISO_DATE_TIME)).append('\n');
+        text.append(rule).append("\n\n");
     }
     
     public void saveResult() {
-        System.out.println("Result saved to " + resultId + ".txt");
+        List<String> lines = Arrays.asList(
+            "Result ID: " + resultId,
+            "Quality Score: " + qualityScore + "/10",
+            "Total Comments Analyzed: " + totalCommentsAnalyzed,
+            "Recommendation: " + recommendation,
+            "Analysis Date: " + analysisDate.format(DateTimeFormatter.ISO_DATE_TIME));
+        try {
+            Files.write(Paths.get(resultId + ".txt"), lines, StandardCharsets.UTF_8);
+            System.out.println("Result saved to " + resultId + ".txt");
+        } catch (IOException e) {
+            System.out.println("Could not save result: " + e.getMessage());
+        }
     }
 }
 
-import java.util.*;
-
 public class YouTubeAnalyzerSystem {
-    // Collections pour stocker les instances
-    private static Map<String, User> users = new HashMap<>();
-    private static Map<String, VideoCreator> videoCreators = new HashMap<>();
-    private static Map<String, Viewer> viewers = new HashMap<>();
-    private static Map<String, Video> videos = new HashMap<>();
-    private static Map<String, Comment> comments = new HashMap<>();
-    private static Map<String, AnalysisResult> results = new HashMap<>();
+    // Fenêtres gardées par vidéo suivie en direct (une journée par heure, par exemple)
+    static final int LIVE_WINDOWS_KEPT = 24;
+    
+    // Identifiants internés en entiers denses ; les registres sont indexés par ces entiers
+    private static final SymbolTable userIds = new SymbolTable("user");
+    private static final SymbolTable videoIds = new SymbolTable("video");
+    private static final SymbolTable categories = new SymbolTable("category");
+    
+    // Collections pour stocker les instances, partagées entre plusieurs threads producteurs
+    private static IntRegistry<User> users = new IntRegistry<>(userIds);
+    private static IntRegistry<VideoCreator> videoCreators = new IntRegistry<>(userIds);
+    private static IntRegistry<Viewer> viewers = new IntRegistry<>(userIds);
+    private static IntRegistry<Video> videos = new IntRegistry<>(videoIds);
+    // Les ids de commentaires ne sont pas internés : une SymbolTable ne rend jamais ses symboles,
+    // et les commentaires vont et viennent bien plus que les utilisateurs et les vidéos
+    private static Map<String, Comment> comments = new ConcurrentHashMap<>();
+    private static ResultCache results = new ResultCache(ResultCache.DEFAULT_CAPACITY);
+    private static VideoIndex videoIndex = new VideoIndex();
+    // Classement des vidéos en vogue, mis à jour par Video à chaque commentaire
+    private static TrendingIndex trending = new TrendingIndex(TrendingIndex.DEFAULT_CAPACITY, () -> videos.values());
+    // Auteurs distincts et distributions approximatives, tenus par Video à chaque commentaire
+    private static SketchRegistry sketches = new SketchRegistry();
+    
+    // Persistance optionnelle (--data <dossier>), null si désactivée
+    private static SnapshotStore store;
+    // --columnar : les nouvelles vidéos rangent leurs commentaires en colonnes
+    private static boolean columnarComments;
+    // --serve <port> : API HTTP en parallèle du menu, null sinon
+    private static ApiServer apiServer;
+    // --shard <port> : ce processus ne détient qu'une partie des vidéos (ShardCoordinator), null sinon
+    private static ShardServer shardServer;
+    // --dedup : les quasi-doublons sont regroupés avant le score, null sinon
+    private static DuplicateDetector duplicateDetector;
+    // --analysis-method / --lexicon : stratégie de score de tout le système, utilisée pour le
+    // score de chaque commentaire à l'ajout comme pour analyze() (menu 21 pour en changer)
+    private static volatile String analysisMethod = "sentiment_analysis";
+    private static volatile String lexiconPath;
+    private static volatile SentimentStrategy sentimentStrategy = SentimentStrategies.forMethod(analysisMethod);
+    // --engagement-weighted : analyze() pondère chaque commentaire par ses likes/dislikes
+    // rapportés aux vues de la vidéo (menu 21 pour en changer, ?weighting= dans l'API)
+    private static volatile boolean engagementWeighted;
+    // Un Analyzer par thread et par mode (normal, pondéré) : analyze() est appelé en parallèle (lots, API)
+    private static final ThreadLocal<Analyzer[]> systemAnalyzers = ThreadLocal.withInitial(() -> new Analyzer[2]);
     
     private static Scanner scanner = new Scanner(System.in);
     
     public static void main(String[] args) {
+        List<String> arguments = new ArrayList<>();
+        String dataDirectory = null;
+        int servePort = -1;
+        int shardPort = -1;
+        String method = null;
+        String lexicon = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--data") && i + 1 < args.length) {
+                dataDirectory = args[++i];
+            } else if (args[i].equals("--analysis-method") && i + 1 < args.length) {
+                method = args[++i];
+            } else if (args[i].equals("--lexicon") && i + 1 < args.length) {
+                lexicon = args[++i];
+            } else if (args[i].equals("--serve") && i + 1 < args.length) {
+                servePort = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--shard") && i + 1 < args.length) {
+                shardPort = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--columnar")) {
+                columnarComments = true;
+            } else if (args[i].equals("--engagement-weighted")) {
+                engagementWeighted = true;
+            } else if (args[i].equals("--dedup")) {
+                duplicateDetector = new DuplicateDetector();
+            } else if (args[i].equals("--metrics")) {
+                Metrics.setEnabled(true);
+                Metrics.registerMBean();
+            } else if (args[i].equals("--metrics-dump") && i + 1 < args.length) {
+                Metrics.setEnabled(true);
+                Metrics.registerMBean();
+                Metrics.startPeriodicDump(Duration.ofSeconds(Long.parseLong(args[++i])));
+            } else {
+                arguments.add(args[i]);
+            }
+        }
+        if (dataDirectory != null && !openStore(dataDirectory)) {
+            return;
+        }
+        // Après le rechargement : les commentaires relus sont réévalués si la méthode change
+        if ((method != null || lexicon != null) && !selectAnalysisMethod(method != null ? method : analysisMethod, lexicon)) {
+            closeStore();
+            return;
+        }
+        if (servePort >= 0 && !startApiServer(servePort)) {
+            return;
+        }
+        if (shardPort >= 0) {
+            // Pas de menu : le shard répond au coordinateur jusqu'à l'arrêt du processus
+            if (!startShardServer(shardPort)) return;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                shardServer.stop();
+                if (apiServer != null) apiServer.stop();
+                closeStore();
+            }));
+            return;
+        }
+        
+        if (!arguments.isEmpty() && arguments.get(0).equals("--batch")) {
+            // Pas de journal ligne par ligne en mode lots : une image complète à la fin
+            SnapshotStore persistent = store;
+            store = null;
+            BatchIngestor.run(arguments.subList(1, arguments.size()).toArray(new String[0]));
+            store = persistent;
+            if (Metrics.isEnabled()) System.out.println(Metrics.getReport());
+            if (apiServer != null) {
+                // Le service continue après l'ingestion, jusqu'à l'arrêt du processus
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    apiServer.stop();
+                    closeStore();
+                }));
+                System.out.println("Serving until interrupted (Ctrl+C)");
+                return;
+            }
+            closeStore();
+            return;
+        }
+        
         System.out.println("Welcome to YouTube Video Analyzer System!");
         
         while (true) {
@@ -325,7 +1303,20 @@ public class YouTubeAnalyzerSystem {
                 case "10": deleteUser(); break;
                 case "11": deleteVideo(); break;
                 case "12": displayVideoDetails(); break;
+                case "13": saveSnapshot(); break;
+                case "14": analyzeCategory(); break;
+                case "15": analyzeEveryVideo(); break;
+                case "16": showMetrics(); break;
+                case "17": watchVideo(); break;
+                case "18": exportReport(); break;
+                case "19": showTrending(); break;
+                case "20": showApproximateStatistics(); break;
+                case "21": analysisSettings(); break;
+                case "22": editComment(); break;
+                case "23": deleteComment(); break;
                 case "0":
+                    if (apiServer != null) apiServer.stop();
+                    closeStore();
                     System.out.println("\nThank you for using YouTube Video Analyzer System!");
                     System.out.println("Goodbye!");
                     return;
@@ -354,6 +1345,17 @@ public class YouTubeAnalyzerSystem {
         System.out.println("10. Delete User");
         System.out.println("11. Delete Video");
         System.out.println("12. Display Video Details");
+        System.out.println("13. Save Snapshot");
+        System.out.println("14. Analyze Videos by Category");
+        System.out.println("15. Analyze All Videos");
+        System.out.println("16. Show Metrics");
+        System.out.println("17. Watch Video");
+        System.out.println("18. Export Report");
+        System.out.println("19. Trending Videos");
+        System.out.println("20. Approximate Statistics");
+        System.out.println("21. Analysis Settings");
+        System.out.println("22. Edit Comment");
+        System.out.println("23. Delete Comment");
         System.out.println("0. Exit");
         System.out.println("=".repeat(60));
     }
@@ -375,20 +1377,15 @@ public class YouTubeAnalyzerSystem {
         
         switch (choice) {
             case "1":
-                User user = new User(userId, username, email);
-                users.put(userId, user);
+                registerUser("user", userId, username, email);
                 System.out.println("\nUser " + username + " created successfully!");
                 break;
             case "2":
-                VideoCreator creator = new VideoCreator(userId, username, email);
-                videoCreators.put(userId, creator);
-                users.put(userId, creator);
+                registerUser("creator", userId, username, email);
                 System.out.println("\nVideo Creator " + username + " created successfully!");
                 break;
             case "3":
-                Viewer viewer = new Viewer(userId, username, email);
-                viewers.put(userId, viewer);
-                users.put(userId, viewer);
+                registerUser("viewer", userId, username, email);
                 System.out.println("\nViewer " + username + " created successfully!");
                 break;
             default:
@@ -396,6 +1393,532 @@ public class YouTubeAnalyzerSystem {
         }
     }
     
+    // Modification des registres suivie de son enregistrement au journal : une image attend
+    // que la paire soit complète (voir SnapshotStore), null sans persistance
+    private static SnapshotStore beginLogged() {
+        SnapshotStore log = store;
+        if (log != null) log.beginMutation();
+        return log;
+    }
+    
+    private static void endLogged(SnapshotStore log) {
+        if (log != null) log.endMutation();
+    }
+    
+    // Enregistrement sans affichage, partagé par le menu et l'ingestion par lots.
+    // Type : "user", "creator" ou "viewer" ; retourne null si le type est inconnu.
+    static User registerUser(String type, String userId, String username, String email) {
+        SnapshotStore log = beginLogged();
+        try {
+            switch (type) {
+                case "user":
+                    User user = new User(userId, username, email);
+                    users.put(userId, user);
+                    Metrics.registryMutation();
+                    if (log != null) log.logUser(user);
+                    return user;
+                case "creator":
+                    VideoCreator creator = new VideoCreator(userId, username, email);
+                    videoCreators.put(userId, creator);
+                    users.put(userId, creator);
+                    Metrics.registryMutation();
+                    if (log != null) log.logUser(creator);
+                    return creator;
+                case "viewer":
+                    Viewer viewer = new Viewer(userId, username, email);
+                    viewers.put(userId, viewer);
+                    users.put(userId, viewer);
+                    Metrics.registryMutation();
+                    if (log != null) log.logUser(viewer);
+                    return viewer;
+                default:
+                    return null;
+            }
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Retourne null si le créateur n'existe pas ou si la vidéo existe déjà
+    static Video registerVideo(String creatorId, String videoId, String title, String url, int duration, String category) {
+        return registerVideo(creatorId, videoId, title, url, duration, category, LocalDateTime.now());
+    }
+    
+    // Un id déjà pris est refusé : remplacer la vidéo laisserait ses commentaires dans le
+    // registre global, sa place chez son créateur et ses comptes dans les sketches
+    static Video registerVideo(String creatorId, String videoId, String title, String url, int duration, String category,
+                               LocalDateTime uploadDate) {
+        SnapshotStore log = beginLogged();
+        try {
+            VideoCreator creator = videoCreators.get(creatorId);
+            if (creator == null) return null;
+            Video video = new Video(videoId, title, url, duration, category, uploadDate);
+            if (columnarComments) video.enableColumnarStore();
+            if (videos.putIfAbsent(videoId, video) != null) return null;
+            creator.addVideo(video);
+            videoIndex.add(video);
+            Metrics.registryMutation();
+            if (log != null) log.logVideo(video);
+            return video;
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Retourne null si la vidéo ou l'auteur n'existe pas
+    static Comment registerComment(String videoId, String userId, String commentId, String content) {
+        SnapshotStore log = beginLogged();
+        try {
+            Video video = videos.get(videoId);
+            User author = users.get(userId);
+            if (video == null || author == null) return null;
+            if (video.isColumnar()) {
+                // Reconstruit depuis les arguments : une compaction peut déplacer la ligne
+                LocalDateTime postDate = LocalDateTime.now();
+                double sentiment = video.appendComment(commentId, userId, content, postDate);
+                Comment detached = new Comment(commentId, content, author, postDate);
+                detached.setSentimentScore(sentiment);
+                detached.setVideoId(videoId);
+                Metrics.registryMutation();
+                if (log != null) log.logComment(videoId, detached);
+                return detached;
+            }
+            Comment comment = new Comment(commentId, content, author);
+            comments.put(commentId, comment);
+            video.addComment(comment);
+            Metrics.registryMutation();
+            if (log != null) log.logComment(videoId, comment);
+            return comment;
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Chemin d'ingestion : en colonnes, aucun objet Comment n'est créé
+    static boolean appendComment(String videoId, String userId, String commentId, String content) {
+        Video video = videos.get(videoId);
+        if (video == null || !video.isColumnar() || store != null) {
+            return registerComment(videoId, userId, commentId, content) != null;
+        }
+        if (!users.containsKey(userId)) return false;
+        video.appendComment(commentId, userId, content, LocalDateTime.now());
+        Metrics.registryMutation();
+        return true;
+    }
+    
+    static void restoreComment(String videoId, Comment comment, double sentiment) {
+        Video video = videos.get(videoId);
+        if (video == null) return;
+        // Les commentaires en colonnes ne sont pas référencés dans le registre global
+        if (!video.isColumnar()) comments.put(comment.getCommentId(), comment);
+        video.restoreComment(comment, sentiment);
+    }
+    
+    // Commentaire déplacé depuis un autre shard : repris tel quel, et journalisé ici
+    static boolean importComment(String videoId, Comment comment, double sentiment) {
+        SnapshotStore log = beginLogged();
+        try {
+            if (!videos.containsKey(videoId)) return false;
+            restoreComment(videoId, comment, sentiment);
+            Metrics.registryMutation();
+            if (log != null) log.logComment(videoId, comment);
+            return true;
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Nouveau texte réévalué par la vidéo ; false si la vidéo ou le commentaire n'existe pas
+    static boolean editComment(String videoId, String commentId, String content) {
+        SnapshotStore log = beginLogged();
+        try {
+            Video video = videos.get(videoId);
+            if (video == null || !video.editComment(commentId, content)) return false;
+            Metrics.registryMutation();
+            if (log != null) log.logEditComment(videoId, commentId, content);
+            return true;
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Retrait immédiat de la vidéo et du registre global ; la place est récupérée par le Compactor
+    static boolean removeComment(String videoId, String commentId) {
+        SnapshotStore log = beginLogged();
+        try {
+            Video video = videos.get(videoId);
+            if (video == null || !video.removeComment(commentId)) return false;
+            Comment comment = comments.get(commentId);
+            if (comment != null && videoId.equals(comment.getVideoId())) comments.remove(commentId, comment);
+            Metrics.registryMutation();
+            if (log != null) log.logDeleteComment(videoId, commentId);
+            Compactor.schedule();
+            return true;
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Visionnage : une vue de plus et une entrée d'historique, journalisées comme le reste
+    static void recordWatch(Viewer viewer, Video video) {
+        SnapshotStore log = beginLogged();
+        try {
+            LocalDateTime watchedAt = LocalDateTime.now();
+            viewer.recordWatch(video, watchedAt);
+            if (log != null) log.logWatch(viewer.getId(), video.getVideoId(), watchedAt);
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Suivi en direct : les commentaires qui arrivent désormais sur la vidéo sont agrégés par
+    // fenêtres de window (glissantes de slide), les LIVE_WINDOWS_KEPT dernières sont gardées.
+    // Remplace un suivi déjà en cours ; null si la vidéo n'existe pas
+    static StreamingAnalyzer.RecentWindows startLiveAnalysis(String videoId, Duration window, Duration slide) {
+        Video video = videos.get(videoId);
+        if (video == null) return null;
+        StreamingAnalyzer analyzer = new StreamingAnalyzer(sentimentStrategy, window, slide, Flow.defaultBufferSize(),
+                                                           ForkJoinPool.commonPool());
+        StreamingAnalyzer.RecentWindows windows = new StreamingAnalyzer.RecentWindows(analyzer, LIVE_WINDOWS_KEPT);
+        video.setLiveWindows(windows);
+        return windows;
+    }
+    
+    static boolean stopLiveAnalysis(String videoId) {
+        Video video = videos.get(videoId);
+        if (video == null || video.getLiveWindows() == null) return false;
+        video.setLiveWindows(null);
+        return true;
+    }
+    
+    static void restoreWatch(String viewerId, String videoId, LocalDateTime watchedAt) {
+        Viewer viewer = viewers.get(viewerId);
+        Video video = videos.get(videoId);
+        if (viewer != null && video != null) viewer.recordWatch(video, watchedAt);
+    }
+    
+    static Collection<Viewer> getViewers() { return Collections.unmodifiableCollection(viewers.values()); }
+    
+    static SentimentStrategy getSentimentStrategy() { return sentimentStrategy; }
+    static String getAnalysisMethod() { return analysisMethod; }
+    static String getLexiconPath() { return lexiconPath; }
+    
+    // Change la stratégie du système (lexicon : fichier de lexique pondéré, null pour celui par
+    // défaut). Les commentaires déjà stockés sont réévalués : agrégats, tendances, sketches et
+    // résultats en cache restent cohérents avec la nouvelle stratégie.
+    static int setAnalysisMethod(String method, String lexicon) throws IOException {
+        SnapshotStore log = beginLogged();
+        try {
+            SentimentStrategy strategy = lexicon == null
+                    ? SentimentStrategies.forMethod(method) : SentimentStrategies.load(method, lexicon);
+            useAnalysisMethod(method, lexicon, strategy);
+            int rescored = 0;
+            for (Video video : videos.values()) rescored += video.rescore(strategy);
+            if (rescored > 0) sketches.rebuildSentiments(videos.values());
+            if (log != null) log.logAnalysisMethod(method, lexicon);
+            return rescored;
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Rechargement d'une image : les scores relus ont déjà été calculés avec cette stratégie
+    static void restoreAnalysisMethod(String method, String lexicon) throws IOException {
+        try {
+            useAnalysisMethod(method, lexicon, lexicon == null
+                    ? SentimentStrategies.forMethod(method) : SentimentStrategies.load(method, lexicon));
+        } catch (IOException e) {
+            throw new IOException("Cannot read lexicon " + lexicon + " used by the saved scores: " + e.getMessage(), e);
+        }
+    }
+    
+    private static void useAnalysisMethod(String method, String lexicon, SentimentStrategy strategy) {
+        analysisMethod = method;
+        lexiconPath = lexicon;
+        // Publiée avant le rescore : un ajout qui passe après lui utilise déjà la nouvelle stratégie
+        sentimentStrategy = strategy;
+    }
+    
+    static boolean isEngagementWeighted() { return engagementWeighted; }
+    
+    // --dedup : les magasins en colonnes calculent alors la signature dès l'ajout
+    static boolean isDeduplicating() { return duplicateDetector != null; }
+    
+    static void setEngagementWeighted(boolean weighted) {
+        engagementWeighted = weighted;
+    }
+    
+    // Analyse dans le mode du système
+    static AnalysisResult analyze(Video video) {
+        return analyze(video, engagementWeighted);
+    }
+    
+    // Résultat en cache si les commentaires n'ont pas changé depuis, sinon recalculé et mis en cache.
+    // weighted : score pondéré par l'engagement, mis en cache à part du score normal
+    static AnalysisResult analyze(Video video, boolean weighted) {
+        long startAllocated = Metrics.threadAllocatedBytes();
+        long start = System.nanoTime();
+        // Le poids dépend aussi des vues : version et vues ne font que croître, leur somme change à chaque modification
+        long version = weighted ? video.getVersion() + video.getViewCount() : video.getVersion();
+        AnalysisResult cached = results.get(video.getVideoId(), weighted, version);
+        if (cached != null) {
+            Metrics.recordAnalysis(start, startAllocated);
+            return cached;
+        }
+        // Sans --dedup ni pondération, l'agrégat tenu à jour à chaque ajout suffit
+        AnalysisResult result = weighted || duplicateDetector != null
+                ? systemAnalyzer(weighted).analyzeVideo(video) : video.getCurrentResult();
+        // Non journalisé : recalculable, il n'a pas à faire grossir le journal (l'image garde le cache)
+        results.put(video.getVideoId(), weighted, version, result);
+        Metrics.recordAnalysis(start, startAllocated);
+        return result;
+    }
+    
+    // Score dans le mode du système sans réanalyse en mode normal : l'agrégat tenu à jour,
+    // ou le résultat pondéré (en cache tant que la vidéo ne change pas) en mode engagement
+    static double qualityScore(Video video) {
+        if (!engagementWeighted || video.getCommentCount() == 0) return video.getAggregate().getQualityScore();
+        return analyze(video, true).getQualityScore();
+    }
+    
+    // L'Analyzer du thread pour ce mode, recréé quand la stratégie du système change
+    private static Analyzer systemAnalyzer(boolean weighted) {
+        Analyzer[] analyzers = systemAnalyzers.get();
+        int mode = weighted ? 1 : 0;
+        Analyzer analyzer = analyzers[mode];
+        if (analyzer == null || analyzer.getStrategy() != sentimentStrategy) {
+            analyzer = new Analyzer(weighted ? "ANL_ENGAGEMENT" : "ANL_DEDUP", analysisMethod, sentimentStrategy);
+            analyzer.setEngagementWeighted(weighted);
+            analyzer.setDuplicateDetector(duplicateDetector);
+            analyzers[mode] = analyzer;
+        }
+        return analyzer;
+    }
+    
+    // Un résultat rechargé n'est réutilisable que s'il couvre tous les commentaires de la vidéo
+    static void restoreResult(String videoId, AnalysisResult result) {
+        Video video = videos.get(videoId);
+        if (video == null) return;
+        boolean current = result.getTotalCommentsAnalyzed() == video.getCommentCount();
+        results.put(videoId, false, current ? video.getVersion() : -1, result);
+    }
+    
+    static boolean removeUser(String userId) {
+        return removeUsers(Collections.singletonList(userId)) == 1;
+    }
+    
+    // Suppression en cascade : les vidéos des créateurs supprimés, puis les commentaires des
+    // utilisateurs sur toutes les vidéos restantes, en un seul parcours quel que soit leur nombre.
+    // Le retrait est immédiat ; la place libérée est récupérée plus tard par le Compactor.
+    static int removeUsers(Collection<String> userIdList) {
+        SnapshotStore log = beginLogged();
+        try {
+            BitSet removed = new BitSet();
+            List<String> orphanVideos = new ArrayList<>();
+            for (String userId : userIdList) {
+                int id = userIds.lookup(userId);
+                if (id < 0 || users.remove(id) == null) continue;
+                VideoCreator creator = videoCreators.remove(id);
+                if (creator != null) {
+                    for (Video video : creator.getVideos()) orphanVideos.add(video.getVideoId());
+                }
+                viewers.remove(id);
+                removed.set(id);
+                Metrics.registryMutation();
+                if (log != null) log.logDelete(SnapshotStore.DELETE_USER, userId);
+            }
+            if (removed.isEmpty()) return 0;
+            // Déjà journalisées par DELETE_USER : le rejeu refait la même cascade
+            removeVideos(orphanVideos, false);
+            for (Video video : videos.values()) {
+                if (video.removeCommentsBy(removed, comment -> comments.remove(comment.getCommentId(), comment)) > 0) {
+                    results.invalidate(video.getVideoId());
+                }
+            }
+            Compactor.schedule();
+            return removed.cardinality();
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    static boolean removeVideo(String videoId) {
+        return removeVideos(Collections.singletonList(videoId), true) == 1;
+    }
+    
+    static int removeVideos(Collection<String> videoIdList) {
+        return removeVideos(videoIdList, true);
+    }
+    
+    // Retire les vidéos de l'index, de leur créateur et du cache de résultats ; leurs
+    // commentaires quittent le registre global avec elles
+    private static int removeVideos(Collection<String> videoIdList, boolean logged) {
+        SnapshotStore log = beginLogged();
+        try {
+            int count = 0;
+            for (String videoId : videoIdList) {
+                Video video = videos.remove(videoId);
+                if (video == null) continue;
+                video.setLiveWindows(null);
+                videoIndex.remove(video);
+                trending.remove(videoId);
+                VideoCreator creator = video.getCreatorId() == null ? null : videoCreators.get(video.getCreatorId());
+                if (creator != null) creator.removeVideo(videoId);
+                results.invalidate(videoId);
+                if (!video.isColumnar()) {
+                    for (Comment comment : video.getComments()) comments.remove(comment.getCommentId(), comment);
+                }
+                Metrics.registryMutation();
+                if (logged && log != null) log.logDelete(SnapshotStore.DELETE_VIDEO, videoId);
+                count++;
+            }
+            if (count > 0) Compactor.schedule();
+            return count;
+        } finally {
+            endLogged(log);
+        }
+    }
+    
+    // Commentaires du registre global dont la vidéo ou l'auteur a disparu entre-temps
+    // (ajout concurrent d'une suppression) ; appelé par le Compactor
+    static int sweepOrphanComments() {
+        int count = 0;
+        for (Iterator<Comment> iterator = comments.values().iterator(); iterator.hasNext();) {
+            Comment comment = iterator.next();
+            String videoId = comment.getVideoId();
+            if (videoId == null) continue;
+            Video video = videos.get(videoId);
+            if (video != null && users.containsKey(comment.getAuthor().getId())) continue;
+            iterator.remove();
+            if (video != null) video.removeComment(comment.getCommentId());
+            count++;
+        }
+        return count;
+    }
+    
+    // Résultats en cache de vidéos supprimées ; appelé par le Compactor
+    static int sweepOrphanResults() {
+        return results.retainVideos(videos::containsKey);
+    }
+    
+    private static boolean startApiServer(int port) {
+        try {
+            apiServer = new ApiServer(port, ApiServer.defaultThreads());
+            apiServer.start();
+            System.out.println("HTTP API listening on port " + apiServer.getPort());
+            return true;
+        } catch (IOException e) {
+            System.out.println("Cannot start HTTP API on port " + port + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    static ApiServer getApiServer() { return apiServer; }
+    
+    private static boolean startShardServer(int port) {
+        try {
+            shardServer = new ShardServer(port);
+            shardServer.start();
+            System.out.println("Shard listening on port " + shardServer.getPort());
+            return true;
+        } catch (IOException e) {
+            System.out.println("Cannot start shard on port " + port + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    private static boolean openStore(String directory) {
+        try {
+            long start = System.nanoTime();
+            SnapshotStore opened = new SnapshotStore(directory, false);
+            int replayed = opened.load();
+            store = opened;
+            System.out.printf("Loaded %d users, %d videos, %d comments from %s (%d log records replayed) in %d ms%n",
+                              users.size(), videos.size(), getCommentTotal(), directory, replayed,
+                              (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Cannot open data directory " + directory + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    // Sans effet si la méthode et le lexique sont déjà ceux du système (image rechargée)
+    private static boolean selectAnalysisMethod(String method, String lexicon) {
+        if (method.equals(analysisMethod) && Objects.equals(lexicon, lexiconPath)) return true;
+        try {
+            long start = System.nanoTime();
+            int rescored = setAnalysisMethod(method, lexicon);
+            System.out.printf("Analysis method: %s%s (%d comments rescored in %d ms)%n", method,
+                              lexicon == null ? "" : ", lexicon " + lexicon, rescored, (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Cannot read lexicon " + lexicon + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+        return false;
+    }
+    
+    private static void closeStore() {
+        if (store == null) return;
+        try {
+            store.saveSnapshot();
+            store.close();
+        } catch (IOException e) {
+            System.out.println("Could not save snapshot: " + e.getMessage());
+        }
+    }
+    
+    private static void saveSnapshot() {
+        if (store == null) {
+            System.out.println("\nPersistence is disabled. Start with --data <directory> to enable it.");
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            store.saveSnapshot();
+            System.out.println("\nSnapshot saved in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.out.println("Could not save snapshot: " + e.getMessage());
+        }
+    }
+    
+    // Analyse toutes les vidéos commentées à partir de leurs agrégats
+    static int analyzeAllVideos() {
+        AnalysisScheduler scheduler = new AnalysisScheduler(AnalysisScheduler.defaultConcurrency());
+        try {
+            int analyzed = scheduler.analyzeAll(videos.values());
+            sketches.rebuildVideoScores(videos.values());
+            return analyzed;
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+    
+    static Map<String, User> getUsers() { return Collections.unmodifiableMap(users); }
+    static Map<String, Video> getVideos() { return Collections.unmodifiableMap(videos); }
+    static Map<String, Comment> getComments() { return Collections.unmodifiableMap(comments); }
+    static SymbolTable getUserSymbols() { return userIds; }
+    static IntRegistry<User> getUserRegistry() { return users; }
+    static SymbolTable getVideoSymbols() { return videoIds; }
+    static IntRegistry<Video> getVideoRegistry() { return videos; }
+    static SymbolTable getCategorySymbols() { return categories; }
+    
+    // Comprend les commentaires rangés en colonnes, absents du registre global
+    static long getCommentTotal() {
+        long total = 0;
+        for (Video video : videos.values()) total += video.getCommentCount();
+        return total;
+    }
+    
+    // Scores normaux seulement (persistance) ; les scores pondérés sont recalculés à la demande
+    static Map<String, AnalysisResult> getResults() { return results.snapshot(false); }
+    static ResultCache getResultCache() { return results; }
+    static VideoIndex getVideoIndex() { return videoIndex; }
+    static TrendingIndex getTrendingIndex() { return trending; }
+    static SketchRegistry getSketches() { return sketches; }
+    
     private static void createVideo() {
         if (videoCreators.isEmpty()) {
             System.out.println("\nNo video creators available. Create a creator first!");
@@ -425,9 +1948,11 @@ public class YouTubeAnalyzerSystem {
         System.out.print("Enter Category: ");
         String category = scanner.nextLine();
         
-        Video video = new Video(videoId, title, url, duration, category);
-        videos.put(videoId, video);
-        videoCreators.get(creatorId).uploadVideo(video);
+        if (registerVideo(creatorId, videoId, title, url, duration, category) == null) {
+            System.out.println("Video ID already exists!");
+            return;
+        }
+        System.out.println("Video '" + title + "' uploaded successfully");
         System.out.println("\nVideo '" + title + "' created successfully!");
     }
     
@@ -470,9 +1995,7 @@ public class YouTubeAnalyzerSystem {
         System.out.print("Enter Comment Content: ");
         String content = scanner.nextLine();
         
-        Comment comment = new Comment(commentId, content, users.get(userId));
-        comments.put(commentId, comment);
-        videos.get(videoId).addComment(comment);
+        registerComment(videoId, userId, commentId, content);
         System.out.println("\nComment added successfully!");
     }
     
@@ -485,8 +2008,8 @@ public class YouTubeAnalyzerSystem {
         System.out.println("\nAvailable videos:");
         for (Map.Entry<String, Video> entry : videos.entrySet()) {
             Video v = entry.getValue();
-            System.out.println("  " + entry.getKey() + ": " + v.getTitle() + 
-                             " (" + v.getComments().size() + " comments)");
+            System.out.println("  " + entry.getKey() + ": " + v.getTitle() +
+                             " (" + v.getCommentCount() + " comments)");
         }
         
         System.out.print("\nEnter Video ID to analyze: ");
@@ -497,16 +2020,203 @@ public class YouTubeAnalyzerSystem {
         }
         
         Video video = videos.get(videoId);
-        if (video.getComments().isEmpty()) {
+        if (video.getCommentCount() == 0) {
             System.out.println("\nThis video has no comments to analyze!");
             return;
         }
         
-        Analyzer analyzer = new Analyzer("analyzer_1", "sentiment_analysis");
-        System.out.println("\nAnalyzing " + video.getComments().size() + " comments...");
-        AnalysisResult result = analyzer.analyzeComments(video.getComments());
-        results.put(videoId, result);
+        System.out.println("\nAnalyzing " + video.getCommentCount() + " comments...");
+        AnalysisResult result = analyze(video);
         result.displayResult();
+        System.out.println("Result cache: " + results.getStats());
+        TrendTracker trend = video.getTrend();
+        System.out.printf("Time-decayed score: %.2f/10 (momentum %+.2f, %.2f comments/hour)%n", trend.getDecayedScore(),
+                          trend.getMomentum(), trend.getVelocity(trending.getClock()));
+        System.out.println("Distinct commenters: ~" + video.getDistinctAuthors());
+        
+        // Le score de l'autre mode, lui aussi mis en cache
+        if (engagementWeighted) {
+            System.out.println("Unweighted score: " + analyze(video, false).getQualityScore() + "/10");
+        } else {
+            System.out.println("Engagement-weighted score: " + analyze(video, true).getQualityScore() + "/10");
+        }
+        Analyzer deduplicated = new Analyzer("ANL_DEDUP", analysisMethod, sentimentStrategy);
+        deduplicated.setDuplicateDetector(duplicateDetector != null ? duplicateDetector : new DuplicateDetector());
+        System.out.println("Near-duplicates collapsed: " + deduplicated.analyzeVideo(video).getQualityScore() + "/10 ("
+                           + deduplicated.getLastClusterCount() + " distinct of " + video.getCommentCount() + " comments)");
+        System.out.println("Most influential comments:");
+        for (Comment comment : systemAnalyzer(true).findMostInfluential(video.getComments(), video.getViewCount(), 3)) {
+            System.out.println("  " + comment.getAuthor().getUsername() + ": " + comment.getContent() +
+                               " (" + comment.getLikesCount() + " likes, " + comment.getDislikesCount() + " dislikes)");
+        }
+    }
+    
+    private static void analyzeCategory() {
+        if (videos.isEmpty()) {
+            System.out.println("\nNo videos available!");
+            return;
+        }
+        
+        System.out.println("\nAvailable categories:");
+        for (String category : videoIndex.getCategories()) {
+            System.out.println("  " + category + " (" + videoIndex.countInCategory(category) + " videos)");
+        }
+        
+        System.out.print("\nEnter Category: ");
+        String category = scanner.nextLine();
+        System.out.print("Uploaded in the last N days (empty for all): ");
+        String days = scanner.nextLine().trim();
+        LocalDateTime from = null;
+        if (!days.isEmpty()) {
+            try {
+                from = LocalDateTime.now().minusDays(Long.parseLong(days));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid number of days!");
+                return;
+            }
+        }
+        
+        Collection<Video> matching = videoIndex.findByCategory(category, from, null);
+        if (matching.isEmpty()) {
+            System.out.println("No videos found in this category.");
+            return;
+        }
+        
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("CATEGORY ANALYSIS: " + category);
+        System.out.println("=".repeat(60));
+        for (Video video : matching) {
+            if (video.getCommentCount() == 0) {
+                System.out.println(video.getVideoId() + ": " + video.getTitle() + " - no comments");
+                continue;
+            }
+            AnalysisResult result = analyze(video);
+            System.out.println(video.getVideoId() + ": " + video.getTitle() + " - Score " + result.getQualityScore() + "/10");
+        }
+    }
+    
+    private static void analyzeEveryVideo() {
+        if (videos.isEmpty()) {
+            System.out.println("\nNo videos available!");
+            return;
+        }
+        
+        AnalysisScheduler scheduler = new AnalysisScheduler(AnalysisScheduler.defaultConcurrency());
+        try {
+            int analyzed = scheduler.analyzeAll(videos.values());
+            sketches.rebuildVideoScores(videos.values());
+            System.out.println("\nAnalyzed " + analyzed + " videos");
+            for (Video video : videos.values()) {
+                AnalysisResult result = results.peek(video.getVideoId(), engagementWeighted);
+                if (result == null) continue;
+                System.out.printf("  %s: %s - Score %.2f/10 (%.2f ms)%n", video.getVideoId(), video.getTitle(),
+                                  result.getQualityScore(), scheduler.getLatencyMillis(video.getVideoId()));
+            }
+            System.out.println("Scheduler: " + scheduler.getStats());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+    
+    private static void showMetrics() {
+        if (apiServer != null) System.out.println("\nHTTP API: " + apiServer.getStats());
+        if (duplicateDetector != null) System.out.println("\nDuplicate detector: " + duplicateDetector.getStats());
+        if (!Metrics.isEnabled()) {
+            System.out.println("\nMetrics are disabled (start with --metrics or -Dmetrics=true).");
+            return;
+        }
+        System.out.println("\n" + Metrics.getReport());
+    }
+    
+    // Vitesse mesurée à la date du dernier commentaire reçu, toutes vidéos confondues
+    private static void showTrending() {
+        List<Video> top = trending.top(10);
+        if (top.isEmpty()) {
+            System.out.println("\nNo commented videos yet!");
+            return;
+        }
+        long now = trending.getClock();
+        System.out.println("\nTrending videos:");
+        int rank = 1;
+        for (Video video : top) {
+            TrendTracker trend = video.getTrend();
+            System.out.printf("  %2d. %s: %s (%.2f comments/hour, momentum %+.2f, decayed score %.2f/10)%n", rank++,
+                              video.getVideoId(), video.getTitle(), trend.getVelocity(now), trend.getMomentum(),
+                              trend.getDecayedScore());
+        }
+    }
+    
+    private static void analysisSettings() {
+        System.out.println("\nCurrent analysis method: " + analysisMethod
+                           + (lexiconPath == null ? " (built-in lexicon)" : " (lexicon " + lexiconPath + ")")
+                           + (engagementWeighted ? ", engagement-weighted" : ""));
+        SentimentStrategies.printThroughput();
+        if (lexiconPath != null) System.out.println(sentimentStrategy.getThroughputReport() + " (lexicon " + lexiconPath + ")");
+        System.out.println("Available methods: " + new TreeSet<>(SentimentStrategies.getMethods()));
+        System.out.print("\nEnter analysis method (empty to keep " + analysisMethod + "): ");
+        String method = scanner.nextLine().trim();
+        System.out.print("Weighted lexicon file (empty for the built-in lexicon): ");
+        String lexicon = scanner.nextLine().trim();
+        if (!selectAnalysisMethod(method.isEmpty() ? analysisMethod : method, lexicon.isEmpty() ? null : lexicon)) return;
+        System.out.print("Engagement-weighted scores (y/n, empty to keep " + (engagementWeighted ? "y" : "n") + "): ");
+        String weighted = scanner.nextLine().trim();
+        if (!weighted.isEmpty()) setEngagementWeighted(weighted.equalsIgnoreCase("y"));
+        System.out.println("Scores are " + (engagementWeighted ? "engagement-weighted" : "unweighted"));
+    }
+    
+    // Lecture des sketches seulement : aucun commentaire n'est parcouru
+    private static void showApproximateStatistics() {
+        Set<String> categoryNames = sketches.getCategories();
+        if (categoryNames.isEmpty()) {
+            System.out.println("\nNo comments yet!");
+            return;
+        }
+        System.out.println("\nApproximate statistics (HyperLogLog ±2.3%, quantiles ±1.3% of rank):");
+        printSketches("All categories", sketches.getGlobal(), sketches.getAllVideoScores());
+        for (String category : categoryNames) {
+            printSketches(category, sketches.getCategory(category), sketches.getVideoScores(category));
+        }
+        if (sketches.getAllVideoScores().getCount() == 0) {
+            System.out.println("(video score quantiles appear after Analyze All Videos)");
+        }
+        System.out.print("\nCreator ID for distinct commenters (blank to skip): ");
+        String creatorId = scanner.nextLine().trim();
+        if (creatorId.isEmpty()) return;
+        if (!videoCreators.containsKey(creatorId)) {
+            System.out.println("Creator not found!");
+            return;
+        }
+        System.out.println("Distinct commenters: ~" + sketches.getCreatorAuthors(creatorId));
+    }
+    
+    private static void printSketches(String label, SketchRegistry.CategorySketches category, KllSketch scores) {
+        System.out.printf("  %s: ~%d distinct commenters, %d comments%n", label, category.authors.estimate(),
+                          category.lengths.getCount());
+        System.out.printf("    length median %.0f, p90 %.0f, p99 %.0f chars; sentiment median %+.2f%n",
+                          category.lengths.quantile(0.5), category.lengths.quantile(0.9),
+                          category.lengths.quantile(0.99), category.sentiments.quantile(0.5));
+        if (scores != null && scores.getCount() > 0) {
+            System.out.printf("    video score p10 %.2f, median %.2f, p90 %.2f (%d videos)%n", scores.quantile(0.1),
+                              scores.quantile(0.5), scores.quantile(0.9), scores.getCount());
+        }
+    }
+    
+    private static void watchVideo() {
+        System.out.print("\nEnter Viewer ID: ");
+        Viewer viewer = viewers.get(scanner.nextLine());
+        if (viewer == null) {
+            System.out.println("Viewer not found!");
+            return;
+        }
+        System.out.print("Enter Video ID: ");
+        Video video = videos.get(scanner.nextLine());
+        if (video == null) {
+            System.out.println("Video not found!");
+            return;
+        }
+        if (viewer.hasWatched(video.getVideoId())) System.out.println("(already watched)");
+        viewer.watchVideo(video);
+        System.out.println("Favorite categories: " + viewer.getFavoriteCategories());
     }
     
     private static void listUsers() {
@@ -518,10 +2228,7 @@ public class YouTubeAnalyzerSystem {
         System.out.println("\n" + "=".repeat(60));
         System.out.println("ALL USERS");
         System.out.println("=".repeat(60));
-        for (User user : users.values()) {
-            user.displayInfo();
-            System.out.println("-".repeat(60));
-        }
+        writeReport(ReportEngine.toStandardOutput(ReportEngine.TEXT), "users");
     }
     
     private static void listVideos() {
@@ -533,14 +2240,11 @@ public class YouTubeAnalyzerSystem {
         System.out.println("\n" + "=".repeat(60));
         System.out.println("ALL VIDEOS");
         System.out.println("=".repeat(60));
-        for (Video video : videos.values()) {
-            video.displayInfo();
-            System.out.println("-".repeat(60));
-        }
+        writeReport(ReportEngine.toStandardOutput(ReportEngine.TEXT), "videos");
     }
     
     private static void listComments() {
-        if (comments.isEmpty()) {
+        if (getCommentTotal() == 0) {
             System.out.println("\nNo comments in the system.");
             return;
         }
@@ -548,9 +2252,45 @@ public class YouTubeAnalyzerSystem {
         System.out.println("\n" + "=".repeat(60));
         System.out.println("ALL COMMENTS");
         System.out.println("=".repeat(60));
-        for (Comment comment : comments.values()) {
-            comment.displayComment();
-            System.out.println("-".repeat(60));
+        writeReport(ReportEngine.toStandardOutput(ReportEngine.TEXT), "comments");
+    }
+    
+    private static void exportReport() {
+        System.out.print("\nSection (users, videos, comments, categories): ");
+        String section = scanner.nextLine().trim().toLowerCase();
+        System.out.print("Format (text, csv, jsonl): ");
+        String format = scanner.nextLine().trim().toLowerCase();
+        System.out.print("Output file (empty for console): ");
+        String path = scanner.nextLine().trim();
+        long start = System.nanoTime();
+        try {
+            ReportEngine engine = path.isEmpty() ? ReportEngine.toStandardOutput(format) : ReportEngine.toFile(format, path);
+            long rows = writeReport(engine, section);
+            if (rows >= 0) {
+                System.out.printf("%nWrote %d %s in %d ms%s%n", rows, section, (System.nanoTime() - start) / 1_000_000,
+                                  path.isEmpty() ? "" : " to " + path);
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println("Cannot export report: " + e.getMessage());
+        }
+    }
+    
+    // Écrit la section puis ferme le moteur ; -1 si la section est inconnue
+    static long writeReport(ReportEngine engine, String section) {
+        try (ReportEngine report = engine) {
+            switch (section) {
+                case "users": report.writeUsers(users.values()); break;
+                case "videos": report.writeVideos(videos.values()); break;
+                case "comments": report.writeComments(videos.values()); break;
+                case "categories": report.writeCategories(videos.values()); break;
+                default:
+                    System.out.println("Unknown section: " + section);
+                    return -1;
+            }
+            return report.getRowsWritten();
+        } catch (IOException e) {
+            System.out.println("Cannot write report: " + e.getMessage());
+            return -1;
         }
     }
     
@@ -576,30 +2316,57 @@ public class YouTubeAnalyzerSystem {
         }
     }
     
+    // Plusieurs ids séparés par des virgules : suppression en un seul passage
     private static void deleteUser() {
-        System.out.print("\nEnter User ID to delete: ");
-        String userId = scanner.nextLine();
-        if (users.containsKey(userId)) {
-            String username = users.get(userId).getUsername();
-            users.remove(userId);
-            videoCreators.remove(userId);
-            viewers.remove(userId);
+        System.out.print("\nEnter User ID(s) to delete (comma-separated): ");
+        List<String> userIdList = parseIds(scanner.nextLine());
+        if (userIdList.size() == 1 && users.containsKey(userIdList.get(0))) {
+            String username = users.get(userIdList.get(0)).getUsername();
+            removeUser(userIdList.get(0));
             System.out.println("User " + username + " deleted successfully!");
-        } else {
-            System.out.println("User not found!");
+            return;
         }
+        int removed = removeUsers(userIdList);
+        System.out.println(removed == 0 ? "User not found!" : removed + " user(s) deleted successfully!");
     }
     
     private static void deleteVideo() {
-        System.out.print("\nEnter Video ID to delete: ");
-        String videoId = scanner.nextLine();
-        if (videos.containsKey(videoId)) {
-            String title = videos.get(videoId).getTitle();
-            videos.remove(videoId);
+        System.out.print("\nEnter Video ID(s) to delete (comma-separated): ");
+        List<String> videoIdList = parseIds(scanner.nextLine());
+        if (videoIdList.size() == 1 && videos.containsKey(videoIdList.get(0))) {
+            String title = videos.get(videoIdList.get(0)).getTitle();
+            removeVideo(videoIdList.get(0));
             System.out.println("Video '" + title + "' deleted successfully!");
-        } else {
-            System.out.println("Video not found!");
+            return;
+        }
+        int removed = removeVideos(videoIdList);
+        System.out.println(removed == 0 ? "Video not found!" : removed + " video(s) deleted successfully!");
+    }
+    
+    private static void editComment() {
+        System.out.print("\nEnter Video ID: ");
+        String videoId = scanner.nextLine();
+        System.out.print("Enter Comment ID: ");
+        String commentId = scanner.nextLine();
+        System.out.print("Enter new content: ");
+        String content = scanner.nextLine();
+        System.out.println(editComment(videoId, commentId, content) ? "Comment updated successfully!" : "Comment not found!");
+    }
+    
+    private static void deleteComment() {
+        System.out.print("\nEnter Video ID: ");
+        String videoId = scanner.nextLine();
+        System.out.print("Enter Comment ID: ");
+        String commentId = scanner.nextLine();
+        System.out.println(removeComment(videoId, commentId) ? "Comment deleted successfully!" : "Comment not found!");
+    }
+    
+    private static List<String> parseIds(String line) {
+        List<String> ids = new ArrayList<>();
+        for (String id : line.split(",")) {
+            if (!id.trim().isEmpty()) ids.add(id.trim());
         }
+        return ids;
     }
     
     private static void displayVideoDetails() {
@@ -618,9 +2385,10 @@ public class YouTubeAnalyzerSystem {
             comment.displayComment();
         }
         
-        if (results.containsKey(videoId)) {
+        AnalysisResult lastResult = results.peek(videoId, engagementWeighted);
+        if (lastResult != null) {
             System.out.println("\nAnalysis Result:");
-            results.get(videoId).displayResult();
+            lastResult.displayResult();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// Analyse d'une liste de 10 à 1 000 000 commentaires : séquentielle, parallèle,
+// calculateScore seul et calculateScore sur le stockage en colonnes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class AnalyzeCommentsBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+    
+    private DoubleSupplier sequential;
+    private DoubleSupplier parallel;
+    private DoubleSupplier calculateScore;
+    private DoubleSupplier calculateScoreColumnar;
+    
+    @Setup
+    public void setup() {
+        sequential = Fixtures.get("analyzeComments", size, false);
+        parallel = Fixtures.get("analyzeComments", size, true);
+        calculateScore = Fixtures.get("calculateScore", size);
+        calculateScoreColumnar = Fixtures.get("calculateScoreColumnar", size);
+    }
+    
+    @Benchmark
+    public double analyzeCommentsSequential() {
+        return sequential.getAsDouble();
+    }
+    
+    @Benchmark
+    public double analyzeCommentsParallel() {
+        return parallel.getAsDouble();
+    }
+    
+    @Benchmark
+    public double calculateScore() {
+        return calculateScore.getAsDouble();
+    }
+    
+    @Benchmark
+    public double calculateScoreColumnar() {
+        return calculateScoreColumnar.getAsDouble();
+    }
+}
\ No newline at end of file
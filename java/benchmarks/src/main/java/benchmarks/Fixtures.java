@@ -0,0 +1,24 @@
+package benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.function.DoubleSupplier;
+
+// Accès aux opérations de BenchmarkFixtures (paquetage par défaut, non importable d'ici) :
+// une recherche par réflexion au @Setup, puis de simples appels de DoubleSupplier.
+final class Fixtures {
+    private Fixtures() {}
+    
+    static DoubleSupplier get(String name, Object... args) {
+        try {
+            Class<?> fixtures = Class.forName("BenchmarkFixtures");
+            for (Method method : fixtures.getMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+                    return (DoubleSupplier) method.invoke(null, args);
+                }
+            }
+            throw new IllegalArgumentException("No fixture " + name + " with " + args.length + " arguments");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create fixture " + name, e);
+        }
+    }
+}
\ No newline at end of file
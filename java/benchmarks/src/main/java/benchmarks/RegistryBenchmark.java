@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// Video.addComment et recherche d'une vidéo parmi 100 000, par id texte ou par symbole
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistryBenchmark {
+    private DoubleSupplier addComment;
+    private DoubleSupplier videoLookup;
+    private DoubleSupplier videoLookupById;
+    
+    @Setup(Level.Trial)
+    public void setupRegistry() {
+        videoLookup = Fixtures.get("videoLookup");
+        videoLookupById = Fixtures.get("videoLookupById");
+    }
+    
+    // Vidéo neuve à chaque itération : sa taille ne dépend pas de la durée de la mesure
+    @Setup(Level.Iteration)
+    public void setupVideo() {
+        addComment = Fixtures.get("addComment");
+    }
+    
+    @Benchmark
+    public double addComment() {
+        return addComment.getAsDouble();
+    }
+    
+    @Benchmark
+    public double videoLookup() {
+        return videoLookup.getAsDouble();
+    }
+    
+    @Benchmark
+    public double videoLookupById() {
+        return videoLookupById.getAsDouble();
+    }
+}
\ No newline at end of file
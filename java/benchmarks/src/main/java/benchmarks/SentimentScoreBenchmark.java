@@ -0,0 +1,32 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.*;
+
+// Analyzer.getSentimentScore selon la longueur du commentaire et la méthode d'analyse
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SentimentScoreBenchmark {
+    @Param({"16", "128", "1024", "8192"})
+    public int length;
+    
+    @Param({"keyword", "lexicon_ngram"})
+    public String method;
+    
+    private DoubleSupplier score;
+    
+    @Setup
+    public void setup() {
+        score = Fixtures.get("sentimentScore", method, length);
+    }
+    
+    @Benchmark
+    public double getSentimentScore() {
+        return score.getAsDouble();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyzerTest {
+    private static final String[] WORDS = {"great", "bad", "love", "hate", "video", "the", "really", "awesome", "poor"};
+    private static final User AUTHOR = new User("analyzer-test", "author", "author@example.com");
+    
+    @Test
+    void parallelChunkedSumEqualsTheSequentialOne() {
+        int batchSize = 16;
+        int[] sizes = {1, batchSize - 1, batchSize, batchSize + 1, 2 * batchSize, 2 * batchSize + 1, 1000};
+        for (boolean weighted : new boolean[] {false, true}) {
+            for (int size : sizes) {
+                List<Comment> comments = randomComments(size, new Random(size));
+                Analyzer sequential = analyzer(batchSize, 1, weighted);
+                Analyzer parallel = analyzer(batchSize, 4, weighted);
+                // Un seul lot : somme de référence sans découpage
+                Analyzer unchunked = analyzer(Integer.MAX_VALUE, 1, weighted);
+                double expected = sequential.calculateScore(comments, 500);
+                String label = "size " + size + (weighted ? " weighted" : "");
+                // Même découpage, sommes partielles additionnées dans le même ordre : résultat identique
+                assertEquals(expected, parallel.calculateScore(comments, 500), label);
+                assertEquals(expected, unchunked.calculateScore(comments, 500), 1e-9, label);
+                for (int i = 0; i < size; i++) {
+                    assertEquals(sequential.getLastScore(i), parallel.getLastScore(i), label + " index " + i);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void defaultBatchSizeThresholdIsCrossedConsistently() {
+        int batchSize = Analyzer.DEFAULT_BATCH_SIZE;
+        for (int size : new int[] {batchSize - 1, batchSize, batchSize + 1, 2 * batchSize + 1}) {
+            List<Comment> comments = randomComments(size, new Random(size));
+            double expected = analyzer(batchSize, 1, false).calculateScore(comments);
+            assertEquals(expected, analyzer(batchSize, 0, false).calculateScore(comments), "size " + size);
+        }
+    }
+    
+    private static Analyzer analyzer(int batchSize, int parallelism, boolean weighted) {
+        Analyzer analyzer = new Analyzer("analyzer-test", "sentiment_analysis");
+        analyzer.setBatchSize(batchSize);
+        analyzer.setParallelism(parallelism);
+        analyzer.setEngagementWeighted(weighted);
+        return analyzer;
+    }
+    
+    private static List<Comment> randomComments(int size, Random random) {
+        List<Comment> comments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 1 + random.nextInt(8); w > 0; w--) text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            Comment comment = new Comment("c" + i, text.toString(), AUTHOR);
+            for (int likes = random.nextInt(5); likes > 0; likes--) comment.addLike();
+            if (random.nextInt(4) == 0) comment.addDislike();
+            comments.add(comment);
+        }
+        return comments;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCommentStoreTest {
+    @Test
+    void findUsesTheIndexAcrossGrowthDeletesAndCompaction() {
+        ColumnarCommentStore store = new ColumnarCommentStore();
+        int rows = 5_000;
+        for (int i = 0; i < rows; i++) {
+            assertEquals(i, store.append("comment-" + i, "author", "text " + i, 0, 0, 0, 0));
+        }
+        for (int i = 0; i < rows; i++) assertEquals(i, store.find("comment-" + i));
+        assertEquals(-1, store.find("comment-" + rows));
+        assertEquals(-1, store.find("comment-"));
+        
+        for (int i = 0; i < rows; i += 2) assertTrue(store.delete(i));
+        assertEquals(-1, store.find("comment-0"));
+        assertEquals(1, store.find("comment-1"));
+        // Identifiant réutilisé après suppression : la nouvelle ligne est trouvée
+        int reused = store.append("comment-0", "author", "again", 0, 0, 0, 0);
+        assertEquals(reused, store.find("comment-0"));
+        
+        ColumnarCommentStore compacted = store.compacted();
+        assertEquals(rows / 2 + 1, compacted.size());
+        for (int row = 0; row < compacted.size(); row++) {
+            assertEquals(row, compacted.find(compacted.getCommentId(row)));
+        }
+        assertEquals(-1, compacted.find("comment-2"));
+        assertEquals("again", compacted.getContent(compacted.find("comment-0")));
+    }
+    
+    @Test
+    void findComparesUtf8Bytes() {
+        ColumnarCommentStore store = new ColumnarCommentStore();
+        store.append("café", "author", "texte", 0, 0, 0, 0);
+        store.append("cafe", "author", "text", 0, 0, 0, 0);
+        assertEquals(0, store.find("café"));
+        assertEquals(1, store.find("cafe"));
+    }
+    
+    @Test
+    void signatureIsComputedOnFirstReadAndKeptByCompaction() {
+        ColumnarCommentStore store = new ColumnarCommentStore();
+        String[] texts = {"Super vidéo, merci !", "super video merci", "", "😀 emoji ok"};
+        for (int i = 0; i < 100; i++) store.append("c" + i, "author", texts[i % texts.length], 0, 0, 0, 0);
+        for (int row = 0; row < 100; row += 3) {
+            assertEquals(DuplicateDetector.signature(texts[row % texts.length]), store.getSignature(row));
+        }
+        store.delete(1);
+        ColumnarCommentStore compacted = store.compacted();
+        for (int row = 0; row < compacted.size(); row++) {
+            assertEquals(DuplicateDetector.signature(compacted.getContent(row)), compacted.getSignature(row));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Erreur type annoncée : 1,04 / sqrt(2048), environ 2,3 % ; on tolère trois écarts types
+class HyperLogLogTest {
+    private static final double TOLERANCE = 3 * 1.04 / Math.sqrt(1 << HyperLogLog.PRECISION);
+    
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) sketch.add("author-" + i);
+        assertEquals(100, sketch.estimate(), 2);
+    }
+    
+    @Test
+    void estimateStaysWithinErrorBound() {
+        for (int cardinality : new int[] { 1_000, 10_000, 100_000, 1_000_000 }) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < cardinality; i++) sketch.add("author-" + i);
+            double error = Math.abs(sketch.estimate() - cardinality) / (double) cardinality;
+            assertTrue(error < TOLERANCE, cardinality + " distinct values, relative error " + error);
+        }
+    }
+    
+    @Test
+    void duplicatesAreNotCounted() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 5_000; i++) sketch.add("author-" + i);
+        }
+        assertEquals(5_000, sketch.estimate(), 5_000 * TOLERANCE);
+    }
+    
+    @Test
+    void mergeEqualsSketchOfTheUnion() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            (i % 3 == 0 ? left : right).add("author-" + i);
+            union.add("author-" + i);
+        }
+        // Recouvrement : ajoutés des deux côtés, comptés une fois
+        for (int i = 0; i < 3_000; i++) left.add("author-" + (i * 3 + 1));
+        left.merge(right);
+        assertEquals(union.estimate(), left.estimate());
+    }
+    
+    @Test
+    void sparseSketchStaysSmall() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 10; i++) sketch.add("author-" + i);
+        assertTrue(sketch.getHeapBytes() < 1 << HyperLogLog.PRECISION);
+    }
+}
\ No newline at end of file
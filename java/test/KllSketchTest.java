@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Erreur de rang annoncée : environ 1,3 % pour k = 200 ; on tolère le triple
+class KllSketchTest {
+    private static final double RANK_TOLERANCE = 0.04;
+    private static final int VALUES = 1_000_000;
+    
+    @Test
+    void quantilesStayWithinRankError() {
+        KllSketch sketch = new KllSketch();
+        for (double value : shuffledValues(VALUES, 1)) sketch.update(value);
+        assertEquals(VALUES, sketch.getCount());
+        assertEquals(0, sketch.getMin());
+        assertEquals(VALUES - 1, sketch.getMax());
+        for (double q = 0.01; q < 1; q += 0.01) {
+            // Valeurs 0..n-1 : le rang exact d'une valeur est valeur / n
+            double estimatedRank = sketch.quantile(q) / VALUES;
+            assertEquals(q, estimatedRank, RANK_TOLERANCE, "quantile " + q);
+            assertEquals(q, sketch.rank(q * VALUES), RANK_TOLERANCE, "rank of " + q * VALUES);
+        }
+    }
+    
+    @Test
+    void memoryIsBoundedByAboutThreeK() {
+        KllSketch sketch = new KllSketch();
+        for (double value : shuffledValues(VALUES, 2)) sketch.update(value);
+        assertTrue(sketch.getRetained() <= 3 * KllSketch.DEFAULT_K + 64, "retained " + sketch.getRetained());
+    }
+    
+    @Test
+    void smallStreamsAreExact() {
+        KllSketch sketch = new KllSketch();
+        for (int i = 1; i <= 100; i++) sketch.update(i);
+        assertEquals(100, sketch.getRetained());
+        assertEquals(50, sketch.quantile(0.5), 1);
+        assertEquals(0.5, sketch.rank(50), 0.01);
+    }
+    
+    @Test
+    void mergedSketchesStayWithinRankError() {
+        List<Double> values = shuffledValues(VALUES, 3);
+        KllSketch merged = new KllSketch();
+        for (int part = 0; part < 8; part++) {
+            KllSketch sketch = new KllSketch();
+            for (int i = part; i < VALUES; i += 8) sketch.update(values.get(i));
+            merged.merge(sketch);
+        }
+        assertEquals(VALUES, merged.getCount());
+        for (double q = 0.05; q < 1; q += 0.05) {
+            assertEquals(q, merged.quantile(q) / VALUES, RANK_TOLERANCE, "quantile " + q);
+        }
+    }
+    
+    private static List<Double> shuffledValues(int count, long seed) {
+        List<Double> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) values.add((double) i);
+        Collections.shuffle(values, new Random(seed));
+        return values;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Le score est (positif - négatif) / (positif + négatif) : les facteurs se voient en
+// mêlant un terme positif et un terme négatif de même poids
+class NgramLexiconStrategyTest {
+    private static final double EPSILON = 1e-9;
+    private final NgramLexiconStrategy strategy = NgramLexiconStrategy.getDefault();
+    
+    @Test
+    void wholeWordsOnly() {
+        assertEquals(1.0, strategy.score("GREAT video"), EPSILON);
+        assertEquals(0.0, strategy.score("goodbye everyone"), EPSILON);
+        assertEquals(0.0, strategy.score("good bad"), EPSILON);
+        assertEquals(0.0, strategy.score(""), EPSILON);
+    }
+    
+    @Test
+    void negationFlipsTheNextWordsWithinItsWindow() {
+        assertEquals(-1.0, strategy.score("not good"), EPSILON);
+        assertEquals(-1.0, strategy.score("isn't good"), EPSILON);
+        // Troisième mot après la négation : encore dans la fenêtre
+        assertEquals(-1.0, strategy.score("never the video good"), EPSILON);
+        // Quatrième mot : hors de portée
+        assertEquals(1.0, strategy.score("never the video is good"), EPSILON);
+        // La ponctuation ferme la portée : +0.75 pour "not bad", +1 pour "good"
+        assertEquals(1.0, strategy.score("not bad, good"), EPSILON);
+        // Négation de "bad" (+0.75) et de "good" (-0.75) dans la même fenêtre
+        assertEquals(0.0, strategy.score("not bad good"), EPSILON);
+    }
+    
+    @Test
+    void intensifiersAndDiminishersScaleOnlyTheNextWord() {
+        // 1.5 contre 1
+        assertEquals(0.5 / 2.5, strategy.score("very good bad"), EPSILON);
+        // 2.25 contre 1 : les modificateurs se cumulent
+        assertEquals(1.25 / 3.25, strategy.score("really very good bad"), EPSILON);
+        // 0.5 contre 1
+        assertEquals(-0.5 / 1.5, strategy.score("slightly good bad"), EPSILON);
+        // Le second "good" n'est plus amplifié : 2.5 contre 1
+        assertEquals(1.5 / 3.5, strategy.score("very good good bad"), EPSILON);
+        // Amplifié puis nié : -1.5 * -0.75 = +1.125 contre 1
+        assertEquals(0.125 / 2.125, strategy.score("not very bad, bad"), EPSILON);
+    }
+    
+    @Test
+    void knownPairReplacesItsFirstWord() {
+        Map<String, Double> terms = new LinkedHashMap<>();
+        terms.put("good", 1.0);
+        terms.put("bad", -1.0);
+        terms.put("good grief", -1.0);
+        terms.put("not bad", 0.5);
+        NgramLexiconStrategy lexicon = new NgramLexiconStrategy(terms);
+        assertEquals(-1.0, lexicon.score("good grief"), EPSILON);
+        assertEquals(1.0, lexicon.score("good day"), EPSILON);
+        // Paire qui commence par la négation : son poids n'est pas inversé (0.5 contre 1)
+        assertEquals(-0.5 / 1.5, lexicon.score("not bad. bad"), EPSILON);
+        assertThrows(IllegalArgumentException.class,
+                     () -> new NgramLexiconStrategy(Map.of("three word term", 1.0)));
+    }
+    
+    @Test
+    void lexiconFileAcceptsWordPairs(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("lexicon.tsv");
+        Files.write(file, "# terme\tpoids\nmust see\t2\nwaste of\t-2\nsee\t0.5\n".getBytes(StandardCharsets.UTF_8));
+        NgramLexiconStrategy lexicon = NgramLexiconStrategy.fromFile(file.toString());
+        assertEquals(1.0, lexicon.score("a must see"), EPSILON);
+        assertEquals(-1.0, lexicon.score("waste of time"), EPSILON);
+        // "see" seul garde son propre poids
+        assertEquals(1.0, lexicon.score("see it"), EPSILON);
+    }
+}
\ No newline at end of file
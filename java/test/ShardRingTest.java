@@ -0,0 +1,140 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Répartition de l'anneau, clés déplacées à l'ajout d'un shard, et rééquilibrage sous écriture
+// avec de vrais processus shards (les registres de YouTubeAnalyzerSystem sont statiques)
+class ShardRingTest {
+    private static final int KEYS = 100_000;
+    
+    private final List<Process> shardProcesses = new ArrayList<>();
+    
+    @AfterEach
+    void stopShards() {
+        for (Process process : shardProcesses) process.destroyForcibly();
+    }
+    
+    @Test
+    void keysAreSpreadEvenly() {
+        List<String> shards = Arrays.asList("a:1", "b:2", "c:3", "d:4");
+        Map<String, Integer> counts = count(new ShardRing(shards));
+        for (String shard : shards) {
+            double share = counts.getOrDefault(shard, 0) / (double) KEYS;
+            assertEquals(0.25, share, 0.25 * 0.2, "share of " + shard);
+        }
+    }
+    
+    @Test
+    void addingAShardMovesAboutOneNthOfTheKeysToIt() {
+        ShardRing before = new ShardRing(Arrays.asList("a:1", "b:2", "c:3", "d:4"));
+        ShardRing after = before.withShard("e:5");
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "video-" + i;
+            String owner = after.ownerOf(key);
+            if (owner.equals(before.ownerOf(key))) continue;
+            assertEquals("e:5", owner, "keys only move to the new shard");
+            moved++;
+        }
+        assertEquals(0.2, moved / (double) KEYS, 0.2 * 0.2);
+    }
+    
+    @Test
+    void ownerIsStableAndIndependentOfShardOrder() {
+        ShardRing ring = new ShardRing(Arrays.asList("a:1", "b:2", "c:3"));
+        ShardRing reordered = new ShardRing(Arrays.asList("c:3", "a:1", "b:2"));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.ownerOf("video-" + i), reordered.ownerOf("video-" + i));
+        }
+    }
+    
+    @Test
+    void noWriteIsLostWhileAShardIsAdded() throws Exception {
+        List<String> addresses = Arrays.asList(startShard(), startShard());
+        String added = startShard();
+        int initialVideos = 2000;
+        int videosDuringMove = 500;
+        ExecutorService rebalance = Executors.newSingleThreadExecutor();
+        try (ShardCoordinator coordinator = new ShardCoordinator(addresses)) {
+            assertNull(coordinator.user("creator", "creator-1", "creator", "creator@example.com"));
+            assertNull(coordinator.user("user", "author-1", "author", "author@example.com"));
+            for (int i = 0; i < initialVideos; i++) addVideo(coordinator, i);
+            coordinator.flush();
+            
+            Future<Integer> moved = rebalance.submit(() -> coordinator.addShard(added));
+            for (int i = initialVideos; i < initialVideos + videosDuringMove; i++) addVideo(coordinator, i);
+            // Commentaires sur des vidéos anciennes, peut-être en cours de déplacement
+            for (int i = 0; i < initialVideos; i += 10) {
+                assertNull(coordinator.comment("video-" + i, "author-1", "late-" + i, "another great video"));
+            }
+            assertTrue(moved.get() > 0);
+            coordinator.flush();
+            
+            int total = initialVideos + videosDuringMove;
+            ShardCoordinator.GlobalStats stats = coordinator.stats();
+            assertEquals(3, stats.videosPerShard.size());
+            assertEquals(total, stats.videos);
+            assertEquals(total + initialVideos / 10, stats.comments);
+            assertEquals(0, coordinator.getShardRejected(), () -> String.valueOf(coordinator.getShardErrors()));
+            for (int i = 0; i < total; i++) {
+                Map<String, String> analysis = coordinator.analyze("video-" + i);
+                assertNull(analysis.get("error"), "video-" + i);
+                assertEquals(i % 10 == 0 && i < initialVideos ? "2" : "1", analysis.get("comments"), "video-" + i);
+            }
+        } finally {
+            rebalance.shutdownNow();
+        }
+    }
+    
+    private static Map<String, Integer> count(ShardRing ring) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) counts.merge(ring.ownerOf("video-" + i), 1, Integer::sum);
+        return counts;
+    }
+    
+    private static void addVideo(ShardCoordinator coordinator, int i) {
+        assertNull(coordinator.video("creator-1", "video-" + i, "Video " + i, "https://example.com/" + i, 60, "music"));
+        assertNull(coordinator.comment("video-" + i, "author-1", "comment-" + i, "great video"));
+    }
+    
+    // Un shard par processus, sur un port libre ; retourne son adresse
+    private String startShard() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classes = new File(ShardRing.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath();
+        Process process = new ProcessBuilder(java, "-cp", classes, "YouTubeAnalyzerSystem", "--shard", "0")
+                .redirectErrorStream(true).start();
+        shardProcesses.add(process);
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.startsWith("Shard listening on port ")) {
+                // La sortie du shard n'est plus lue ; elle ne doit pas bloquer le processus
+                Thread drain = new Thread(() -> {
+                    try {
+                        while (output.readLine() != null) {
+                            // Ignorée
+                        }
+                    } catch (IOException e) {
+                        // Processus arrêté
+                    }
+                });
+                drain.setDaemon(true);
+                drain.start();
+                return "localhost:" + line.substring("Shard listening on port ".length()).trim();
+            }
+        }
+        throw new IOException("Shard process exited before listening");
+    }
+}
\ No newline at end of file
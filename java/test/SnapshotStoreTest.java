@@ -0,0 +1,188 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Rejeu du journal dans les registres de YouTubeAnalyzerSystem, qui sont statiques : chaque
+// test a ses propres ids et retire ce qu'il a créé
+class SnapshotStoreTest {
+    private static int nextTest;
+    
+    @TempDir
+    Path directory;
+    private final String prefix = "snapshot-test-" + (nextTest++) + "-";
+    
+    @AfterEach
+    void removeTestData() {
+        YouTubeAnalyzerSystem.removeUser(prefix + "creator");
+        YouTubeAnalyzerSystem.removeUser(prefix + "viewer");
+    }
+    
+    @Test
+    void walIsReplayedIntoTheRegistries() throws IOException {
+        assertEquals(0, logSampleData());
+        removeTestData();
+        
+        SnapshotStore store = new SnapshotStore(directory.toString(), false);
+        assertEquals(5, store.load());
+        store.close();
+        assertSampleData(1);
+    }
+    
+    @Test
+    void snapshotAndWalAreReplayedTogether() throws IOException {
+        logSampleData();
+        removeTestData();
+        SnapshotStore store = new SnapshotStore(directory.toString(), false);
+        assertEquals(5, store.load());
+        store.saveSnapshot();
+        assertEquals(0, Files.size(directory.resolve("wal.log")));
+        store.logWatch(prefix + "viewer", prefix + "video", LocalDateTime.now());
+        store.close();
+        removeTestData();
+        
+        store = new SnapshotStore(directory.toString(), false);
+        assertEquals(1, store.load());
+        store.close();
+        assertSampleData(2);
+    }
+    
+    @Test
+    void tornTailIsIgnoredAndCut() throws IOException {
+        logSampleData();
+        Path wal = directory.resolve("wal.log");
+        long complete = Files.size(wal);
+        // Crash au milieu de l'écriture du dernier enregistrement (le visionnage)
+        try (RandomAccessFile file = new RandomAccessFile(wal.toFile(), "rw")) {
+            file.setLength(complete - 5);
+        }
+        removeTestData();
+        
+        SnapshotStore store = new SnapshotStore(directory.toString(), false);
+        assertEquals(4, store.load());
+        long valid = Files.size(wal);
+        assertTrue(valid < complete - 5, "torn record cut from the log");
+        // Les écritures suivantes reprennent après le dernier enregistrement valide
+        store.logWatch(prefix + "viewer", prefix + "video", LocalDateTime.now());
+        store.close();
+        assertSampleData(0);
+        removeTestData();
+        
+        store = new SnapshotStore(directory.toString(), false);
+        assertEquals(5, store.load());
+        store.close();
+        assertSampleData(1);
+    }
+    
+    @Test
+    void corruptedRecordStopsTheReplay() throws IOException {
+        logSampleData();
+        Path wal = directory.resolve("wal.log");
+        try (RandomAccessFile file = new RandomAccessFile(wal.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xff);
+        }
+        removeTestData();
+        
+        SnapshotStore store = new SnapshotStore(directory.toString(), false);
+        assertEquals(4, store.load());
+        store.close();
+        assertSampleData(0);
+    }
+    
+    @Test
+    void automaticSnapshotKeepsTheWalBounded() throws Exception {
+        logSampleData();
+        removeTestData();
+        int limit = 4096;
+        SnapshotStore store = new SnapshotStore(directory.toString(), false, limit);
+        assertEquals(5, store.load());
+        User viewer = YouTubeAnalyzerSystem.getUsers().get(prefix + "viewer");
+        Path wal = directory.resolve("wal.log");
+        // Un enregistrement d'une centaine d'octets : plusieurs fois la limite
+        for (int i = 0; i < 200; i++) store.logUser(viewer);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!(Files.exists(directory.resolve("snapshot.bin")) && Files.size(wal) < limit)) {
+            assertTrue(System.nanoTime() < deadline, "no automatic snapshot");
+            Thread.sleep(10);
+        }
+        store.close();
+        removeTestData();
+        
+        store = new SnapshotStore(directory.toString(), false, limit);
+        assertTrue(store.load() < 200);
+        store.close();
+        assertSampleData(1);
+    }
+    
+    @Test
+    void commentEditsAndDeletesAreReplayed() throws IOException {
+        logSampleData();
+        removeTestData();
+        SnapshotStore store = new SnapshotStore(directory.toString(), false);
+        store.load();
+        String videoId = prefix + "video";
+        Comment second = YouTubeAnalyzerSystem.registerComment(videoId, prefix + "viewer", prefix + "second", "second");
+        assertNotNull(second);
+        store.logComment(videoId, second);
+        assertTrue(YouTubeAnalyzerSystem.editComment(videoId, prefix + "comment", "edited text"));
+        store.logEditComment(videoId, prefix + "comment", "edited text");
+        assertTrue(YouTubeAnalyzerSystem.removeComment(videoId, prefix + "second"));
+        store.logDeleteComment(videoId, prefix + "second");
+        assertFalse(YouTubeAnalyzerSystem.removeComment(videoId, prefix + "second"));
+        store.close();
+        removeTestData();
+        
+        store = new SnapshotStore(directory.toString(), false);
+        assertEquals(8, store.load());
+        store.close();
+        assertSampleData(1);
+        Comment edited = YouTubeAnalyzerSystem.getComments().get(prefix + "comment");
+        assertEquals("edited text", edited.getContent());
+        assertNull(YouTubeAnalyzerSystem.getComments().get(prefix + "second"));
+        assertEquals("edited text", YouTubeAnalyzerSystem.getVideos().get(videoId).getComments().get(0).getContent());
+    }
+    
+    // Créateur, spectateur, vidéo sans catégorie, commentaire puis visionnage, journalisés
+    // dans un store vide ; retourne le nombre d'enregistrements rejoués à l'ouverture
+    private int logSampleData() throws IOException {
+        User creator = YouTubeAnalyzerSystem.registerUser("creator", prefix + "creator", "creator", "creator@example.com");
+        User viewer = YouTubeAnalyzerSystem.registerUser("viewer", prefix + "viewer", "viewer", null);
+        Video video = YouTubeAnalyzerSystem.registerVideo(prefix + "creator", prefix + "video", "Title", "https://example.com", 60, null);
+        Comment comment = YouTubeAnalyzerSystem.registerComment(prefix + "video", prefix + "viewer", prefix + "comment", "great video");
+        assertNotNull(video);
+        assertNotNull(comment);
+        
+        SnapshotStore store = new SnapshotStore(directory.toString(), false);
+        int replayed = store.load();
+        store.logUser(creator);
+        store.logUser(viewer);
+        store.logVideo(video);
+        store.logComment(video.getVideoId(), comment);
+        store.logWatch(viewer.getId(), video.getVideoId(), LocalDateTime.now());
+        store.close();
+        return replayed;
+    }
+    
+    private void assertSampleData(int watches) {
+        User viewer = YouTubeAnalyzerSystem.getUsers().get(prefix + "viewer");
+        assertTrue(viewer instanceof Viewer);
+        assertNull(viewer.getEmail());
+        assertTrue(YouTubeAnalyzerSystem.getUsers().get(prefix + "creator") instanceof VideoCreator);
+        Video video = YouTubeAnalyzerSystem.getVideos().get(prefix + "video");
+        assertNotNull(video);
+        assertNull(video.getCategory());
+        assertEquals(1, video.getCommentCount());
+        assertEquals(watches, ((Viewer) viewer).getWatchCount());
+        assertEquals(watches, video.getViewCount());
+    }
+}
\ No newline at end of file